@@ -0,0 +1,84 @@
+package com.apimonitor.dbmonitor.benchmarks;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.pool.PoolSettings;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A pre-filled H2 pool wired to the monitor the same way the auto-configuration does,
+ * without starting a Spring context whose scheduler would run cycles in the background.
+ */
+final class BenchmarkPool implements AutoCloseable {
+
+    static final String POOL_NAME = "dataSource";
+
+    final HikariDataSource hikariDataSource;
+    final MonitoredDataSource monitoredDataSource;
+    final MonitoredPoolRegistry registry;
+    final DatabaseConnectionMonitorService monitorService;
+
+    BenchmarkPool(int poolSize, Map<String, Object> properties) throws Exception {
+        hikariDataSource = new HikariDataSource();
+        hikariDataSource.setPoolName("benchmark");
+        hikariDataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        hikariDataSource.setUsername("sa");
+        hikariDataSource.setPassword("");
+        hikariDataSource.setMaximumPoolSize(poolSize);
+        hikariDataSource.setMinimumIdle(poolSize);
+
+        Map<String, Object> settings = new HashMap<>();
+        // A benchmark must never trigger the monitor's System.exit
+        settings.put("db.monitor.shutdown-policy", "LOG_ONLY");
+        settings.put("db.monitor.max-failure-threshold", Integer.MAX_VALUE);
+        settings.putAll(properties);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", settings));
+
+        PoolSettings poolSettings = PoolSettings.resolve(environment, POOL_NAME);
+        monitoredDataSource = new MonitoredDataSource(hikariDataSource,
+                poolSettings.getLeakStackSampleRate(), poolSettings.getSqlCapacity());
+        registry = new MonitoredPoolRegistry(Map.of(POOL_NAME, monitoredDataSource), environment,
+                Duration.ofMillis(5), Duration.ofSeconds(60));
+        registry.start();
+
+        monitorService = new DatabaseConnectionMonitorService();
+        Field registryField = DatabaseConnectionMonitorService.class.getDeclaredField("poolRegistry");
+        registryField.setAccessible(true);
+        registryField.set(monitorService, registry);
+
+        warmUp(poolSize);
+    }
+
+    MonitoredPool pool() {
+        return registry.getPool(POOL_NAME);
+    }
+
+    /**
+     * Waits until HikariCP has opened all connections so their creation is not measured.
+     */
+    private void warmUp(int poolSize) throws Exception {
+        hikariDataSource.getConnection().close();
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (hikariDataSource.getHikariPoolMXBean().getTotalConnections() < poolSize && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        registry.stop();
+        registry.destroy();
+        hikariDataSource.close();
+    }
+}
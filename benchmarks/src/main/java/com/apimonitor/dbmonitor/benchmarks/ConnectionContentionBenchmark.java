@@ -0,0 +1,70 @@
+package com.apimonitor.dbmonitor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connection hot path under contention: 32 threads (override with {@code -t}) share one
+ * pool, so at the smaller pool sizes threads queue for connections. The sampler and the
+ * shared histograms, leak tracker slots and latency average are all written concurrently here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class ConnectionContentionBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int poolSize;
+
+    private BenchmarkPool benchmarkPool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        benchmarkPool = new BenchmarkPool(poolSize, Map.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        benchmarkPool.close();
+    }
+
+    @Benchmark
+    public boolean rawGetConnection() throws SQLException {
+        return ConnectionOverheadBenchmark.acquireAndRelease(benchmarkPool.hikariDataSource);
+    }
+
+    @Benchmark
+    public boolean monitoredGetConnection() throws SQLException {
+        return ConnectionOverheadBenchmark.acquireAndRelease(benchmarkPool.monitoredDataSource);
+    }
+
+    @Benchmark
+    public int rawExecuteQuery() throws SQLException {
+        return ConnectionOverheadBenchmark.executeQuery(benchmarkPool.hikariDataSource);
+    }
+
+    @Benchmark
+    public int monitoredExecuteQuery() throws SQLException {
+        return ConnectionOverheadBenchmark.executeQuery(benchmarkPool.monitoredDataSource);
+    }
+}
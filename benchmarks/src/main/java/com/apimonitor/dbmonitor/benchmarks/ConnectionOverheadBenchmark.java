@@ -0,0 +1,96 @@
+package com.apimonitor.dbmonitor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the instrumentation wrapper on the connection hot path of a single thread.
+ *
+ * Each {@code raw*} benchmark has a {@code monitored*} twin doing the same work through
+ * {@link com.apimonitor.dbmonitor.datasource.MonitoredDataSource}; the difference is the
+ * cost of the monitoring hooks. {@link ConnectionContentionBenchmark} runs the same work
+ * from many threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionOverheadBenchmark {
+
+    static final String QUERY = "SELECT 1";
+
+    @Param({"10"})
+    public int poolSize;
+
+    /** Fraction of checkouts whose stack is captured for leak reports. */
+    @Param({"0.01"})
+    public double leakStackSampleRate;
+
+    BenchmarkPool benchmarkPool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        benchmarkPool = new BenchmarkPool(poolSize, Map.of("db.monitor.leak.stack-sample-rate", leakStackSampleRate));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        benchmarkPool.close();
+    }
+
+    @Benchmark
+    public boolean rawGetConnection() throws SQLException {
+        return acquireAndRelease(benchmarkPool.hikariDataSource);
+    }
+
+    @Benchmark
+    public boolean monitoredGetConnection() throws SQLException {
+        return acquireAndRelease(benchmarkPool.monitoredDataSource);
+    }
+
+    @Benchmark
+    public int rawExecuteQuery() throws SQLException {
+        return executeQuery(benchmarkPool.hikariDataSource);
+    }
+
+    @Benchmark
+    public int monitoredExecuteQuery() throws SQLException {
+        return executeQuery(benchmarkPool.monitoredDataSource);
+    }
+
+    static boolean acquireAndRelease(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getAutoCommit();
+        }
+    }
+
+    static int executeQuery(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(QUERY);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.apimonitor.dbmonitor.benchmarks;
+
+import com.apimonitor.dbmonitor.probe.DedicatedConnectionProbe;
+import com.apimonitor.dbmonitor.probe.HealthProbe;
+import com.apimonitor.dbmonitor.probe.PooledHealthProbe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single health probe against H2 in each probe mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HealthProbeBenchmark {
+
+    private BenchmarkPool benchmarkPool;
+    private ExecutorService executor;
+    private HealthProbe pooledProbe;
+    private HealthProbe dedicatedQueryProbe;
+    private HealthProbe dedicatedIsValidProbe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        benchmarkPool = new BenchmarkPool(10, Map.of());
+        executor = Executors.newCachedThreadPool();
+        pooledProbe = new PooledHealthProbe(benchmarkPool.hikariDataSource, "SELECT 1", 5);
+        dedicatedQueryProbe = new DedicatedConnectionProbe("benchmark",
+                DedicatedConnectionProbe.unpooledDataSource(benchmarkPool.hikariDataSource), "SELECT 1", 5000, executor);
+        dedicatedIsValidProbe = new DedicatedConnectionProbe("benchmark",
+                DedicatedConnectionProbe.unpooledDataSource(benchmarkPool.hikariDataSource), null, 5000, executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pooledProbe.close();
+        dedicatedQueryProbe.close();
+        dedicatedIsValidProbe.close();
+        executor.shutdownNow();
+        benchmarkPool.close();
+    }
+
+    @Benchmark
+    public boolean pooledQuery() throws SQLException {
+        return pooledProbe.probe();
+    }
+
+    @Benchmark
+    public boolean dedicatedQuery() throws SQLException {
+        return dedicatedQueryProbe.probe();
+    }
+
+    @Benchmark
+    public boolean dedicatedIsValid() throws SQLException {
+        return dedicatedIsValidProbe.probe();
+    }
+}
@@ -0,0 +1,85 @@
+package com.apimonitor.dbmonitor.benchmarks;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one monitoring cycle and of the pool utilization check on its own.
+ *
+ * {@code monitorDatabaseConnection} waits until the asynchronously started health probe has
+ * finished, so it measures a complete cycle including the probe query and thread handoffs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonitorCycleBenchmark {
+
+    private static final MethodHandle CHECK_POOL_UTILIZATION;
+
+    static {
+        try {
+            CHECK_POOL_UTILIZATION = MethodHandles.privateLookupIn(DatabaseConnectionMonitorService.class, MethodHandles.lookup())
+                    .findVirtual(DatabaseConnectionMonitorService.class, "checkPoolUtilization",
+                            MethodType.methodType(void.class, MonitoredPool.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"10", "50", "200"})
+    public int poolSize;
+
+    private BenchmarkPool benchmarkPool;
+    private MonitoredPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        benchmarkPool = new BenchmarkPool(poolSize, Map.of());
+        pool = benchmarkPool.pool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        benchmarkPool.close();
+    }
+
+    @Benchmark
+    public void monitorDatabaseConnection() {
+        benchmarkPool.monitorService.monitorDatabaseConnection();
+        awaitProbe();
+    }
+
+    @Benchmark
+    public void checkPoolUtilization() throws Throwable {
+        CHECK_POOL_UTILIZATION.invokeExact(benchmarkPool.monitorService, pool);
+    }
+
+    private void awaitProbe() {
+        while (!pool.tryStartProbe()) {
+            Thread.onSpinWait();
+        }
+        pool.finishProbe();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.helloworld.controller;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database Unavailable Handler
+ *
+ * While the database monitor's circuit breaker is open, message operations fail
+ * within microseconds. Spring wraps the exception (e.g. in a
+ * CannotCreateTransactionException); the handler matches it anywhere in the
+ * cause chain and answers with 503 instead of 500.
+ */
+@RestControllerAdvice
+@Slf4j
+public class DatabaseUnavailableHandler {
+
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleDatabaseUnavailable(DatabaseUnavailableException e) {
+        log.debug("Rejected request: {}", e.getMessage());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "unavailable");
+        response.put("message", "Database is temporarily unavailable");
+        response.put("timestamp", LocalDateTime.now());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+}
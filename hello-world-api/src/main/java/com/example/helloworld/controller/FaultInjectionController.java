@@ -0,0 +1,44 @@
+package com.example.helloworld.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fault Injection Controller
+ *
+ * Lets the load test reproduce application bugs the monitor has to cope with.
+ * Only registered with app.fault-injection.enabled=true, never enable it in production.
+ */
+@RestController
+@RequestMapping("/api/faults")
+@ConditionalOnProperty(name = "app.fault-injection.enabled", havingValue = "true")
+@Slf4j
+@RequiredArgsConstructor
+public class FaultInjectionController {
+
+    private final DataSource dataSource;
+
+    // Kept reachable, so the connections are never closed by the garbage collector either
+    private final List<Connection> leakedConnections = new CopyOnWriteArrayList<>();
+
+    /**
+     * Checks out a connection and never returns it to the pool
+     */
+    @PostMapping("/leak")
+    public Map<String, Object> leakConnection() throws SQLException {
+        leakedConnections.add(dataSource.getConnection());
+        log.warn("Leaked a database connection on purpose, {} leaked so far", leakedConnections.size());
+        return Map.of("leakedConnections", leakedConnections.size());
+    }
+}
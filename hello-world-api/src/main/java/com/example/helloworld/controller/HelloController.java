@@ -1,16 +1,31 @@
 package com.example.helloworld.controller;
 
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
 import com.example.helloworld.entity.Message;
+import com.example.helloworld.service.MessagePage;
 import com.example.helloworld.service.MessageService;
+import com.example.helloworld.service.MessageWriteBuffer;
+import com.example.helloworld.service.NewMessage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Hello World REST Controller
@@ -26,6 +41,9 @@ import java.util.Map;
 public class HelloController {
 
     private final MessageService messageService;
+    private final DatabaseConnectionMonitorService databaseMonitor;
+    private final ObjectMapper objectMapper;
+    private final Optional<MessageWriteBuffer> writeBuffer;
 
     /**
      * Simple hello endpoint
@@ -59,6 +77,9 @@ public class HelloController {
 
     /**
      * Health check endpoint
+     *
+     * Reports the monitor's in-memory view of the database; detailed pool state
+     * is available at /actuator/dbmonitor.
      */
     @GetMapping("/health")
     public Map<String, Object> health() {
@@ -68,30 +89,97 @@ public class HelloController {
         response.put("status", "UP");
         response.put("timestamp", LocalDateTime.now());
         response.put("service", "Hello World API");
-        response.put("database-monitor", "enabled");
+        response.put("database-monitor", databaseMonitor.isShutdownInProgress() ? "shutting-down" : "monitoring");
+        response.put("database", databaseMonitor.isDatabaseAvailable() ? "UP" : "DOWN");
         
         return response;
     }
 
     /**
      * Create a new message
+     *
+     * Goes through the write buffer when app.messages.write-behind.enabled is set.
      */
     @PostMapping("/messages")
     public ResponseEntity<Message> createMessage(@RequestParam String content, 
                                                 @RequestParam String userName) {
         log.info("Creating message for user: {}", userName);
-        Message message = messageService.createMessage(content, userName);
-        return ResponseEntity.ok(message);
+        try {
+            Message message = writeBuffer.isPresent()
+                    ? writeBuffer.get().createMessage(content, userName)
+                    : messageService.createMessage(content, userName);
+            return ResponseEntity.ok(message);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Create many messages at once
+     *
+     * Stores the whole list in one transaction using batched inserts.
+     */
+    @PostMapping("/messages/bulk")
+    public ResponseEntity<List<Message>> createMessages(@RequestBody List<NewMessage> messages) {
+        log.info("Creating {} messages", messages.size());
+        try {
+            return ResponseEntity.ok(messageService.createMessages(messages));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     /**
-     * Get all messages
+     * Get all messages, one page at a time
+     *
+     * The body stays a JSON array of messages. While more follow, a {@code Link} header with
+     * {@code rel="next"} points to the following page.
      */
     @GetMapping("/messages")
-    public ResponseEntity<List<Message>> getAllMessages() {
-        log.info("Retrieving all messages");
-        List<Message> messages = messageService.getAllMessages();
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<List<Message>> getMessages(@RequestParam(required = false) String after,
+                                                     @RequestParam(defaultValue = "50") int limit) {
+        log.info("Retrieving messages page");
+        MessagePage page;
+        try {
+            page = messageService.getMessagePage(after, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (page.getNextCursor() == null) {
+            return ResponseEntity.ok(page.getMessages());
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", page.getNextCursor())
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page.getMessages());
+    }
+
+    /**
+     * Stream all messages as a single JSON array
+     *
+     * Each message is written to the response as soon as it is read, so neither the list
+     * nor the response body is ever held in memory.
+     */
+    @GetMapping(value = "/messages/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMessages() {
+        log.info("Streaming all messages");
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                messageService.forEachMessage(message -> {
+                    try {
+                        objectMapper.writeValue(generator, message);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -1,9 +1,13 @@
 package com.example.helloworld.repository;
 
 import com.example.helloworld.entity.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -23,4 +27,23 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      * Find recent messages (last 10)
      */
     List<Message> findTop10ByOrderByCreatedAtDesc();
-} 
\ No newline at end of file
+
+    /**
+     * First page of all messages, oldest first
+     */
+    @Query("select m from Message m order by m.createdAt, m.id")
+    List<Message> findFirstPage(Limit limit);
+
+    /**
+     * Page of messages that follow the given (createdAt, id) position, oldest first.
+     * Seeks through the index instead of skipping rows, so every page costs the same.
+     * The leading bound on createdAt is redundant, but it is what gives the planner an index
+     * range to seek to; few planners derive one from the or on its own. Hibernate 6.3 does
+     * not accept a row-value comparison against parameters.
+     */
+    @Query("select m from Message m"
+            + " where m.createdAt >= :createdAt"
+            + " and (m.createdAt > :createdAt or m.id > :id)"
+            + " order by m.createdAt, m.id")
+    List<Message> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+}
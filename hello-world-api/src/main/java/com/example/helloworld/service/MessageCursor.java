@@ -0,0 +1,48 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.entity.Message;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last message of a page: its creation time and ID.
+ *
+ * Clients receive it as an opaque, URL-safe token and pass it back unchanged to
+ * get the next page.
+ */
+@Value
+public class MessageCursor {
+
+    LocalDateTime createdAt;
+    Long id;
+
+    public static MessageCursor after(Message message) {
+        return new MessageCursor(message.getCreatedAt(), message.getId());
+    }
+
+    public String encode() {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static MessageCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new MessageCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.valueOf(position.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.entity.Message;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of messages, oldest first.
+ */
+@Value
+public class MessagePage {
+
+    List<Message> messages;
+    /** Pass as {@code after} to get the next page; null on the last page. */
+    String nextCursor;
+}
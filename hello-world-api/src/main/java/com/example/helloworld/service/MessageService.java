@@ -2,47 +2,190 @@ package com.example.helloworld.service;
 
 import com.example.helloworld.entity.Message;
 import com.example.helloworld.repository.MessageRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Message Service
- * 
+ *
  * Handles business logic for message operations.
+ *
+ * The recent messages and single-message lookups are the hot reads, so they are served
+ * from an in-process cache (size and TTL bounded, see spring.cache in application.yml)
+ * and only reach the connection pool on a miss.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MessageService {
 
+    /** Messages by ID. */
+    public static final String MESSAGES_CACHE = "messages";
+
+    /** The single list returned by {@link #getRecentMessages()}. */
+    public static final String RECENT_MESSAGES_CACHE = "recent-messages";
+
+    /** Most messages accepted by {@link #createMessages(List)}. */
+    public static final int MAX_BULK_SIZE = 1000;
+
+    /** Largest page returned by {@link #getMessagePage(String, int)}. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Rows read per query by {@link #forEachMessage(Consumer)}. */
+    static final int STREAM_BATCH_SIZE = 100;
+
     private final MessageRepository messageRepository;
+    private final EntityManager entityManager;
+
+    @Value("${app.messages.stream-timeout:30s}")
+    private Duration streamTimeout;
 
     /**
      * Create a new message
+     *
+     * The new message is cached under its ID and the recent list, which it now belongs
+     * to, is evicted so the next read reloads it.
+     *
+     * @throws IllegalArgumentException if the content is missing or too long
      */
+    @Caching(put = @CachePut(cacheNames = MESSAGES_CACHE, key = "#result.id"),
+             evict = @CacheEvict(cacheNames = RECENT_MESSAGES_CACHE, allEntries = true))
     public Message createMessage(String content, String userName) {
+        validateContent(content);
         log.info("Creating message for user: {}", userName);
         Message message = new Message(content, userName);
         return messageRepository.save(message);
     }
 
     /**
-     * Get all messages
+     * Create many messages in one transaction
+     *
+     * Inserts go out as JDBC batches of {@link Message#ID_ALLOCATION_SIZE} rows, and the
+     * persistence context is flushed and cleared after every batch so its size stays bounded.
+     * The whole list is stored on one connection, or not at all.
+     *
+     * @throws IllegalArgumentException if there are too many messages or one has missing or too long content
+     */
+    @Transactional
+    @CacheEvict(cacheNames = RECENT_MESSAGES_CACHE, allEntries = true)
+    public List<Message> createMessages(List<NewMessage> messages) {
+        if (messages.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_SIZE + " messages can be created at once");
+        }
+        for (NewMessage message : messages) {
+            validateContent(message.getContent());
+        }
+        log.info("Creating {} messages", messages.size());
+
+        List<Message> created = new ArrayList<>(messages.size());
+        for (NewMessage newMessage : messages) {
+            Message message = new Message(newMessage.getContent(), newMessage.getUserName());
+            entityManager.persist(message);
+            created.add(message);
+            if (created.size() % Message.ID_ALLOCATION_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Rejects content the insert would fail on, before a connection is taken.
+     *
+     * @throws IllegalArgumentException if the content is missing or too long
+     */
+    static void validateContent(String content) {
+        if (content == null || content.isBlank()) {
+            throw new IllegalArgumentException("Message content is required");
+        }
+        if (content.length() > Message.MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Message content is limited to " + Message.MAX_CONTENT_LENGTH + " characters");
+        }
+    }
+
+    /**
+     * Get one page of all messages, oldest first
+     *
+     * Keyset pagination on (created_at, id): each page seeks past the previous page's last
+     * row, so deep pages cost as little as the first one and concurrent inserts never shift
+     * rows between pages. One row beyond the page is fetched to tell whether another page
+     * follows, which saves a count query.
+     *
+     * @param after cursor returned with the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public MessagePage getMessagePage(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Retrieving {} messages after cursor: {}", pageSize, after);
+
+        List<Message> rows;
+        if (after == null) {
+            rows = messageRepository.findFirstPage(Limit.of(pageSize + 1));
+        } else {
+            MessageCursor cursor = MessageCursor.decode(after);
+            rows = messageRepository.findPageAfter(cursor.getCreatedAt(), cursor.getId(), Limit.of(pageSize + 1));
+        }
+
+        if (rows.size() <= pageSize) {
+            return new MessagePage(rows, null);
+        }
+        List<Message> page = rows.subList(0, pageSize);
+        return new MessagePage(List.copyOf(page), MessageCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Passes every message, oldest first, to the action without loading the table into memory
+     *
+     * Rows are read in keyset batches of {@link #STREAM_BATCH_SIZE}, each with its own short
+     * connection checkout, and handed to the action between reads. An action blocked on a
+     * client that stopped reading therefore holds no pooled connection. The stream is
+     * aborted once it has run for app.messages.stream-timeout.
+     *
+     * @throws IllegalStateException if the stream timeout is exceeded
      */
-    public List<Message> getAllMessages() {
-        log.info("Retrieving all messages");
-        return messageRepository.findAll();
+    public void forEachMessage(Consumer<Message> action) {
+        log.info("Streaming all messages");
+        long deadline = System.nanoTime() + streamTimeout.toNanos();
+        List<Message> batch = messageRepository.findFirstPage(Limit.of(STREAM_BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            for (Message message : batch) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Message stream exceeded its timeout of " + streamTimeout);
+                }
+                action.accept(message);
+            }
+            if (batch.size() < STREAM_BATCH_SIZE) {
+                return;
+            }
+            Message last = batch.get(batch.size() - 1);
+            batch = messageRepository.findPageAfter(last.getCreatedAt(), last.getId(), Limit.of(STREAM_BATCH_SIZE));
+        }
     }
 
     /**
      * Get recent messages (last 10)
+     *
+     * Returned unmodifiable because the same list is handed to every caller until it is evicted.
      */
+    @Cacheable(RECENT_MESSAGES_CACHE)
     public List<Message> getRecentMessages() {
         log.info("Retrieving recent messages");
-        return messageRepository.findTop10ByOrderByCreatedAtDesc();
+        return List.copyOf(messageRepository.findTop10ByOrderByCreatedAtDesc());
     }
 
     /**
@@ -55,10 +198,13 @@ public class MessageService {
 
     /**
      * Get message by ID
+     *
+     * Unknown IDs are not cached, so a message created later is found right away.
      */
+    @Cacheable(MESSAGES_CACHE)
     public Message getMessageById(Long id) {
         log.info("Retrieving message with ID: {}", id);
         return messageRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Message not found with ID: " + id));
     }
-} 
\ No newline at end of file
+}
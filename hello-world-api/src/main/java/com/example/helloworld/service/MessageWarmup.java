@@ -0,0 +1,35 @@
+package com.example.helloworld.service;
+
+import com.apimonitor.dbmonitor.warmup.WarmupTask;
+import com.example.helloworld.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Runs the queries behind the message endpoints once before the application reports ready,
+ * so Hibernate has parsed and planned them and their classes are loaded before the first request.
+ *
+ * Goes to the repository rather than {@link MessageService}, so the caches start empty
+ * instead of holding whatever the warm-up read.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageWarmup implements WarmupTask {
+
+    private final MessageRepository messageRepository;
+
+    @Override
+    public void warmUp() {
+        messageRepository.findTop10ByOrderByCreatedAtDesc();
+        messageRepository.findFirstPage(Limit.of(1));
+        messageRepository.findPageAfter(LocalDateTime.now(), Long.MAX_VALUE, Limit.of(1));
+        messageRepository.findByUserNameOrderByCreatedAtDesc("");
+        messageRepository.findById(0L);
+        log.debug("Message queries warmed up");
+    }
+}
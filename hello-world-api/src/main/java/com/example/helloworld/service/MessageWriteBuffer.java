@@ -0,0 +1,185 @@
+package com.example.helloworld.service;
+
+import com.example.helloworld.entity.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces single message creates into bulk inserts.
+ *
+ * Creates submitted within a short window are stored together through
+ * {@link MessageService#createMessages(List)} by a single writer thread. Many concurrent
+ * creates then share one connection and one transaction instead of checking out one each.
+ * Callers still wait for the commit, so a returned message is always stored. The cost is
+ * up to one window of added latency per create.
+ *
+ * Should a batch fail anyway, its messages are stored again one at a time, so only the
+ * caller whose message cannot be stored gets the error.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.messages.write-behind.enabled", havingValue = "true")
+public class MessageWriteBuffer implements SmartLifecycle {
+
+    /** Longest time {@link #stop()} waits for the queued creates to be stored. */
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final MessageService messageService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingMessage> queue;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public MessageWriteBuffer(MessageService messageService,
+                              @Value("${app.messages.write-behind.window:5}") long windowMillis,
+                              @Value("${app.messages.write-behind.max-batch-size:200}") int maxBatchSize) {
+        this.messageService = messageService;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = Math.min(maxBatchSize, MessageService.MAX_BULK_SIZE);
+        this.queue = new ArrayBlockingQueue<>(this.maxBatchSize * 16);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriteLoop, "message-write-buffer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops accepting creates and waits until the queued ones are stored, so that they are
+     * written before the DataSource closes with the rest of the context.
+     */
+    @Override
+    public void stop() {
+        Thread writer;
+        synchronized (this) {
+            running = false;
+            writer = writerThread;
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Message write buffer still storing queued creates after {} ms, {} left in the queue",
+                     STOP_TIMEOUT_MILLIS, queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Creates the message with the next batch and waits until it is committed.
+     * Falls back to a direct insert while the buffer is full or stopped.
+     *
+     * @throws IllegalArgumentException if the content is missing or too long
+     */
+    public Message createMessage(String content, String userName) {
+        MessageService.validateContent(content);
+        PendingMessage pending = new PendingMessage(new NewMessage(content, userName));
+        if (!running || !queue.offer(pending)) {
+            return messageService.createMessage(content, userName);
+        }
+        // Stopped in between: the writer may have exited without taking it
+        if (!running && queue.remove(pending)) {
+            return messageService.createMessage(content, userName);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void runWriteLoop() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // The window starts with the first message, so none waits longer than that
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingMessage next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+            queue.drainTo(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        List<NewMessage> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message);
+        }
+        try {
+            List<Message> created = messageService.createMessages(messages);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(created.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to store a batch of {} messages, storing them one at a time", batch.size(), e);
+            for (PendingMessage pending : batch) {
+                writeOne(pending);
+            }
+        }
+    }
+
+    private void writeOne(PendingMessage pending) {
+        try {
+            pending.result.complete(messageService.createMessage(pending.message.getContent(), pending.message.getUserName()));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingMessage {
+
+        private final NewMessage message;
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+
+        private PendingMessage(NewMessage message) {
+            this.message = message;
+        }
+    }
+}
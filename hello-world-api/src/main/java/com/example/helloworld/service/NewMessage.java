@@ -0,0 +1,17 @@
+package com.example.helloworld.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A message to be created, as accepted by the bulk endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewMessage {
+
+    private String content;
+    private String userName;
+}
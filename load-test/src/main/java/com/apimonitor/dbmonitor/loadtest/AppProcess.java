@@ -0,0 +1,123 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application under test, running in its own JVM with a JFR recording of the monitor's
+ * events that is written when the JVM exits, including when the monitor ends it.
+ */
+final class AppProcess {
+
+    private final Process process;
+    private final URI baseUri;
+    private volatile long exitedAtNanos;
+
+    private AppProcess(Process process, URI baseUri) {
+        this.process = process;
+        this.baseUri = baseUri;
+        process.onExit().thenRun(() -> exitedAtNanos = System.nanoTime());
+    }
+
+    /**
+     * @param appArgs Spring Boot arguments appended after the harness's own, so they override them
+     */
+    static AppProcess start(Path appJar, String jdbcUrl, Path jfrFile, Path logFile, List<String> appArgs) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:StartFlightRecording=filename=" + jfrFile.toAbsolutePath() + ",dumponexit=true");
+        command.add("-jar");
+        command.add(appJar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + jdbcUrl);
+        // Fail checkouts within the run instead of after the default 30 seconds
+        command.add("--spring.datasource.hikari.connection-timeout=5000");
+        command.add("--management.endpoint.health.probes.enabled=true");
+        command.add("--app.fault-injection.enabled=true");
+        // Runs must be comparable: no pool resizing between them, no recording file in the working directory
+        command.add("--db.monitor.tuning.enabled=false");
+        command.add("--db.monitor.recorder.enabled=false");
+        command.add("--db.monitor.shutdown.drain-timeout=5000");
+        command.add("--db.monitor.leak.threshold=5000");
+        command.add("--logging.level.com.apimonitor.dbmonitor=INFO");
+        command.add("--logging.level.org.springframework.boot.autoconfigure=INFO");
+        command.addAll(appArgs);
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new AppProcess(process, URI.create("http://localhost:" + port));
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * @return when the process exited, or 0 while it is running
+     */
+    long exitedAtNanos() {
+        return exitedAtNanos;
+    }
+
+    /**
+     * Waits until the application reports ready, which includes the monitor's pool warm-up.
+     *
+     * @throws IllegalStateException if it exits or is not ready within the timeout
+     */
+    void awaitReady(HttpClient httpClient, Duration timeout) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited during startup with code " + process.exitValue());
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not become ready within " + timeout.toSeconds() + " s");
+    }
+
+    /**
+     * Shuts the application down gracefully, forcibly after the timeout.
+     *
+     * @return the exit code
+     */
+    int stop(Duration timeout) throws InterruptedException {
+        if (process.isAlive()) {
+            process.destroy();
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        return process.waitFor();
+    }
+}
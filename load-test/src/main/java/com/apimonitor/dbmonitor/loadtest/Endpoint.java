@@ -0,0 +1,72 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The {@code HelloController} requests a load test client sends.
+ */
+enum Endpoint {
+
+    /** GET /api/hello, which does not touch the database. */
+    HELLO("hello"),
+    /** GET /api/hello/messages/recent, served from the cache most of the time. */
+    RECENT("recent"),
+    /** GET /api/hello/messages?limit=20, a keyset page query on every call. */
+    PAGE("page"),
+    /** GET /api/hello/messages/user/{name}, a query on every call. */
+    BY_USER("by-user"),
+    /** GET /api/hello/messages/{id}, a primary key lookup unless cached. */
+    BY_ID("by-id"),
+    /** POST /api/hello/messages, one insert per call. */
+    CREATE("create");
+
+    /** Distinct user names of the seeded and created messages. */
+    static final int USERS = 50;
+
+    private final String key;
+
+    Endpoint(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equals(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint '" + key + "'");
+    }
+
+    /**
+     * @param messageCount number of seeded messages, whose IDs are looked up by {@link #BY_ID}
+     */
+    HttpRequest request(URI baseUri, long messageCount, Duration timeout) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String user = "user-" + random.nextInt(USERS);
+        HttpRequest.Builder builder = switch (this) {
+            case HELLO -> get(baseUri, "/api/hello");
+            case RECENT -> get(baseUri, "/api/hello/messages/recent");
+            case PAGE -> get(baseUri, "/api/hello/messages?limit=20");
+            case BY_USER -> get(baseUri, "/api/hello/messages/user/" + user);
+            case BY_ID -> get(baseUri, "/api/hello/messages/" + (1 + random.nextLong(Math.max(1, messageCount))));
+            case CREATE -> HttpRequest.newBuilder(baseUri.resolve("/api/hello/messages?content="
+                            + URLEncoder.encode("load test " + random.nextInt(), StandardCharsets.UTF_8) + "&userName=" + user))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+        };
+        return builder.timeout(timeout).build();
+    }
+
+    private static HttpRequest.Builder get(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET();
+    }
+}
@@ -0,0 +1,77 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the faults of a scenario and keeps a timeline of them for the report.
+ */
+final class FaultInjector {
+
+    private final FaultProxy proxy;
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final long startNanos;
+    private final List<String> timeline = new ArrayList<>();
+
+    FaultInjector(FaultProxy proxy, HttpClient httpClient, URI baseUri, long startNanos) {
+        this.proxy = proxy;
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.startNanos = startNanos;
+    }
+
+    void slowQueries(long latencyMillis) {
+        proxy.setLatencyMillis(latencyMillis);
+        note(latencyMillis > 0 ? "database round trips delayed by " + latencyMillis + " ms" : "database latency back to normal");
+    }
+
+    void stallDatabase() {
+        proxy.stall();
+        note("database stopped responding");
+    }
+
+    void resumeDatabase() {
+        proxy.resume();
+        note("database responding again");
+    }
+
+    /**
+     * Makes the application check out a connection it never returns. Does not wait for the
+     * response, which is slow once the pool has run dry.
+     */
+    void leakConnection() {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/faults/leak"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        note("connection leaked");
+    }
+
+    /**
+     * Removes every fault, so the application can shut down cleanly.
+     */
+    void clear() {
+        proxy.setLatencyMillis(0);
+        proxy.resume();
+    }
+
+    synchronized List<String> timeline() {
+        return List.copyOf(timeline);
+    }
+
+    private synchronized void note(String fault) {
+        double seconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) / 1000.0;
+        String entry = String.format(Locale.ROOT, "%6.1f s  %s", seconds, fault);
+        timeline.add(entry);
+        System.out.println("  fault " + entry);
+    }
+}
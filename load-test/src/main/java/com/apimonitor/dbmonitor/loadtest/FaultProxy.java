@@ -0,0 +1,131 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * TCP proxy between the application and the database that injects network-level faults:
+ *
+ * <ul>
+ *     <li>latency: every response from the database is held back, so each query round trip is slower</li>
+ *     <li>stall: nothing is forwarded in either direction while the sockets stay open, like a database
+ *         that hangs or a network path that silently drops packets. Calls in progress block, and
+ *         their connections stay checked out until the stall ends</li>
+ * </ul>
+ *
+ * Two threads per proxied connection; the pools under test are small enough for that.
+ */
+final class FaultProxy implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ServerSocket serverSocket;
+    private final int targetPort;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final Object stallLock = new Object();
+
+    private volatile long latencyMillis;
+    private volatile boolean stalled;
+    private volatile boolean closed;
+
+    FaultProxy(int targetPort) throws IOException {
+        this.targetPort = targetPort;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptLoop, "fault-proxy-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    void stall() {
+        stalled = true;
+    }
+
+    void resume() {
+        synchronized (stallLock) {
+            stalled = false;
+            stallLock.notifyAll();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(server);
+                startPipe(client, server, false);
+                startPipe(server, client, true);
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Fault proxy could not accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void startPipe(Socket from, Socket to, boolean fromDatabase) {
+        Thread thread = new Thread(() -> pipe(from, to, fromDatabase), "fault-proxy-" + (fromDatabase ? "down" : "up"));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void pipe(Socket from, Socket to, boolean fromDatabase) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (from; to) {
+            InputStream in = from.getInputStream();
+            OutputStream out = to.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                awaitNotStalled();
+                long latency = latencyMillis;
+                if (fromDatabase && latency > 0) {
+                    Thread.sleep(latency);
+                }
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // One side closed the connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(from);
+            sockets.remove(to);
+        }
+    }
+
+    private void awaitNotStalled() throws InterruptedException {
+        synchronized (stallLock) {
+            while (stalled && !closed) {
+                stallLock.wait();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        resume();
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+}
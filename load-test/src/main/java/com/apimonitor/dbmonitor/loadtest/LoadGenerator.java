@@ -0,0 +1,87 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop clients: each sends its next request as soon as the previous one completes,
+ * so the offered load follows the application's response time the way real callers do.
+ *
+ * Clients are asynchronous {@link HttpClient} exchanges rather than threads, so thousands
+ * of them cost no more than a handful of threads.
+ */
+final class LoadGenerator {
+
+    /** Delay before a client retries after a request got no response, so a dead application is not hammered in a loop. */
+    private static final long ERROR_BACKOFF_MILLIS = 10;
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final RequestMix mix;
+    private final int clients;
+    private final long messageCount;
+    private final Duration requestTimeout;
+    private final Executor backoffExecutor = CompletableFuture.delayedExecutor(ERROR_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+
+    private volatile LoadStats stats;
+    private volatile boolean running;
+    private CountDownLatch finished;
+
+    LoadGenerator(HttpClient httpClient, URI baseUri, RequestMix mix, int clients, long messageCount, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.mix = mix;
+        this.clients = clients;
+        this.messageCount = messageCount;
+        this.requestTimeout = requestTimeout;
+    }
+
+    void start(LoadStats stats) {
+        this.stats = stats;
+        running = true;
+        finished = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            sendNext();
+        }
+    }
+
+    /**
+     * Requests completing from now on are recorded in the given stats.
+     */
+    void recordInto(LoadStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Stops sending and waits for the requests in flight, at most one request timeout.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        finished.await(requestTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendNext() {
+        if (!running) {
+            finished.countDown();
+            return;
+        }
+        Endpoint endpoint = mix.next();
+        long start = System.nanoTime();
+        httpClient.sendAsync(endpoint.request(baseUri, messageCount, requestTimeout), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        stats.recordError(endpoint);
+                        CompletableFuture.runAsync(this::sendNext, backoffExecutor);
+                    } else {
+                        stats.recordResponse(endpoint, response.statusCode(), System.nanoTime() - start);
+                        sendNext();
+                    }
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes and latencies of the requests completed during one phase of a scenario.
+ *
+ * Latency is only recorded for successful responses: a shed request answered with 503
+ * in a millisecond would otherwise make an overloaded application look fast.
+ */
+final class LoadStats {
+
+    /** Outcome of a single request. */
+    enum Outcome {
+        /** 2xx response. */
+        OK,
+        /** 503, i.e. shed by admission control or refused because the database is unavailable. */
+        SHED,
+        /** Any other 4xx or 5xx response. */
+        FAILED,
+        /** No response: timed out, refused or reset. */
+        ERROR
+    }
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Endpoint, LatencyHistogram> endpointLatency = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder[]> endpointOutcomes = new EnumMap<>(Endpoint.class);
+    private final LongAdder[] outcomes = newCounters();
+
+    LoadStats() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpointLatency.put(endpoint, new LatencyHistogram());
+            endpointOutcomes.put(endpoint, newCounters());
+        }
+    }
+
+    void recordResponse(Endpoint endpoint, int status, long nanos) {
+        Outcome outcome = status < 400 ? Outcome.OK : status == 503 ? Outcome.SHED : Outcome.FAILED;
+        if (outcome == Outcome.OK) {
+            latency.record(nanos);
+            endpointLatency.get(endpoint).record(nanos);
+        }
+        record(endpoint, outcome);
+    }
+
+    void recordError(Endpoint endpoint) {
+        record(endpoint, Outcome.ERROR);
+    }
+
+    private void record(Endpoint endpoint, Outcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+        endpointOutcomes.get(endpoint)[outcome.ordinal()].increment();
+    }
+
+    long count(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    long count(Endpoint endpoint, Outcome outcome) {
+        return endpointOutcomes.get(endpoint)[outcome.ordinal()].sum();
+    }
+
+    HistogramSnapshot latency() {
+        return latency.snapshot();
+    }
+
+    HistogramSnapshot latency(Endpoint endpoint) {
+        return endpointLatency.get(endpoint).snapshot();
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[Outcome.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,229 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives hello-world-api through load and fault scenarios, entirely offline:
+ *
+ * <pre>
+ * java -jar load-test/target/load-test.jar --scenarios=saturation,db-stall --duration=60
+ * </pre>
+ *
+ * The application runs in its own JVM against an H2 database served over TCP by this
+ * process, through a {@link FaultProxy} that can slow down or stall it. For each scenario
+ * the report holds client-side throughput and latency percentiles, and the pool utilization,
+ * probe results and shutdown decisions the monitor recorded as JFR events. Given a previous
+ * report as baseline, the run fails when throughput or p99 latency regressed.
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(60);
+
+    /** p99 increases below this are noise, however large relative to a fast baseline. */
+    private static final double P99_SLACK_MILLIS = 1.0;
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+        if (!Files.isRegularFile(options.appJar)) {
+            System.err.println("Application jar " + options.appJar + " not found, build hello-world-api first or pass --app");
+            System.exit(1);
+        }
+        System.exit(new LoadTest(options).run());
+    }
+
+    /**
+     * @return the process exit code: 0, or 2 if a scenario regressed against the baseline
+     */
+    private int run() throws Exception {
+        Files.createDirectories(options.outputDirectory);
+        List<ScenarioResult> results = new ArrayList<>();
+        Server database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try {
+            for (Scenario scenario : options.scenarios) {
+                results.add(runScenario(scenario, database.getPort()));
+            }
+        } finally {
+            database.stop();
+        }
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (ScenarioResult result : results) {
+            result.print(System.out);
+            scenarios.put(result.scenario.key(), result.toReport());
+        }
+        Path reportFile = options.outputDirectory.resolve("report.json");
+        objectMapper.writeValue(reportFile.toFile(), Map.of("scenarios", scenarios));
+        System.out.println();
+        System.out.println("Report written to " + reportFile);
+
+        return options.baseline != null && regressed(results) ? 2 : 0;
+    }
+
+    private ScenarioResult runScenario(Scenario scenario, int databasePort) throws Exception {
+        int clients = options.clients(scenario);
+        System.out.printf(Locale.ROOT, "%n=== %s: %d clients, %d s (+%d s warm-up) - %s%n", scenario.key(), clients,
+                options.durationSeconds, options.warmupSeconds, scenario.description());
+
+        try (FaultProxy proxy = new FaultProxy(databasePort)) {
+            String jdbcUrl = "jdbc:h2:tcp://localhost:" + proxy.getPort() + "/mem:loadtest-" + scenario.key() + ";DB_CLOSE_DELAY=-1";
+            Path jfrFile = options.outputDirectory.resolve(scenario.key() + ".jfr");
+            Files.deleteIfExists(jfrFile);
+            AppProcess app = AppProcess.start(options.appJar, jdbcUrl, jfrFile,
+                    options.outputDirectory.resolve(scenario.key() + "-app.log"), options.appArgs);
+            try {
+                app.awaitReady(httpClient, STARTUP_TIMEOUT);
+                seedMessages(app.baseUri());
+
+                LoadGenerator generator = new LoadGenerator(httpClient, app.baseUri(), options.mix, clients, options.messages,
+                        Duration.ofSeconds(options.requestTimeoutSeconds));
+                generator.start(new LoadStats());
+                Thread.sleep(TimeUnit.SECONDS.toMillis(options.warmupSeconds));
+
+                LoadStats stats = new LoadStats();
+                Instant start = Instant.now();
+                long startNanos = System.nanoTime();
+                generator.recordInto(stats);
+                FaultInjector faults = new FaultInjector(proxy, httpClient, app.baseUri(), startNanos);
+                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+                scenario.scheduleFaults(scheduler, faults, TimeUnit.SECONDS.toMillis(options.durationSeconds));
+
+                reportProgress(stats, app, startNanos);
+                long endNanos = System.nanoTime();
+                // Requests completing from here on are not part of the measurement
+                generator.recordInto(new LoadStats());
+                scheduler.shutdownNow();
+                faults.clear();
+                generator.stop();
+
+                long exitedAtNanos = app.exitedAtNanos();
+                int exitCode = app.stop(SHUTDOWN_TIMEOUT);
+                double appExitedAtSeconds = exitedAtNanos != 0 && exitedAtNanos - endNanos < 0
+                        ? TimeUnit.NANOSECONDS.toMillis(exitedAtNanos - startNanos) / 1000.0
+                        : -1;
+                return new ScenarioResult(scenario, clients, TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos) / 1000.0,
+                        stats, MonitorObservations.read(jfrFile, start), faults.timeline(), appExitedAtSeconds, exitCode);
+            } finally {
+                app.stop(SHUTDOWN_TIMEOUT);
+            }
+        }
+    }
+
+    /**
+     * Prints one line per second until the measurement is over, so the effect of a fault can be watched as it happens.
+     */
+    private void reportProgress(LoadStats stats, AppProcess app, long startNanos) throws InterruptedException {
+        long previousOk = 0;
+        long previousShed = 0;
+        long previousFailed = 0;
+        long previousErrors = 0;
+        HistogramSnapshot previousLatency = stats.latency();
+        for (long second = 1; second <= options.durationSeconds; second++) {
+            long sleepNanos = startNanos + TimeUnit.SECONDS.toNanos(second) - System.nanoTime();
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+            long ok = stats.count(LoadStats.Outcome.OK);
+            long shed = stats.count(LoadStats.Outcome.SHED);
+            long failed = stats.count(LoadStats.Outcome.FAILED);
+            long errors = stats.count(LoadStats.Outcome.ERROR);
+            HistogramSnapshot latency = stats.latency();
+            HistogramSnapshot interval = latency.minus(previousLatency);
+            System.out.printf(Locale.ROOT, "  %4d s  ok %6d/s  shed %5d/s  failed %5d/s  no response %5d/s  p99 %8.1f ms%s%n",
+                    second, ok - previousOk, shed - previousShed, failed - previousFailed, errors - previousErrors,
+                    LatencyHistogram.toMillis(interval.getValueAtQuantile(0.99)), app.isAlive() ? "" : "  (application exited)");
+            previousOk = ok;
+            previousShed = shed;
+            previousFailed = failed;
+            previousErrors = errors;
+            previousLatency = latency;
+        }
+    }
+
+    /**
+     * Creates the messages the by-id and by-user requests find, in one bulk request.
+     */
+    private void seedMessages(URI baseUri) throws IOException, InterruptedException {
+        List<Map<String, String>> messages = new ArrayList<>(options.messages);
+        for (int i = 0; i < options.messages; i++) {
+            messages.add(Map.of("content", "seed message " + i, "userName", "user-" + i % Endpoint.USERS));
+        }
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/hello/messages/bulk"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(messages)))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding messages failed with status " + response.statusCode());
+        }
+    }
+
+    /**
+     * Compares throughput and p99 of every scenario that is also in the baseline report.
+     */
+    private boolean regressed(List<ScenarioResult> results) throws IOException {
+        JsonNode baselineScenarios = objectMapper.readTree(options.baseline.toFile()).path("scenarios");
+        boolean regressed = false;
+        System.out.printf(Locale.ROOT, "%nComparison with %s (tolerance %.0f%%)%n", options.baseline, options.tolerance * 100);
+        for (ScenarioResult result : results) {
+            JsonNode baseline = baselineScenarios.path(result.scenario.key());
+            if (baseline.isMissingNode()) {
+                System.out.println("  " + result.scenario.key() + ": not in baseline");
+                continue;
+            }
+            double baselineThroughput = baseline.path("throughput").asDouble();
+            double baselineP99 = baseline.path("p99Millis").asDouble();
+            boolean throughputRegressed = result.throughput() < baselineThroughput * (1 - options.tolerance);
+            boolean latencyRegressed = result.p99Millis() > baselineP99 * (1 + options.tolerance) + P99_SLACK_MILLIS;
+            System.out.printf(Locale.ROOT, "  %-16s throughput %.0f/s (baseline %.0f/s)%s, p99 %.1f ms (baseline %.1f ms)%s%n",
+                    result.scenario.key(), result.throughput(), baselineThroughput, throughputRegressed ? " REGRESSED" : "",
+                    result.p99Millis(), baselineP99, latencyRegressed ? " REGRESSED" : "");
+            regressed |= throughputRegressed || latencyRegressed;
+        }
+        return regressed;
+    }
+}
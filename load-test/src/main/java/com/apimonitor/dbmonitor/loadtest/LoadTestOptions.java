@@ -0,0 +1,73 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line options of {@link LoadTest}, each given as {@code --name=value}.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar load-test.jar [options]",
+            "  --app=<jar>               application under test (hello-world-api/target/hello-world-api-1.0.0.jar)",
+            "  --scenarios=<a,b,...>     baseline, saturation, slow-queries, db-stall, connection-leak (all)",
+            "  --duration=<seconds>      measured time per scenario (30)",
+            "  --warmup=<seconds>        unmeasured load before each measurement (5)",
+            "  --clients=<n>             concurrent clients, overrides each scenario's default",
+            "  --mix=<endpoint=weight>   request mix (" + RequestMix.DEFAULT + ")",
+            "  --messages=<n>            messages seeded before the load starts, at most 1000 (1000)",
+            "  --request-timeout=<s>     time after which a request counts as unanswered (10)",
+            "  --out=<dir>               report, application logs and JFR recordings (load-test-results)",
+            "  --baseline=<report.json>  fail with exit code 2 if throughput or p99 regressed against this report",
+            "  --tolerance=<fraction>    allowed regression against the baseline (0.25)",
+            "  --app-arg=<arg>           extra application argument, e.g. --app-arg=--db.monitor.admission.enabled=false (repeatable)");
+
+    Path appJar = Paths.get("hello-world-api", "target", "hello-world-api-1.0.0.jar");
+    List<Scenario> scenarios = Arrays.asList(Scenario.values());
+    long durationSeconds = 30;
+    long warmupSeconds = 5;
+    int clients = -1;
+    RequestMix mix = RequestMix.parse(RequestMix.DEFAULT);
+    int messages = 1000;
+    long requestTimeoutSeconds = 10;
+    Path outputDirectory = Paths.get("load-test-results");
+    Path baseline;
+    double tolerance = 0.25;
+    final List<String> appArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid option '" + arg + "'");
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "app" -> options.appJar = Paths.get(value);
+                case "scenarios" -> options.scenarios = Arrays.stream(value.split(",")).map(String::trim).map(Scenario::fromKey).toList();
+                case "duration" -> options.durationSeconds = Long.parseLong(value);
+                case "warmup" -> options.warmupSeconds = Long.parseLong(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "mix" -> options.mix = RequestMix.parse(value);
+                case "messages" -> options.messages = Math.max(1, Math.min(1000, Integer.parseInt(value)));
+                case "request-timeout" -> options.requestTimeoutSeconds = Long.parseLong(value);
+                case "out" -> options.outputDirectory = Paths.get(value);
+                case "baseline" -> options.baseline = Paths.get(value);
+                case "tolerance" -> options.tolerance = Double.parseDouble(value);
+                case "app-arg" -> options.appArgs.add(value);
+                default -> throw new IllegalArgumentException("Unknown option '--" + name + "'");
+            }
+        }
+        return options;
+    }
+
+    int clients(Scenario scenario) {
+        return clients > 0 ? clients : scenario.defaultClients();
+    }
+}
@@ -0,0 +1,85 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What the monitor saw and decided during the measurement, read from the application's
+ * JFR recording of the monitor's own events.
+ */
+final class MonitorObservations {
+
+    private static final String POOL_SNAPSHOT = "com.apimonitor.dbmonitor.PoolSnapshot";
+    private static final String HEALTH_PROBE = "com.apimonitor.dbmonitor.HealthProbe";
+    private static final String CONNECTION_ACQUIRE = "com.apimonitor.dbmonitor.ConnectionAcquire";
+    private static final String SHUTDOWN_DECISION = "com.apimonitor.dbmonitor.ShutdownDecision";
+
+    int snapshots;
+    double peakUtilization;
+    double meanUtilization;
+    int peakThreadsAwaiting;
+    long probes;
+    long failedProbes;
+    /** Checkouts that waited at least the event threshold (1 ms by default). */
+    long slowAcquires;
+    long failedAcquires;
+    final List<String> decisions = new ArrayList<>();
+
+    /**
+     * @param start events before this instant, i.e. during startup and warm-up, are ignored
+     */
+    static MonitorObservations read(Path jfrFile, Instant start) throws IOException {
+        MonitorObservations observations = new MonitorObservations();
+        if (!Files.exists(jfrFile)) {
+            return observations;
+        }
+
+        double utilizationSum = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile)) {
+            if (event.getStartTime().isBefore(start)) {
+                continue;
+            }
+            switch (event.getEventType().getName()) {
+                case POOL_SNAPSHOT -> {
+                    int maximumPoolSize = event.getInt("maximumPoolSize");
+                    double utilization = maximumPoolSize > 0 ? (double) event.getInt("activeConnections") / maximumPoolSize : 0;
+                    observations.snapshots++;
+                    utilizationSum += utilization;
+                    observations.peakUtilization = Math.max(observations.peakUtilization, utilization);
+                    observations.peakThreadsAwaiting = Math.max(observations.peakThreadsAwaiting,
+                            event.getInt("threadsAwaitingConnection"));
+                }
+                case HEALTH_PROBE -> {
+                    observations.probes++;
+                    if (!event.getBoolean("success")) {
+                        observations.failedProbes++;
+                    }
+                }
+                case CONNECTION_ACQUIRE -> {
+                    observations.slowAcquires++;
+                    if (!event.getBoolean("success")) {
+                        observations.failedAcquires++;
+                    }
+                }
+                case SHUTDOWN_DECISION -> observations.decisions.add(String.format(Locale.ROOT, "%6.1f s  %s, %d active - %s",
+                        Duration.between(start, event.getStartTime()).toMillis() / 1000.0, event.getString("decision"),
+                        event.getInt("activeConnections"), event.getString("reason")));
+                default -> {
+                }
+            }
+        }
+        // Fixed-width times, so sorting the lines sorts them chronologically
+        observations.decisions.sort(null);
+        observations.meanUtilization = observations.snapshots > 0 ? utilizationSum / observations.snapshots : 0;
+        return observations;
+    }
+}
@@ -0,0 +1,71 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Relative weights of the endpoints, parsed from e.g. {@code page=30,create=15}.
+ */
+final class RequestMix {
+
+    static final String DEFAULT = "page=30,by-user=20,recent=15,by-id=15,create=15,hello=5";
+
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    private RequestMix(Map<Endpoint, Integer> weights) {
+        endpoints = weights.keySet().toArray(new Endpoint[0]);
+        cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    static RequestMix parse(String spec) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid request mix entry '" + entry + "', expected <endpoint>=<weight>");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            if (weight > 0) {
+                weights.put(Endpoint.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The request mix has no endpoint with a positive weight");
+        }
+        return new RequestMix(weights);
+    }
+
+    Endpoint next() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(endpoints[i].key()).append('=').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load and fault profiles. Fault times are fractions of the measured duration, so a scenario
+ * keeps its shape at any {@code --duration}.
+ */
+enum Scenario {
+
+    BASELINE("baseline", 16, "Moderate load without faults, the reference for throughput and latency"),
+
+    SATURATION("saturation", 256, "Far more clients than connections: the pool at its limit, queueing and load shedding"),
+
+    SLOW_QUERIES("slow-queries", 64, "Every database round trip takes 25 ms longer during the middle third") {
+        @Override
+        void scheduleFaults(ScheduledExecutorService scheduler, FaultInjector faults, long durationMillis) {
+            scheduler.schedule(() -> faults.slowQueries(25), durationMillis / 3, TimeUnit.MILLISECONDS);
+            scheduler.schedule(() -> faults.slowQueries(0), durationMillis * 2 / 3, TimeUnit.MILLISECONDS);
+        }
+    },
+
+    DB_STALL("db-stall", 64, "The database stops responding during the middle third, then recovers") {
+        @Override
+        void scheduleFaults(ScheduledExecutorService scheduler, FaultInjector faults, long durationMillis) {
+            scheduler.schedule(faults::stallDatabase, durationMillis / 3, TimeUnit.MILLISECONDS);
+            scheduler.schedule(faults::resumeDatabase, durationMillis * 2 / 3, TimeUnit.MILLISECONDS);
+        }
+    },
+
+    CONNECTION_LEAK("connection-leak", 32, "From a quarter of the run on, one connection per second is never returned") {
+        @Override
+        void scheduleFaults(ScheduledExecutorService scheduler, FaultInjector faults, long durationMillis) {
+            scheduler.scheduleAtFixedRate(faults::leakConnection, durationMillis / 4, 1000, TimeUnit.MILLISECONDS);
+        }
+    };
+
+    private final String key;
+    private final int defaultClients;
+    private final String description;
+
+    Scenario(String key, int defaultClients, String description) {
+        this.key = key;
+        this.defaultClients = defaultClients;
+        this.description = description;
+    }
+
+    String key() {
+        return key;
+    }
+
+    int defaultClients() {
+        return defaultClients;
+    }
+
+    String description() {
+        return description;
+    }
+
+    /**
+     * Schedules the scenario's faults relative to the start of the measurement.
+     */
+    void scheduleFaults(ScheduledExecutorService scheduler, FaultInjector faults, long durationMillis) {
+    }
+
+    static Scenario fromKey(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario '" + key + "'");
+    }
+}
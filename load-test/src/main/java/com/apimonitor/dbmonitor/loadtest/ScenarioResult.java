@@ -0,0 +1,137 @@
+package com.apimonitor.dbmonitor.loadtest;
+
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The measured outcome of one scenario, printed as text and written to the JSON report.
+ */
+final class ScenarioResult {
+
+    final Scenario scenario;
+    final int clients;
+    final double durationSeconds;
+    final LoadStats stats;
+    final MonitorObservations monitor;
+    final List<String> faults;
+    /** Seconds into the measurement at which the application exited on its own, or -1. */
+    final double appExitedAtSeconds;
+    final int appExitCode;
+
+    ScenarioResult(Scenario scenario, int clients, double durationSeconds, LoadStats stats, MonitorObservations monitor,
+                   List<String> faults, double appExitedAtSeconds, int appExitCode) {
+        this.scenario = scenario;
+        this.clients = clients;
+        this.durationSeconds = durationSeconds;
+        this.stats = stats;
+        this.monitor = monitor;
+        this.faults = faults;
+        this.appExitedAtSeconds = appExitedAtSeconds;
+        this.appExitCode = appExitCode;
+    }
+
+    double throughput() {
+        return stats.count(LoadStats.Outcome.OK) / durationSeconds;
+    }
+
+    double p99Millis() {
+        return millis(stats.latency(), 0.99);
+    }
+
+    void print(PrintStream out) {
+        long ok = stats.count(LoadStats.Outcome.OK);
+        HistogramSnapshot latency = stats.latency();
+        out.printf(Locale.ROOT, "%nScenario %s: %d clients, %.0f s - %s%n", scenario.key(), clients, durationSeconds,
+                scenario.description());
+        out.printf(Locale.ROOT, "  Requests  ok %d (%.0f/s), shed %d, failed %d, no response %d%n", ok, throughput(),
+                stats.count(LoadStats.Outcome.SHED), stats.count(LoadStats.Outcome.FAILED), stats.count(LoadStats.Outcome.ERROR));
+        out.printf(Locale.ROOT, "  Latency   p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                millis(latency, 0.5), millis(latency, 0.9), millis(latency, 0.99), millis(latency, 0.999),
+                LatencyHistogram.toMillis(latency.getMax()));
+        for (Endpoint endpoint : Endpoint.values()) {
+            long total = 0;
+            for (LoadStats.Outcome outcome : LoadStats.Outcome.values()) {
+                total += stats.count(endpoint, outcome);
+            }
+            if (total > 0) {
+                out.printf(Locale.ROOT, "  %-9s ok %.0f/s, shed %d, failed %d, no response %d, p99 %.1f ms%n", endpoint.key(),
+                        stats.count(endpoint, LoadStats.Outcome.OK) / durationSeconds, stats.count(endpoint, LoadStats.Outcome.SHED),
+                        stats.count(endpoint, LoadStats.Outcome.FAILED), stats.count(endpoint, LoadStats.Outcome.ERROR),
+                        millis(stats.latency(endpoint), 0.99));
+            }
+        }
+        out.printf(Locale.ROOT, "  Pool      utilization peak %.0f%%, mean %.0f%%, peak waiting %d, acquires >= 1 ms %d (%d failed)%n",
+                monitor.peakUtilization * 100, monitor.meanUtilization * 100, monitor.peakThreadsAwaiting,
+                monitor.slowAcquires, monitor.failedAcquires);
+        out.printf(Locale.ROOT, "  Probes    %d, %d failed%n", monitor.probes, monitor.failedProbes);
+        for (String fault : faults) {
+            out.println("  Fault     " + fault);
+        }
+        if (monitor.decisions.isEmpty()) {
+            out.println("  Shutdown  no decisions");
+        }
+        for (String decision : monitor.decisions) {
+            out.println("  Shutdown  " + decision);
+        }
+        if (appExitedAtSeconds >= 0) {
+            out.printf(Locale.ROOT, "  App       exited at %.1f s with code %d%n", appExitedAtSeconds, appExitCode);
+        }
+    }
+
+    Map<String, Object> toReport() {
+        HistogramSnapshot latency = stats.latency();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("durationSeconds", durationSeconds);
+        report.put("throughput", round(throughput()));
+        report.put("ok", stats.count(LoadStats.Outcome.OK));
+        report.put("shed", stats.count(LoadStats.Outcome.SHED));
+        report.put("failed", stats.count(LoadStats.Outcome.FAILED));
+        report.put("noResponse", stats.count(LoadStats.Outcome.ERROR));
+        report.put("p50Millis", round(millis(latency, 0.5)));
+        report.put("p90Millis", round(millis(latency, 0.9)));
+        report.put("p99Millis", round(millis(latency, 0.99)));
+        report.put("p999Millis", round(millis(latency, 0.999)));
+        report.put("maxMillis", round(LatencyHistogram.toMillis(latency.getMax())));
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            long ok = stats.count(endpoint, LoadStats.Outcome.OK);
+            if (ok > 0) {
+                endpoints.put(endpoint.key(), Map.of(
+                        "throughput", round(ok / durationSeconds),
+                        "p99Millis", round(millis(stats.latency(endpoint), 0.99))));
+            }
+        }
+        report.put("endpoints", endpoints);
+
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("peakUtilization", round(monitor.peakUtilization));
+        pool.put("meanUtilization", round(monitor.meanUtilization));
+        pool.put("peakThreadsAwaiting", monitor.peakThreadsAwaiting);
+        pool.put("slowAcquires", monitor.slowAcquires);
+        pool.put("failedAcquires", monitor.failedAcquires);
+        pool.put("probes", monitor.probes);
+        pool.put("failedProbes", monitor.failedProbes);
+        report.put("pool", pool);
+        report.put("faults", faults);
+        report.put("shutdownDecisions", monitor.decisions);
+        report.put("appExitedAtSeconds", appExitedAtSeconds >= 0 ? round(appExitedAtSeconds) : null);
+        report.put("appExitCode", appExitCode);
+        return report;
+    }
+
+    private static double millis(HistogramSnapshot snapshot, double quantile) {
+        return LatencyHistogram.toMillis(snapshot.getValueAtQuantile(quantile));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
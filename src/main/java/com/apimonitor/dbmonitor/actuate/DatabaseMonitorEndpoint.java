@@ -0,0 +1,170 @@
+package com.apimonitor.dbmonitor.actuate;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseCircuitBreaker;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.forecast.SaturationForecast;
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.apimonitor.dbmonitor.metrics.RecentHistogram;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.apimonitor.dbmonitor.sampler.SampleWindow;
+import com.apimonitor.dbmonitor.schedule.AdaptiveMonitorScheduler;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/dbmonitor}: live state of every monitored pool.
+ *
+ * Everything is read from in-memory state - pool MXBeans, the sampler rings and the
+ * latency histograms - so a request never touches the database. The histograms are
+ * cumulative, so percentiles are reported over a recent window of one to two minutes
+ * (see {@link RecentHistogram}); counts since startup are labelled as lifetime figures.
+ * For very frequent scrapes the response can additionally be cached with
+ * {@code management.endpoint.dbmonitor.cache.time-to-live}.
+ */
+@Endpoint(id = "dbmonitor")
+public class DatabaseMonitorEndpoint {
+
+    /** Shortest span the reported percentiles cover. */
+    private static final Duration RECENT_WINDOW = Duration.ofMinutes(1);
+
+    private final MonitoredPoolRegistry poolRegistry;
+    private final DatabaseConnectionMonitorService monitorService;
+    private final AdaptiveMonitorScheduler monitorScheduler;
+    private final Map<String, RecentLatency> recentLatency = new HashMap<>();
+
+    /**
+     * @param monitorScheduler may be null if no scheduler is running
+     */
+    public DatabaseMonitorEndpoint(MonitoredPoolRegistry poolRegistry, DatabaseConnectionMonitorService monitorService,
+                                   AdaptiveMonitorScheduler monitorScheduler) {
+        this.poolRegistry = poolRegistry;
+        this.monitorService = monitorService;
+        this.monitorScheduler = monitorScheduler;
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            recentLatency.put(pool.getName(), new RecentLatency(pool));
+        }
+    }
+
+    @ReadOperation
+    public MonitorReport report() {
+        List<PoolReport> pools = new ArrayList<>(poolRegistry.getPools().size());
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            pools.add(poolReport(pool));
+        }
+        return new MonitorReport(monitorService.isDatabaseAvailable(), monitorService.isShutdownInProgress(),
+                monitorScheduler != null ? monitorScheduler.getCurrentIntervalMillis() : -1, pools);
+    }
+
+    /**
+     * @return the report of a single pool, or null (404) for an unknown pool name
+     */
+    @ReadOperation
+    public PoolReport pool(@Selector String name) {
+        MonitoredPool pool = poolRegistry.getPool(name);
+        return pool != null ? poolReport(pool) : null;
+    }
+
+    PoolReport poolReport(MonitoredPool pool) {
+        RecentLatency recent = recentLatency.get(pool.getName());
+        return new PoolReport(pool.getName(), pool.isAvailable(), connections(pool), windows(pool.getSampler()),
+                probe(pool, recent), breaker(pool.getCircuitBreaker()), latency(pool.getMonitoredDataSource(), recent),
+                forecast(pool.getSampler()));
+    }
+
+    private static PoolReport.Connections connections(MonitoredPool pool) {
+        HikariDataSource hikariDataSource = pool.getHikariDataSource();
+        HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        if (poolMXBean == null) {
+            return null;
+        }
+        return new PoolReport.Connections(poolMXBean.getActiveConnections(), poolMXBean.getIdleConnections(),
+                poolMXBean.getTotalConnections(), poolMXBean.getThreadsAwaitingConnection(),
+                hikariDataSource.getMaximumPoolSize());
+    }
+
+    private static PoolReport.Windows windows(PoolSampler sampler) {
+        if (sampler == null) {
+            return null;
+        }
+        return new PoolReport.Windows(sampler.stats(SampleWindow.ONE_SECOND), sampler.stats(SampleWindow.TEN_SECONDS),
+                sampler.stats(SampleWindow.ONE_MINUTE));
+    }
+
+    private static PoolReport.Probe probe(MonitoredPool pool, RecentLatency recent) {
+        long last = pool.getLastProbeLatencyNanos();
+        return new PoolReport.Probe(pool.getConsecutiveFailures(), pool.getProbeLatency().count(),
+                last >= 0 ? LatencyHistogram.toMillis(last) : -1, percentiles(recent.probe));
+    }
+
+    private static PoolReport.Breaker breaker(DatabaseCircuitBreaker breaker) {
+        return breaker != null ? new PoolReport.Breaker(breaker.getState(), breaker.getRejectedCallCount()) : null;
+    }
+
+    private static PoolReport.Latency latency(MonitoredDataSource dataSource, RecentLatency recent) {
+        if (dataSource == null) {
+            return null;
+        }
+        return new PoolReport.Latency(dataSource.getAcquireHistogram().count(), dataSource.getAcquireFailureCount(),
+                percentiles(recent.acquire), percentiles(recent.hold), dataSource.isDraining());
+    }
+
+    private static PoolReport.Percentiles percentiles(RecentHistogram recent) {
+        RecentHistogram.Window window = recent.read();
+        HistogramSnapshot distribution = window.getDistribution();
+        return new PoolReport.Percentiles(window.getNanos() / 1e9, distribution.getCount(),
+                LatencyHistogram.toMillis(distribution.getValueAtQuantile(0.50)),
+                LatencyHistogram.toMillis(distribution.getValueAtQuantile(0.99)),
+                LatencyHistogram.toMillis(distribution.getMax()));
+    }
+
+    private static PoolReport.Forecast forecast(PoolSampler sampler) {
+        SaturationForecast forecast = sampler != null ? sampler.forecast() : null;
+        if (forecast == null) {
+            return null;
+        }
+        return new PoolReport.Forecast(forecast.getUtilization(), forecast.getUtilizationTrendPerSecond(),
+                forecast.isSaturating() ? forecast.getSecondsToSaturation() : null, forecast.isWarning());
+    }
+
+    /**
+     * Recent windows over a pool's cumulative histograms.
+     */
+    private static final class RecentLatency {
+
+        final RecentHistogram probe;
+        final RecentHistogram acquire;
+        final RecentHistogram hold;
+
+        RecentLatency(MonitoredPool pool) {
+            MonitoredDataSource dataSource = pool.getMonitoredDataSource();
+            this.probe = new RecentHistogram(pool.getProbeLatency(), RECENT_WINDOW);
+            this.acquire = dataSource != null ? new RecentHistogram(dataSource.getAcquireHistogram(), RECENT_WINDOW) : null;
+            this.hold = dataSource != null ? new RecentHistogram(dataSource.getHoldHistogram(), RECENT_WINDOW) : null;
+        }
+    }
+
+    /**
+     * Response of {@code /actuator/dbmonitor}.
+     */
+    @Value
+    public static class MonitorReport {
+        boolean databaseAvailable;
+        boolean shutdownInProgress;
+        long monitoringIntervalMillis;
+        List<PoolReport> pools;
+    }
+}
@@ -0,0 +1,122 @@
+package com.apimonitor.dbmonitor.actuate;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseCircuitBreaker;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.forecast.SaturationForecast;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.apimonitor.dbmonitor.schedule.AdaptiveMonitorScheduler;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the monitor's state as Micrometer meters, tagged with the pool name.
+ *
+ * All meters are function-based: they read the existing atomics and histograms when
+ * scraped, so nothing is added to the connection checkout path and a scrape allocates
+ * nothing per meter. Pool connection counts are left to HikariCP's own {@code hikaricp.*}
+ * meters. Latencies are published as function timers only: the histograms are cumulative,
+ * so a percentile gauge would describe everything since startup, and backends derive
+ * current rates and averages from the timers' count and total.
+ */
+public class DatabaseMonitorMetrics implements MeterBinder {
+
+    private final MonitoredPoolRegistry poolRegistry;
+    private final DatabaseConnectionMonitorService monitorService;
+    private final AdaptiveMonitorScheduler monitorScheduler;
+
+    /**
+     * @param monitorScheduler may be null if no scheduler is running
+     */
+    public DatabaseMonitorMetrics(MonitoredPoolRegistry poolRegistry, DatabaseConnectionMonitorService monitorService,
+                                  AdaptiveMonitorScheduler monitorScheduler) {
+        this.poolRegistry = poolRegistry;
+        this.monitorService = monitorService;
+        this.monitorScheduler = monitorScheduler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dbmonitor.available", monitorService, service -> service.isDatabaseAvailable() ? 1 : 0)
+                .description("1 while no circuit breaker is open")
+                .register(registry);
+        Gauge.builder("dbmonitor.shutdown.in.progress", monitorService, service -> service.isShutdownInProgress() ? 1 : 0)
+                .register(registry);
+        if (monitorScheduler != null) {
+            Gauge.builder("dbmonitor.monitoring.interval", monitorScheduler, AdaptiveMonitorScheduler::getCurrentIntervalMillis)
+                    .description("Current delay between two monitoring cycles")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            bindPool(registry, pool, Tags.of("pool", pool.getName()));
+        }
+    }
+
+    private static void bindPool(MeterRegistry registry, MonitoredPool pool, Tags tags) {
+        Gauge.builder("dbmonitor.probe.consecutive.failures", pool, MonitoredPool::getConsecutiveFailures)
+                .tags(tags)
+                .register(registry);
+        histogramTimer(registry, "dbmonitor.probe.duration", "Duration of completed health probes",
+                pool.getProbeLatency(), tags);
+
+        DatabaseCircuitBreaker breaker = pool.getCircuitBreaker();
+        if (breaker != null) {
+            Gauge.builder("dbmonitor.breaker.state", breaker, b -> b.getState().ordinal())
+                    .description("0 closed, 1 open, 2 half-open")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("dbmonitor.breaker.rejected", breaker, DatabaseCircuitBreaker::getRejectedCallCount)
+                    .description("Connection requests rejected while the circuit breaker was open")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        MonitoredDataSource dataSource = pool.getMonitoredDataSource();
+        if (dataSource != null) {
+            histogramTimer(registry, "dbmonitor.connection.acquire", "Time spent waiting in getConnection()",
+                    dataSource.getAcquireHistogram(), tags);
+            histogramTimer(registry, "dbmonitor.connection.hold", "Time connections were held by the application",
+                    dataSource.getHoldHistogram(), tags);
+            FunctionCounter.builder("dbmonitor.connection.acquire.failures", dataSource, MonitoredDataSource::getAcquireFailureCount)
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        PoolSampler sampler = pool.getSampler();
+        if (sampler != null) {
+            Gauge.builder("dbmonitor.pool.threads.awaiting.latest", sampler, PoolSampler::latestThreadsAwaiting)
+                    .description("Threads waiting for a connection at the latest high-frequency sample")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("dbmonitor.forecast.seconds.to.saturation", sampler, DatabaseMonitorMetrics::secondsToSaturation)
+                    .description("Projected time until the pool saturates, NaN while utilization is not rising")
+                    .tags(tags)
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    private static void histogramTimer(MeterRegistry registry, String name, String description,
+                                       LatencyHistogram histogram, Tags tags) {
+        FunctionTimer.builder(name, histogram, LatencyHistogram::count, LatencyHistogram::sum, TimeUnit.NANOSECONDS)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static double secondsToSaturation(PoolSampler sampler) {
+        SaturationForecast forecast = sampler.forecast();
+        return forecast != null && forecast.isSaturating() ? forecast.getSecondsToSaturation() : Double.NaN;
+    }
+}
@@ -0,0 +1,90 @@
+package com.apimonitor.dbmonitor.actuate;
+
+import com.apimonitor.dbmonitor.breaker.CircuitState;
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+import lombok.Value;
+
+/**
+ * State of a single pool as reported by {@link DatabaseMonitorEndpoint}.
+ * Latencies are in milliseconds.
+ */
+@Value
+public class PoolReport {
+
+    String name;
+    boolean available;
+    Connections connections;
+    /** Sampled history; null if sampling is disabled. */
+    Windows windows;
+    Probe probe;
+    /** Null if the circuit breaker is disabled. */
+    Breaker breaker;
+    /** Null if instrumentation is disabled. */
+    Latency latency;
+    /** Null if forecasting is disabled or still warming up. */
+    Forecast forecast;
+
+    @Value
+    public static class Connections {
+        int active;
+        int idle;
+        int total;
+        int threadsAwaiting;
+        int maximumPoolSize;
+    }
+
+    @Value
+    public static class Windows {
+        PoolWindowStats oneSecond;
+        PoolWindowStats tenSeconds;
+        PoolWindowStats oneMinute;
+    }
+
+    @Value
+    public static class Probe {
+        int consecutiveFailures;
+        /** Probes completed since startup. */
+        long lifetimeCount;
+        double lastMillis;
+        Percentiles recent;
+    }
+
+    @Value
+    public static class Breaker {
+        CircuitState state;
+        long rejectedCalls;
+    }
+
+    @Value
+    public static class Latency {
+        /** Checkouts since startup. */
+        long lifetimeAcquisitions;
+        /** Failed or timed-out checkouts since startup. */
+        long lifetimeAcquireFailures;
+        Percentiles recentAcquire;
+        Percentiles recentHold;
+        boolean draining;
+    }
+
+    /**
+     * Distribution of the values recorded over the last {@code windowSeconds}, one to two
+     * minutes when the endpoint is read regularly.
+     */
+    @Value
+    public static class Percentiles {
+        double windowSeconds;
+        long count;
+        double p50Millis;
+        double p99Millis;
+        double maxMillis;
+    }
+
+    @Value
+    public static class Forecast {
+        double utilization;
+        double utilizationTrendPerSecond;
+        /** Null while utilization is not rising. */
+        Double secondsToSaturation;
+        boolean warning;
+    }
+}
@@ -0,0 +1,33 @@
+package com.apimonitor.dbmonitor.attribution;
+
+/**
+ * Holds the endpoint the current thread is working for, so connection checkouts can be
+ * attributed to it. Set by {@link com.apimonitor.dbmonitor.web.EndpointAttributionInterceptor}
+ * for web requests; other code may tag its own work the same way.
+ */
+public final class EndpointAttribution {
+
+    /** Attribution of checkouts made outside a tagged request, e.g. by schedulers. */
+    public static final String UNATTRIBUTED = "unattributed";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private EndpointAttribution() {
+    }
+
+    public static void set(String endpoint) {
+        CURRENT.set(endpoint);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the endpoint of the current thread, or {@link #UNATTRIBUTED}
+     */
+    public static String current() {
+        String endpoint = CURRENT.get();
+        return endpoint != null ? endpoint : UNATTRIBUTED;
+    }
+}
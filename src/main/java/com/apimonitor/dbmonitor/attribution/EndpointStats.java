@@ -0,0 +1,60 @@
+package com.apimonitor.dbmonitor.attribution;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative connection usage of one endpoint. Recording is lock-free and allocation-free.
+ */
+public final class EndpointStats {
+
+    private final String endpoint;
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+
+    // Only touched by the monitoring thread
+    private long lastConnections;
+    private long lastAcquireNanos;
+    private long lastHoldNanos;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void recordAcquire(long nanos) {
+        connections.increment();
+        acquireNanos.add(nanos);
+    }
+
+    public void recordHold(long nanos) {
+        holdNanos.add(nanos);
+    }
+
+    public long getConnections() {
+        return connections.sum();
+    }
+
+    public long getAcquireNanos() {
+        return acquireNanos.sum();
+    }
+
+    public long getHoldNanos() {
+        return holdNanos.sum();
+    }
+
+    EndpointUsage usageSinceLastCheck() {
+        long currentConnections = connections.sum();
+        long currentAcquire = acquireNanos.sum();
+        long currentHold = holdNanos.sum();
+        EndpointUsage usage = new EndpointUsage(endpoint, currentConnections - lastConnections,
+                currentAcquire - lastAcquireNanos, currentHold - lastHoldNanos);
+        lastConnections = currentConnections;
+        lastAcquireNanos = currentAcquire;
+        lastHoldNanos = currentHold;
+        return usage;
+    }
+}
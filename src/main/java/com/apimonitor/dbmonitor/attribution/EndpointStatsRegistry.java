@@ -0,0 +1,66 @@
+package com.apimonitor.dbmonitor.attribution;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint connection usage of one data source.
+ *
+ * The lookup on the checkout path is a single {@link ConcurrentHashMap#get(Object)} once an
+ * endpoint has been seen. The number of distinct endpoints is capped so that unbounded tags
+ * cannot grow the map; the overflow is counted under {@link #OTHER}.
+ */
+public class EndpointStatsRegistry {
+
+    /** Attribution of endpoints beyond the cap. */
+    public static final String OTHER = "other";
+
+    static final int MAX_ENDPOINTS = 500;
+
+    private final ConcurrentHashMap<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final EndpointStats other = new EndpointStats(OTHER);
+
+    public EndpointStats statsFor(String endpoint) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        if (endpointStats != null) {
+            return endpointStats;
+        }
+        if (stats.size() >= MAX_ENDPOINTS) {
+            return other;
+        }
+        return stats.computeIfAbsent(endpoint, EndpointStats::new);
+    }
+
+    /**
+     * Returns the usage of every endpoint since the previous call, highest total hold time first.
+     * Must only be called from the monitoring thread.
+     */
+    public List<EndpointUsage> usageSinceLastCheck() {
+        List<EndpointUsage> usage = new ArrayList<>(stats.size() + 1);
+        for (EndpointStats endpointStats : stats.values()) {
+            addIfUsed(usage, endpointStats.usageSinceLastCheck());
+        }
+        addIfUsed(usage, other.usageSinceLastCheck());
+        usage.sort(Comparator.comparingLong(EndpointUsage::getHoldNanos).reversed());
+        return usage;
+    }
+
+    /**
+     * @return cumulative stats of every endpoint seen so far
+     */
+    public List<EndpointStats> getAll() {
+        List<EndpointStats> all = new ArrayList<>(stats.values());
+        if (other.getConnections() > 0) {
+            all.add(other);
+        }
+        return all;
+    }
+
+    private static void addIfUsed(List<EndpointUsage> usage, EndpointUsage endpointUsage) {
+        if (endpointUsage.getConnections() > 0 || endpointUsage.getHoldNanos() > 0) {
+            usage.add(endpointUsage);
+        }
+    }
+}
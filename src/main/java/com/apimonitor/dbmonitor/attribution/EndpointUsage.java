@@ -0,0 +1,25 @@
+package com.apimonitor.dbmonitor.attribution;
+
+import lombok.Value;
+
+/**
+ * Connection usage of one endpoint within a monitoring interval.
+ */
+@Value
+public class EndpointUsage {
+
+    String endpoint;
+    long connections;
+    /** Total time spent waiting in {@code getConnection()}. */
+    long acquireNanos;
+    /** Total time connections were held; connections still open are counted once released. */
+    long holdNanos;
+
+    public long getMeanAcquireNanos() {
+        return connections == 0 ? 0 : acquireNanos / connections;
+    }
+
+    public long getMeanHoldNanos() {
+        return connections == 0 ? 0 : holdNanos / connections;
+    }
+}
@@ -0,0 +1,16 @@
+package com.apimonitor.dbmonitor.breaker;
+
+/**
+ * State of a {@link DatabaseCircuitBreaker}.
+ */
+public enum CircuitState {
+
+    /** The database is considered available; every call goes through. */
+    CLOSED,
+
+    /** The monitor confirmed an outage; calls fail fast without touching the pool. */
+    OPEN,
+
+    /** The open period has elapsed and a single trial call is allowed through. */
+    HALF_OPEN
+}
@@ -0,0 +1,156 @@
+package com.apimonitor.dbmonitor.breaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free circuit breaker in front of a single pool.
+ *
+ * The monitor opens it once health probes have failed {@code failureThreshold} times in a
+ * row. While it is open, {@link #acquirePermission()} rejects callers with a
+ * {@link DatabaseUnavailableException} instead of letting each of them wait out the pool's
+ * connection timeout. After the open duration one caller is let through as a half-open
+ * trial; its outcome closes or re-opens the breaker. A successful health probe closes it
+ * at any time.
+ *
+ * The state and the time it was entered are swapped together in a single
+ * {@link AtomicReference}, so a closed breaker costs one volatile read per call.
+ */
+@Slf4j
+public class DatabaseCircuitBreaker {
+
+    private static final Phase CLOSED = new Phase(CircuitState.CLOSED, 0);
+
+    private final String poolName;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(CLOSED);
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    /**
+     * @param failureThreshold consecutive failed health probes that open the breaker
+     * @param openDuration     time rejected calls fail fast before a trial call is let through
+     */
+    public DatabaseCircuitBreaker(String poolName, int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.poolName = poolName;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return true while the breaker is closed; safe and cheap to call from request threads
+     */
+    public boolean isAvailable() {
+        return phase.get() == CLOSED;
+    }
+
+    public CircuitState getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * Checks whether a caller may use the database.
+     *
+     * @return true if the caller is the half-open trial and must report its outcome through
+     *         {@link #recordTrialSuccess()} or {@link #recordTrialFailure()}
+     * @throws DatabaseUnavailableException while the breaker is open
+     */
+    public boolean acquirePermission() throws DatabaseUnavailableException {
+        Phase current = phase.get();
+        if (current == CLOSED) {
+            return false;
+        }
+        long now = System.nanoTime();
+        // A trial that never reported back is replaced after another open duration
+        if (now - current.since >= openDurationNanos
+                && phase.compareAndSet(current, new Phase(CircuitState.HALF_OPEN, now))) {
+            log.info("Circuit breaker of pool '{}' is half-open, letting a trial call through", poolName);
+            return true;
+        }
+        rejectedCalls.increment();
+        throw new DatabaseUnavailableException(poolName);
+    }
+
+    public void recordTrialSuccess() {
+        Phase current = phase.get();
+        if (current.state == CircuitState.HALF_OPEN && phase.compareAndSet(current, CLOSED)) {
+            log.info("Circuit breaker of pool '{}' closed after a successful trial call", poolName);
+        }
+    }
+
+    public void recordTrialFailure() {
+        Phase current = phase.get();
+        if (current.state == CircuitState.HALF_OPEN
+                && phase.compareAndSet(current, new Phase(CircuitState.OPEN, System.nanoTime()))) {
+            log.warn("Circuit breaker of pool '{}' re-opened after a failed trial call", poolName);
+        }
+    }
+
+    /**
+     * Opens the breaker once the consecutive probe failures reach the threshold.
+     *
+     * @return true if this call opened the breaker
+     */
+    public boolean recordProbeFailure(int consecutiveFailures) {
+        if (consecutiveFailures < failureThreshold) {
+            return false;
+        }
+        while (true) {
+            Phase current = phase.get();
+            if (current.state == CircuitState.OPEN) {
+                return false;
+            }
+            // A failing probe during a half-open trial re-opens without waiting for the trial
+            if (phase.compareAndSet(current, new Phase(CircuitState.OPEN, System.nanoTime()))) {
+                if (current == CLOSED) {
+                    log.error("Circuit breaker of pool '{}' opened after {} consecutive failed health checks, "
+                            + "connection requests fail fast until the database recovers", poolName, consecutiveFailures);
+                }
+                return current == CLOSED;
+            }
+        }
+    }
+
+    /**
+     * Closes the breaker after a successful health probe.
+     *
+     * @return true if the breaker was open or half-open before
+     */
+    public boolean recordProbeSuccess() {
+        Phase previous = phase.getAndSet(CLOSED);
+        if (previous != CLOSED) {
+            log.info("Circuit breaker of pool '{}' closed, health check succeeded - Calls rejected so far: {}",
+                    poolName, rejectedCalls.sum());
+            return true;
+        }
+        return false;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * @return the number of calls rejected since startup
+     */
+    public long getRejectedCallCount() {
+        return rejectedCalls.sum();
+    }
+
+    private static final class Phase {
+
+        final CircuitState state;
+        final long since;
+
+        Phase(CircuitState state, long since) {
+            this.state = state;
+            this.since = since;
+        }
+    }
+}
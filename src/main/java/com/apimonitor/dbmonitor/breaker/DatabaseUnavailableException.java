@@ -0,0 +1,39 @@
+package com.apimonitor.dbmonitor.breaker;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown by {@code getConnection()} while a pool's circuit breaker is open or the
+ * application is draining before a shutdown.
+ *
+ * It is a {@link SQLTransientConnectionException}, so Spring and Hibernate translate it
+ * like a connection timeout and callers that already handle those need no changes.
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String poolName;
+
+    public DatabaseUnavailableException(String poolName) {
+        this(poolName, "circuit breaker is open");
+    }
+
+    public DatabaseUnavailableException(String poolName, String reason) {
+        super("Database of pool '" + poolName + "' is unavailable, " + reason, "08001");
+        this.poolName = poolName;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * The exception is thrown on every rejected call; its stack trace carries no
+     * information and would make the fast path slow.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -1,23 +1,57 @@
 package com.apimonitor.dbmonitor.config;
 
+import com.apimonitor.dbmonitor.actuate.DatabaseMonitorEndpoint;
+import com.apimonitor.dbmonitor.actuate.DatabaseMonitorMetrics;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSourceBeanPostProcessor;
+import com.apimonitor.dbmonitor.events.PoolEventBus;
+import com.apimonitor.dbmonitor.events.PoolEventDetector;
+import com.apimonitor.dbmonitor.events.PoolEventListener;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.schedule.AdaptiveMonitorScheduler;
+import com.apimonitor.dbmonitor.schedule.MonitoringCadence;
 import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.apimonitor.dbmonitor.shutdown.ApplicationDrainer;
+import com.apimonitor.dbmonitor.shutdown.DrainSettings;
+import com.apimonitor.dbmonitor.tuning.PoolAutoTuner;
+import com.apimonitor.dbmonitor.tuning.TuningSettings;
+import com.apimonitor.dbmonitor.warmup.PoolWarmup;
+import com.apimonitor.dbmonitor.warmup.WarmupTask;
+import com.apimonitor.dbmonitor.web.AdmissionControlFilter;
+import com.apimonitor.dbmonitor.web.EndpointAttributionInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Auto-configuration for the Database Connection Monitor.
  * This class enables automatic configuration when the library is included
  * in a Spring Boot application's classpath.
  */
-@Configuration
+@AutoConfiguration(after = DataSourceAutoConfiguration.class)
 @ConditionalOnClass(DatabaseConnectionMonitorService.class)
 @ConditionalOnProperty(name = "db.monitor.enabled", havingValue = "true", matchIfMissing = true)
-@EnableScheduling
 public class DatabaseMonitorAutoConfiguration {
 
     @Bean
@@ -25,4 +59,180 @@ public class DatabaseMonitorAutoConfiguration {
     public DatabaseConnectionMonitorService databaseConnectionMonitorService() {
         return new DatabaseConnectionMonitorService();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Wraps HikariCP DataSource beans to record connection acquire and hold times.
+     * Static so that it is registered before the DataSource beans are created.
+     */
+    @Bean
+    @ConditionalOnClass(HikariDataSource.class)
+    @ConditionalOnProperty(name = "db.monitor.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+    public static MonitoredDataSourceBeanPostProcessor monitoredDataSourceBeanPostProcessor() {
+        return new MonitoredDataSourceBeanPostProcessor();
+    }
+
+    /**
+     * One monitored pool per DataSource bean, each with its own high-frequency sampler.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MonitoredPoolRegistry monitoredPoolRegistry(Map<String, DataSource> dataSources, Environment environment,
+                                                       @Value("${db.monitor.sampler.enabled:true}") boolean samplerEnabled,
+                                                       @Value("${db.monitor.sampler.interval:5}") long samplerIntervalMillis,
+                                                       @Value("${db.monitor.sampler.history:60000}") long samplerHistoryMillis) {
+        return new MonitoredPoolRegistry(dataSources, environment,
+                samplerEnabled ? Duration.ofMillis(samplerIntervalMillis) : null,
+                Duration.ofMillis(samplerHistoryMillis));
+    }
+
+    /**
+     * Runs the monitoring cycle at an interval that shortens under pool pressure
+     * and backs off while all pools are quiet. Also publishes saturation forecast warnings
+     * and pool state transitions.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AdaptiveMonitorScheduler adaptiveMonitorScheduler(DatabaseConnectionMonitorService monitorService,
+                                                             MonitoredPoolRegistry poolRegistry,
+                                                             ApplicationEventPublisher eventPublisher,
+                                                             ObjectProvider<PoolEventBus> eventBus,
+                                                             @Value("${db.monitor.monitoring-interval:30000}") long monitoringIntervalMillis,
+                                                             @Value("${db.monitor.adaptive.enabled:true}") boolean adaptiveEnabled,
+                                                             @Value("${db.monitor.adaptive.min-interval:1000}") long minIntervalMillis,
+                                                             @Value("${db.monitor.adaptive.max-interval:120000}") long maxIntervalMillis,
+                                                             @Value("${db.monitor.adaptive.backoff-multiplier:2.0}") double backoffMultiplier,
+                                                             @Value("${db.monitor.adaptive.quiet-utilization:0.5}") double quietUtilization) {
+        MonitoringCadence cadence = adaptiveEnabled
+                ? new MonitoringCadence(monitoringIntervalMillis,
+                        Math.min(minIntervalMillis, monitoringIntervalMillis),
+                        Math.max(maxIntervalMillis, monitoringIntervalMillis),
+                        backoffMultiplier)
+                : MonitoringCadence.fixed(monitoringIntervalMillis);
+        PoolEventBus bus = eventBus.getIfAvailable();
+        PoolEventDetector eventDetector = bus != null && bus.hasListeners()
+                ? new PoolEventDetector(poolRegistry, monitorService, bus)
+                : null;
+        return new AdaptiveMonitorScheduler(monitorService, poolRegistry, cadence, quietUtilization, eventPublisher,
+                eventDetector);
+    }
+
+    /**
+     * Delivers pool state transitions to every {@link PoolEventListener} bean, each on its own thread.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "db.monitor.events.enabled", havingValue = "true", matchIfMissing = true)
+    public PoolEventBus poolEventBus(ObjectProvider<PoolEventListener> listeners,
+                                     @Value("${db.monitor.events.queue-capacity:1024}") int queueCapacity) {
+        return new PoolEventBus(listeners.orderedStream().toList(), queueCapacity);
+    }
+
+    /**
+     * Opens and validates the pools' connections and runs every {@link WarmupTask} bean
+     * before the application reports ready.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "db.monitor.warmup.enabled", havingValue = "true", matchIfMissing = true)
+    public PoolWarmup poolWarmup(MonitoredPoolRegistry poolRegistry, ObjectProvider<WarmupTask> tasks,
+                                 @Value("${db.monitor.warmup.timeout:30000}") long timeoutMillis) {
+        return new PoolWarmup(poolRegistry, tasks.orderedStream().toList(), timeoutMillis);
+    }
+
+    /**
+     * Takes the application out of service and closes the context gracefully when the
+     * monitor decides to shut down.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ApplicationDrainer applicationDrainer(ConfigurableApplicationContext context, MonitoredPoolRegistry poolRegistry,
+                                                 Environment environment) {
+        return new ApplicationDrainer(context, poolRegistry, DrainSettings.resolve(environment));
+    }
+
+    /**
+     * Optional runtime resizing of HikariCP pools based on sampled utilization and acquire latency.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "db.monitor.tuning.enabled", havingValue = "true")
+    public PoolAutoTuner poolAutoTuner(MonitoredPoolRegistry poolRegistry, Environment environment) {
+        return new PoolAutoTuner(poolRegistry, TuningSettings.resolve(environment));
+    }
+
+    /**
+     * Monitor state as Micrometer meters, bound to every MeterRegistry in the context.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DatabaseMonitorMetrics databaseMonitorMetrics(MonitoredPoolRegistry poolRegistry,
+                                                             DatabaseConnectionMonitorService monitorService,
+                                                             ObjectProvider<AdaptiveMonitorScheduler> monitorScheduler) {
+            return new DatabaseMonitorMetrics(poolRegistry, monitorService, monitorScheduler.getIfAvailable());
+        }
+    }
+
+    /**
+     * {@code /actuator/dbmonitor}, exposed like any other endpoint through {@code management.endpoints.web.exposure.include}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public DatabaseMonitorEndpoint databaseMonitorEndpoint(MonitoredPoolRegistry poolRegistry,
+                                                               DatabaseConnectionMonitorService monitorService,
+                                                               ObjectProvider<AdaptiveMonitorScheduler> monitorScheduler) {
+            return new DatabaseMonitorEndpoint(poolRegistry, monitorService, monitorScheduler.getIfAvailable());
+        }
+    }
+
+    /**
+     * Optional load shedding for servlet applications: rejects requests with 503 while a pool is saturated.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "db.monitor.admission.enabled", havingValue = "true")
+    static class AdmissionControlConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "admissionControlFilterRegistration")
+        public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+                MonitoredPoolRegistry poolRegistry,
+                @Value("${db.monitor.admission.max-threads-awaiting:1}") int maxThreadsAwaiting,
+                @Value("${db.monitor.admission.max-acquire-latency:500}") long maxAcquireLatencyMillis,
+                @Value("${db.monitor.admission.retry-after:1}") long retryAfterSeconds,
+                @Value("${db.monitor.admission.url-patterns:/*}") String[] urlPatterns) {
+            AdmissionControlFilter filter = new AdmissionControlFilter(poolRegistry, maxThreadsAwaiting,
+                    maxAcquireLatencyMillis, retryAfterSeconds);
+            FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+            registration.setName("dbMonitorAdmissionControl");
+            registration.addUrlPatterns(urlPatterns);
+            // Before anything that does real work for the request
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+            return registration;
+        }
+    }
+
+    /**
+     * Attributes connection checkouts to the Spring MVC handler method of the current request.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    @ConditionalOnProperty(name = "db.monitor.attribution.enabled", havingValue = "true", matchIfMissing = true)
+    static class EndpointAttributionConfiguration implements WebMvcConfigurer {
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            // First, so that checkouts made by other interceptors are attributed as well
+            registry.addInterceptor(new EndpointAttributionInterceptor()).order(Ordered.HIGHEST_PRECEDENCE);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of checked-out connections so long-held ones can be reported with their owner.
+ *
+ * Checkout claims a slot in a fixed-size table with a single CAS, starting at a
+ * thread-dependent index so concurrent checkouts rarely probe the same slots. Capturing
+ * the acquisition stack is the expensive part, so it only happens for a sampled fraction
+ * of checkouts. For the others, the owner thread's current stack is captured once the
+ * connection is reported as a leak suspect.
+ */
+public class ConnectionLeakTracker {
+
+    /** Comfortably above any sane pool size; checkouts beyond it are counted but not tracked. */
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<MonitoredConnection> slots;
+    private final double stackSampleRate;
+    private final LongAdder untracked = new LongAdder();
+
+    /**
+     * @param stackSampleRate fraction of checkouts (0.0 to 1.0) whose acquisition stack is captured
+     */
+    public ConnectionLeakTracker(double stackSampleRate) {
+        this(DEFAULT_CAPACITY, stackSampleRate);
+    }
+
+    ConnectionLeakTracker(int capacity, double stackSampleRate) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.stackSampleRate = stackSampleRate;
+    }
+
+    /**
+     * @return the stack of the current call if this checkout is sampled, otherwise null
+     */
+    Throwable captureAcquisitionSite() {
+        if (stackSampleRate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= stackSampleRate) {
+            return null;
+        }
+        return new Throwable("Connection acquired here");
+    }
+
+    /**
+     * @return the claimed slot, or -1 if the table is full
+     */
+    int track(MonitoredConnection connection) {
+        int capacity = slots.length();
+        int start = (int) (Thread.currentThread().getId() % capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, connection)) {
+                return slot;
+            }
+        }
+        untracked.increment();
+        return -1;
+    }
+
+    void untrack(MonitoredConnection connection, int slot) {
+        if (slot >= 0) {
+            slots.compareAndSet(slot, connection, null);
+        }
+    }
+
+    /**
+     * Returns connections held longer than the threshold that were not reported before,
+     * and marks them as reported. Captures the owner's current stack for unsampled ones.
+     */
+    public List<HeldConnection> newLeakSuspects(long thresholdNanos) {
+        long now = System.nanoTime();
+        List<HeldConnection> suspects = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            MonitoredConnection connection = slots.get(i);
+            if (connection != null && now - connection.getAcquiredAt() >= thresholdNanos && connection.markLeakReported()) {
+                suspects.add(describe(connection, now, true));
+            }
+        }
+        return suspects;
+    }
+
+    /**
+     * Returns the connections that have been held longest, longest first.
+     * Stacks are included only for sampled checkouts.
+     */
+    public List<HeldConnection> longestHeld(int limit) {
+        long now = System.nanoTime();
+        List<MonitoredConnection> held = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            MonitoredConnection connection = slots.get(i);
+            if (connection != null) {
+                held.add(connection);
+            }
+        }
+        held.sort(Comparator.comparingLong(MonitoredConnection::getAcquiredAt));
+
+        List<HeldConnection> longest = new ArrayList<>(Math.min(limit, held.size()));
+        for (int i = 0; i < held.size() && i < limit; i++) {
+            longest.add(describe(held.get(i), now, false));
+        }
+        return longest;
+    }
+
+    /**
+     * @return checkouts that could not be tracked because the table was full
+     */
+    public long getUntrackedCount() {
+        return untracked.sum();
+    }
+
+    private static HeldConnection describe(MonitoredConnection connection, long now, boolean captureOwnerStack) {
+        Thread owner = connection.getOwnerThread();
+        Throwable site = connection.getAcquisitionSite();
+        StackTraceElement[] ownerStack = site == null && captureOwnerStack ? owner.getStackTrace() : null;
+        return new HeldConnection(connection.getEndpoint().getEndpoint(), owner.getName(), owner.getState(), now - connection.getAcquiredAt(),
+                site != null ? callerFrames(site.getStackTrace()) : null, ownerStack);
+    }
+
+    /**
+     * Drops the leading tracker and data source frames so the stack starts at the caller of {@code getConnection()}.
+     */
+    private static StackTraceElement[] callerFrames(StackTraceElement[] stack) {
+        int first = 0;
+        while (first < stack.length - 1 && (stack[first].getClassName().equals(ConnectionLeakTracker.class.getName())
+                || stack[first].getClassName().equals(MonitoredDataSource.class.getName()))) {
+            first++;
+        }
+        return Arrays.copyOfRange(stack, first, stack.length);
+    }
+}
@@ -0,0 +1,22 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import lombok.Value;
+
+/**
+ * Point-in-time view of a checked-out connection, for leak reports.
+ */
+@Value
+public class HeldConnection {
+
+    /** Endpoint the connection was checked out for. */
+    String endpoint;
+    /** Name of the thread that checked the connection out. */
+    String ownerThreadName;
+    /** State of the owner thread; TERMINATED means the connection can no longer be closed by its owner. */
+    Thread.State ownerThreadState;
+    long heldNanos;
+    /** Call stack of the {@code getConnection()} call, or null if this checkout was not sampled. */
+    StackTraceElement[] acquisitionStack;
+    /** Where the owner thread was when the connection was reported, or null if the acquisition stack is known. */
+    StackTraceElement[] ownerStack;
+}
@@ -0,0 +1,258 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import com.apimonitor.dbmonitor.attribution.EndpointAttribution;
+import com.apimonitor.dbmonitor.attribution.EndpointStats;
+import com.apimonitor.dbmonitor.attribution.EndpointStatsRegistry;
+import com.apimonitor.dbmonitor.breaker.DatabaseCircuitBreaker;
+import com.apimonitor.dbmonitor.breaker.DatabaseUnavailableException;
+import com.apimonitor.dbmonitor.jfr.ConnectionAcquireEvent;
+import com.apimonitor.dbmonitor.jfr.ConnectionHoldEvent;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.apimonitor.dbmonitor.sql.SqlStatsTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link javax.sql.DataSource} decorator that measures how long callers block in
+ * {@code getConnection()} and how long they hold the connection afterwards.
+ *
+ * Both latencies go into constant-memory {@link LatencyHistogram}s. The per-acquisition
+ * cost is two {@link System#nanoTime()} calls, one wrapper object, two atomic increments
+ * and one CAS to register the checkout with the {@link ConnectionLeakTracker}.
+ *
+ * Waits and holds are also emitted as JFR events, see {@link ConnectionAcquireEvent}
+ * and {@link ConnectionHoldEvent}. Without a recording that enables them each costs a
+ * check of its cached {@link jdk.jfr.EventType}; no event object is allocated.
+ *
+ * While the pool's {@link DatabaseCircuitBreaker} is open, {@code getConnection()} throws
+ * right away instead of blocking for the pool's connection timeout.
+ */
+public class MonitoredDataSource extends DelegatingDataSource implements Closeable {
+
+    private final HikariDataSource hikariDataSource;
+    private final LatencyHistogram acquireHistogram = new LatencyHistogram();
+    private final LatencyHistogram holdHistogram = new LatencyHistogram();
+    private final LongAdder acquireFailures = new LongAdder();
+    private final ConnectionLeakTracker leakTracker;
+    private final EndpointStatsRegistry endpointStats = new EndpointStatsRegistry();
+    private final SqlStatsTracker sqlStats;
+    private volatile DatabaseCircuitBreaker circuitBreaker;
+    private volatile boolean draining;
+    private volatile String poolName;
+
+    /** Least weight of a sample in the recent acquire latency average, for closely spaced acquisitions. */
+    private static final double RECENT_ACQUIRE_MIN_WEIGHT = 1.0 / 8;
+
+    /**
+     * Time constant of the recent acquire latency average. A sample following a longer gap
+     * weighs more, so the first acquisition after a quiet spell mostly replaces the average.
+     */
+    private static final double RECENT_ACQUIRE_TAU_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Updated without synchronization; an occasionally lost update only skews the average slightly
+    private volatile long recentAcquireNanos;
+    private volatile long lastAcquireAt;
+
+    public MonitoredDataSource(HikariDataSource hikariDataSource) {
+        this(hikariDataSource, 0.0, 0);
+    }
+
+    /**
+     * @param leakStackSampleRate fraction of checkouts (0.0 to 1.0) whose acquisition stack is captured for leak reports
+     * @param sqlCapacity         number of SQL fingerprints tracked, 0 to leave statements unwrapped
+     */
+    public MonitoredDataSource(HikariDataSource hikariDataSource, double leakStackSampleRate, int sqlCapacity) {
+        super(hikariDataSource);
+        this.hikariDataSource = hikariDataSource;
+        this.leakTracker = new ConnectionLeakTracker(leakStackSampleRate);
+        this.sqlStats = sqlCapacity > 0 ? new SqlStatsTracker(sqlCapacity) : null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (draining) {
+            throw new DatabaseUnavailableException(getPoolName(), "application is draining before shutdown");
+        }
+        DatabaseCircuitBreaker breaker = circuitBreaker;
+        boolean trial = breaker != null && breaker.acquirePermission();
+
+        // Captured before blocking in the pool so the sampled stack shows the caller, not the pool internals
+        Throwable acquisitionSite = leakTracker.captureAcquisitionSite();
+        EndpointStats endpoint = endpointStats.statsFor(EndpointAttribution.current());
+        ConnectionAcquireEvent acquireEvent = ConnectionAcquireEvent.beginIfEnabled();
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = hikariDataSource.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            if (acquireEvent != null) {
+                acquireEvent.finish(getPoolName(), endpoint.getEndpoint(), false);
+            }
+            // Timeouts are the tail we care most about, so failed waits are recorded as well
+            long waited = System.nanoTime() - start;
+            acquireHistogram.record(waited);
+            recordRecentAcquire(waited);
+            endpoint.recordAcquire(waited);
+            acquireFailures.increment();
+            if (trial) {
+                breaker.recordTrialFailure();
+            }
+            throw e;
+        }
+        if (trial) {
+            breaker.recordTrialSuccess();
+        }
+        long acquiredAt = System.nanoTime();
+        if (acquireEvent != null) {
+            acquireEvent.finish(getPoolName(), endpoint.getEndpoint(), true);
+        }
+        acquireHistogram.record(acquiredAt - start);
+        recordRecentAcquire(acquiredAt - start);
+        endpoint.recordAcquire(acquiredAt - start);
+        return new MonitoredConnection(connection, this, acquiredAt, acquisitionSite, endpoint,
+                ConnectionHoldEvent.beginIfEnabled());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // HikariCP does not support per-call credentials; keep its behavior unchanged
+        return hikariDataSource.getConnection(username, password);
+    }
+
+    /**
+     * Closes the underlying pool.
+     */
+    @Override
+    public void close() {
+        hikariDataSource.close();
+    }
+
+    private void recordRecentAcquire(long nanos) {
+        long now = System.nanoTime();
+        long last = lastAcquireAt;
+        double weight = last == 0 ? 1.0
+                : Math.max(RECENT_ACQUIRE_MIN_WEIGHT, 1.0 - Math.exp(-(now - last) / RECENT_ACQUIRE_TAU_NANOS));
+        long recent = recentAcquireNanos;
+        recentAcquireNanos = recent + (long) ((nanos - recent) * weight);
+        lastAcquireAt = now;
+    }
+
+    void connectionReleased(long holdNanos) {
+        holdHistogram.record(holdNanos);
+    }
+
+    /**
+     * @return the name this pool is reported under in JFR events and exceptions; HikariCP's pool name
+     *         until the registry sets one
+     */
+    public String getPoolName() {
+        String name = poolName;
+        return name != null ? name : hikariDataSource.getPoolName();
+    }
+
+    /**
+     * Reports the pool under the DataSource bean name rather than HikariCP's pool name.
+     * Set by the pool registry.
+     */
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public HikariDataSource getHikariDataSource() {
+        return hikariDataSource;
+    }
+
+    /**
+     * @return time spent waiting in {@code getConnection()}, including failed attempts
+     */
+    public LatencyHistogram getAcquireHistogram() {
+        return acquireHistogram;
+    }
+
+    /**
+     * @return time between a successful {@code getConnection()} and the matching {@code close()}
+     */
+    public LatencyHistogram getHoldHistogram() {
+        return holdHistogram;
+    }
+
+    /**
+     * Exponentially weighted moving average of recent acquire times, for decisions that
+     * need the current latency rather than a distribution since the last monitoring cycle.
+     * Samples are weighted by the time since the previous one, so the average cannot outlive
+     * an incident: once acquisitions are fast again, the first one after a pause brings it down.
+     *
+     * @param maxAgeNanos ignore the average if no connection was requested for this long
+     * @return the average in nanoseconds, or 0 if there were no acquisitions within {@code maxAgeNanos}
+     */
+    public long getRecentAcquireNanos(long maxAgeNanos) {
+        long last = lastAcquireAt;
+        if (last == 0 || System.nanoTime() - last > maxAgeNanos) {
+            return 0;
+        }
+        return recentAcquireNanos;
+    }
+
+    /**
+     * @return the checked-out connections of this data source
+     */
+    public ConnectionLeakTracker getLeakTracker() {
+        return leakTracker;
+    }
+
+    /**
+     * @return connection usage per endpoint, as tagged through {@link EndpointAttribution}
+     */
+    public EndpointStatsRegistry getEndpointStats() {
+        return endpointStats;
+    }
+
+    /**
+     * Puts the circuit breaker in front of {@code getConnection()}. Set by the pool registry,
+     * which creates the breaker after this wrapper has been created.
+     */
+    public void setCircuitBreaker(DatabaseCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * While draining, new checkouts are rejected so that in-flight work can finish and
+     * return its connections before the application shuts down.
+     */
+    public void setDraining(boolean draining) {
+        this.draining = draining;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * @return the circuit breaker in front of this pool, or null
+     */
+    public DatabaseCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return execution time per SQL fingerprint, or null if statement tracking is disabled
+     */
+    public SqlStatsTracker getSqlStats() {
+        return sqlStats;
+    }
+
+    public long getAcquireFailureCount() {
+        return acquireFailures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredDataSource (" + hikariDataSource + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import com.apimonitor.dbmonitor.pool.PoolSettings;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Routes {@code getConnection()} of every {@link HikariDataSource} bean through a
+ * {@link MonitoredDataSource}.
+ *
+ * The bean is replaced by a class-based proxy of the pool, so it is still a
+ * {@link HikariDataSource}: code that injects the pool by type, configures it or reads its
+ * MXBeans keeps working, and every other call reaches the pool unchanged. The wrapper is
+ * reachable through {@link java.sql.Wrapper#unwrap(Class)}.
+ */
+@Slf4j
+public class MonitoredDataSourceBeanPostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikariDataSource) {
+            log.debug("Instrumenting DataSource bean '{}' for connection acquisition monitoring", beanName);
+            if (environment == null) {
+                return instrument(hikariDataSource, new MonitoredDataSource(hikariDataSource));
+            }
+            PoolSettings settings = PoolSettings.resolve(environment, beanName);
+            return instrument(hikariDataSource,
+                    new MonitoredDataSource(hikariDataSource, settings.getLeakStackSampleRate(), settings.getSqlCapacity()));
+        }
+        return bean;
+    }
+
+    static HikariDataSource instrument(HikariDataSource pool, MonitoredDataSource monitoredDataSource) {
+        ProxyFactory proxyFactory = new ProxyFactory(pool);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new MonitoringInterceptor(monitoredDataSource));
+        return (HikariDataSource) proxyFactory.getProxy(pool.getClass().getClassLoader());
+    }
+
+    private static final class MonitoringInterceptor implements MethodInterceptor {
+
+        private final MonitoredDataSource monitoredDataSource;
+
+        MonitoringInterceptor(MonitoredDataSource monitoredDataSource) {
+            this.monitoredDataSource = monitoredDataSource;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object[] arguments = invocation.getArguments();
+            switch (invocation.getMethod().getName()) {
+                case "getConnection":
+                    if (arguments.length == 0) {
+                        return monitoredDataSource.getConnection();
+                    }
+                    break;
+                case "unwrap":
+                    if (isMonitoredType(arguments[0])) {
+                        return monitoredDataSource;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (isMonitoredType(arguments[0])) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return invocation.proceed();
+        }
+
+        /** Only types the pool itself is not, so {@code unwrap(HikariDataSource.class)} still gets the pool. */
+        private boolean isMonitoredType(Object argument) {
+            return argument instanceof Class<?> type && type.isAssignableFrom(MonitoredDataSource.class)
+                    && !type.isAssignableFrom(HikariDataSource.class);
+        }
+    }
+}
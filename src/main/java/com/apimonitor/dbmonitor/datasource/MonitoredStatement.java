@@ -0,0 +1,405 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import com.apimonitor.dbmonitor.sql.SqlStatsTracker;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Statement wrapper handed out by {@link MonitoredConnection}.
+ *
+ * Times every {@code execute*} call and records it under the SQL fingerprint in the data
+ * source's {@link SqlStatsTracker}; everything else is delegated unchanged.
+ */
+class MonitoredStatement<S extends Statement> implements Statement {
+
+    protected final S delegate;
+    private final MonitoredConnection connection;
+    private final SqlStatsTracker sqlStats;
+
+    /** SQL of the first statement added to the current batch. */
+    private String batchSql;
+
+    MonitoredStatement(S delegate, MonitoredConnection connection, SqlStatsTracker sqlStats) {
+        this.delegate = delegate;
+        this.connection = connection;
+        this.sqlStats = sqlStats;
+    }
+
+    protected final void record(String sql, long start) {
+        sqlStats.record(sql, System.nanoTime() - start);
+    }
+
+    /**
+     * @return the SQL a batch execution is recorded under
+     */
+    protected String batchSql() {
+        return batchSql;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        // Hand out the wrapper so work done through it is monitored as well
+        return connection;
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate.addBatch(sql);
+        if (batchSql == null) {
+            batchSql = sql;
+        }
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate.clearBatch();
+        batchSql = null;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeQuery(sql);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeUpdate(sql);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeUpdate(sql, autoGeneratedKeys);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeUpdate(sql, columnIndexes);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeUpdate(sql, columnNames);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(sql);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(sql, autoGeneratedKeys);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(sql, columnIndexes);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(sql, columnNames);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeLargeUpdate(sql);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeLargeUpdate(sql, columnIndexes);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeLargeUpdate(sql, columnNames);
+        } finally {
+            record(sql, start);
+        }
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeBatch();
+        } finally {
+            record(batchSql(), start);
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return delegate.executeLargeBatch();
+        } finally {
+            record(batchSql(), start);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        delegate.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return delegate.getResultSet();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return delegate.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return delegate.getGeneratedKeys();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return delegate.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return delegate.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return delegate.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return delegate.enquoteNCharLiteral(val);
+    }
+}
@@ -0,0 +1,20 @@
+package com.apimonitor.dbmonitor.events;
+
+import lombok.Value;
+
+/**
+ * A pool state transition delivered to {@link PoolEventListener}s.
+ */
+@Value
+public class PoolEvent {
+
+    PoolEventType type;
+    /** Name of the pool, or null for {@link PoolEventType#SHUTDOWN_PENDING}. */
+    String poolName;
+    /** Wall-clock time the transition was detected, in epoch milliseconds. */
+    long timestampMillis;
+    /** Current utilization of the pool, 0.0 to 1.0, or -1 if unknown. */
+    double utilization;
+    /** Consecutive probe failures of the pool when the transition was detected. */
+    int consecutiveFailures;
+}
@@ -0,0 +1,142 @@
+package com.apimonitor.dbmonitor.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers {@link PoolEvent}s to {@link PoolEventListener}s asynchronously.
+ *
+ * Every listener gets its own {@link SpscEventQueue} and daemon thread. Events are published
+ * from a single thread, the monitor scheduler, which only ever appends to the queues and
+ * never waits: a listener that falls behind by a full queue loses events rather than
+ * delaying the next tick.
+ */
+@Slf4j
+public class PoolEventBus implements SmartLifecycle {
+
+    /** Longest time an idle listener thread sleeps before it checks its queue again. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final List<Subscriber> subscribers;
+
+    private volatile boolean running;
+
+    /**
+     * @param queueCapacity events buffered per listener before further events for it are dropped
+     */
+    public PoolEventBus(List<PoolEventListener> listeners, int queueCapacity) {
+        this.subscribers = new ArrayList<>(listeners.size());
+        for (PoolEventListener listener : listeners) {
+            subscribers.add(new Subscriber(listener, new SpscEventQueue<>(queueCapacity)));
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < subscribers.size(); i++) {
+            Subscriber subscriber = subscribers.get(i);
+            Thread thread = new Thread(subscriber::runDeliveryLoop, "db-monitor-events-" + i);
+            thread.setDaemon(true);
+            subscriber.thread = thread;
+            thread.start();
+        }
+        log.debug("Pool event bus started with {} listener(s)", subscribers.size());
+    }
+
+    /**
+     * Stops delivery once every listener has received the events queued so far.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Subscriber subscriber : subscribers) {
+            Thread thread = subscriber.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the scheduler that publishes into it.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    public boolean hasListeners() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Queues the event for every listener. Must only be called from a single thread.
+     */
+    public void publish(PoolEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(event)) {
+                Thread thread = subscriber.thread;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            } else if (subscriber.dropped.getAndIncrement() == 0) {
+                log.warn("Pool event listener {} is not keeping up, dropping events until its queue of {} drains",
+                        subscriber.listener.getClass().getName(), subscriber.queue.capacity());
+            }
+        }
+    }
+
+    /**
+     * @return events dropped across all listeners because their queue was full
+     */
+    public long getDroppedEventCount() {
+        long dropped = 0;
+        for (Subscriber subscriber : subscribers) {
+            dropped += subscriber.dropped.get();
+        }
+        return dropped;
+    }
+
+    private final class Subscriber {
+
+        private final PoolEventListener listener;
+        private final SpscEventQueue<PoolEvent> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile Thread thread;
+
+        private Subscriber(PoolEventListener listener, SpscEventQueue<PoolEvent> queue) {
+            this.listener = listener;
+            this.queue = queue;
+        }
+
+        private void runDeliveryLoop() {
+            while (running || !queue.isEmpty()) {
+                PoolEvent event = queue.poll();
+                if (event == null) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                try {
+                    listener.onPoolEvent(event);
+                } catch (RuntimeException e) {
+                    log.error("Pool event listener {} failed on {}", listener.getClass().getName(), event, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.apimonitor.dbmonitor.events;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.sampler.SampleWindow;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.List;
+
+/**
+ * Turns the monitor's state into {@link PoolEvent}s by comparing it with the state seen on
+ * the previous call and publishing only what changed.
+ *
+ * Probe results are applied on probe threads, but the detector reads them from the
+ * scheduler tick, which keeps the scheduler the single producer of the event bus.
+ * Only reads in-memory state, so it is cheap enough to run on every tick.
+ */
+public class PoolEventDetector {
+
+    private final MonitoredPoolRegistry poolRegistry;
+    private final DatabaseConnectionMonitorService monitorService;
+    private final PoolEventBus eventBus;
+
+    // Only touched by the scheduler thread
+    private final boolean[] saturated;
+    private final boolean[] failing;
+    private final boolean[] thresholdCrossed;
+    private boolean shutdownPending;
+
+    public PoolEventDetector(MonitoredPoolRegistry poolRegistry, DatabaseConnectionMonitorService monitorService,
+                             PoolEventBus eventBus) {
+        this.poolRegistry = poolRegistry;
+        this.monitorService = monitorService;
+        this.eventBus = eventBus;
+        int poolCount = poolRegistry.getPools().size();
+        this.saturated = new boolean[poolCount];
+        this.failing = new boolean[poolCount];
+        this.thresholdCrossed = new boolean[poolCount];
+    }
+
+    /**
+     * Publishes the transitions since the previous call. Must only be called from one thread.
+     */
+    public void detect() {
+        List<MonitoredPool> pools = poolRegistry.getPools();
+        for (int i = 0; i < pools.size(); i++) {
+            detect(i, pools.get(i));
+        }
+
+        boolean shutdown = monitorService.isShutdownInProgress();
+        if (shutdown != shutdownPending) {
+            shutdownPending = shutdown;
+            if (shutdown) {
+                eventBus.publish(new PoolEvent(PoolEventType.SHUTDOWN_PENDING, null, System.currentTimeMillis(), -1, 0));
+            }
+        }
+    }
+
+    private void detect(int index, MonitoredPool pool) {
+        int consecutiveFailures = pool.getConsecutiveFailures();
+        double utilization = utilization(pool);
+
+        boolean nowSaturated = isSaturated(pool, utilization);
+        if (nowSaturated != saturated[index]) {
+            saturated[index] = nowSaturated;
+            publish(nowSaturated ? PoolEventType.SATURATION_ENTERED : PoolEventType.SATURATION_LEFT,
+                    pool, utilization, consecutiveFailures);
+        }
+
+        boolean nowFailing = consecutiveFailures > 0;
+        if (nowFailing != failing[index]) {
+            failing[index] = nowFailing;
+            publish(nowFailing ? PoolEventType.PROBE_FAILED : PoolEventType.PROBE_RECOVERED,
+                    pool, utilization, consecutiveFailures);
+        }
+
+        boolean nowThresholdCrossed = consecutiveFailures >= pool.getSettings().getMaxFailureThreshold();
+        if (nowThresholdCrossed != thresholdCrossed[index]) {
+            thresholdCrossed[index] = nowThresholdCrossed;
+            // Leaving the threshold is reported as PROBE_RECOVERED
+            if (nowThresholdCrossed) {
+                publish(PoolEventType.FAILURE_THRESHOLD_CROSSED, pool, utilization, consecutiveFailures);
+            }
+        }
+    }
+
+    private void publish(PoolEventType type, MonitoredPool pool, double utilization, int consecutiveFailures) {
+        eventBus.publish(new PoolEvent(type, pool.getName(), System.currentTimeMillis(), utilization, consecutiveFailures));
+    }
+
+    /**
+     * Current utilization, or the peak of the last sampled second if that is higher, so that
+     * a spike between two ticks is not missed.
+     */
+    private static boolean isSaturated(MonitoredPool pool, double utilization) {
+        double criticalPoolUtilization = pool.getSettings().getCriticalPoolUtilization();
+        if (utilization >= criticalPoolUtilization) {
+            return true;
+        }
+        return pool.getSampler() != null
+                && pool.getSampler().stats(SampleWindow.ONE_SECOND).getMaxUtilization() >= criticalPoolUtilization;
+    }
+
+    private static double utilization(MonitoredPool pool) {
+        HikariDataSource hikariDataSource = pool.getHikariDataSource();
+        HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        if (poolMXBean == null) {
+            return -1;
+        }
+        int maxPoolSize = hikariDataSource.getMaximumPoolSize();
+        return maxPoolSize > 0 ? (double) poolMXBean.getActiveConnections() / maxPoolSize : 0.0;
+    }
+}
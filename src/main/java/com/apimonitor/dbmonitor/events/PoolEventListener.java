@@ -0,0 +1,15 @@
+package com.apimonitor.dbmonitor.events;
+
+/**
+ * Receives pool state transitions. Implementations registered as beans are picked up
+ * automatically.
+ *
+ * Every listener is called on its own thread, in the order the events were detected.
+ * A slow listener only delays its own events: once its queue is full, further events
+ * for it are dropped and counted instead of blocking the monitor.
+ */
+@FunctionalInterface
+public interface PoolEventListener {
+
+    void onPoolEvent(PoolEvent event);
+}
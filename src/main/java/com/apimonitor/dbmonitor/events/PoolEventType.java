@@ -0,0 +1,26 @@
+package com.apimonitor.dbmonitor.events;
+
+/**
+ * State transitions reported to {@link PoolEventListener}s. Each is fired once per
+ * transition, not once per monitoring cycle.
+ */
+public enum PoolEventType {
+
+    /** Utilization reached {@code critical-pool-utilization}, now or within the last sampled second. */
+    SATURATION_ENTERED,
+
+    /** Utilization dropped back below {@code critical-pool-utilization}. */
+    SATURATION_LEFT,
+
+    /** The first health probe failed after a healthy period. */
+    PROBE_FAILED,
+
+    /** A health probe succeeded after one or more failures. */
+    PROBE_RECOVERED,
+
+    /** Consecutive probe failures reached {@code max-failure-threshold}; the shutdown policy applies. */
+    FAILURE_THRESHOLD_CROSSED,
+
+    /** The monitor has started draining or shutting down the application. Not tied to a single pool. */
+    SHUTDOWN_PENDING
+}
@@ -0,0 +1,115 @@
+package com.apimonitor.dbmonitor.events;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded, lock-free queue for exactly one producer thread and one consumer thread.
+ *
+ * Offering never blocks: a full queue rejects the element. Each side only writes its own
+ * index and publishes it with release semantics, and keeps a cached copy of the other
+ * side's index so that it only reads the shared one when the cache says full or empty.
+ */
+public final class SpscEventQueue<E> {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscEventQueue.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscEventQueue.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] elements;
+
+    /** Index of the next element to poll. Only written by the consumer. */
+    @SuppressWarnings("unused")
+    private volatile long head;
+
+    /** Index of the next free slot. Only written by the producer. */
+    @SuppressWarnings("unused")
+    private volatile long tail;
+
+    // Producer-local copy of head
+    private long cachedHead;
+
+    // Consumer-local copy of tail
+    private long cachedTail;
+
+    /**
+     * @param minimumCapacity minimum number of queued elements; rounded up to a power of two
+     */
+    public SpscEventQueue(int minimumCapacity) {
+        if (minimumCapacity < 2) {
+            throw new IllegalArgumentException("Queue capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(minimumCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Must only be called from the producer thread.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(E element) {
+        long index = (long) TAIL.getOpaque(this);
+        if (index - cachedHead >= capacity) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (index - cachedHead >= capacity) {
+                return false;
+            }
+        }
+        elements[(int) (index & mask)] = element;
+        // Publishes the element together with the new tail
+        TAIL.setRelease(this, index + 1);
+        return true;
+    }
+
+    /**
+     * Must only be called from the consumer thread.
+     *
+     * @return the oldest element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long index = (long) HEAD.getOpaque(this);
+        if (index >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            if (index >= cachedTail) {
+                return null;
+            }
+        }
+        int slot = (int) (index & mask);
+        E element = (E) elements[slot];
+        elements[slot] = null;
+        // Hands the slot back to the producer only after it has been cleared
+        HEAD.setRelease(this, index + 1);
+        return element;
+    }
+
+    /**
+     * @return the number of queued elements; approximate while both ends are active
+     */
+    public int size() {
+        long head = (long) HEAD.getAcquire(this);
+        long tail = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(capacity, tail - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
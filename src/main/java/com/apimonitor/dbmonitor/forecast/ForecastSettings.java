@@ -0,0 +1,33 @@
+package com.apimonitor.dbmonitor.forecast;
+
+import lombok.Value;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the saturation forecaster, bound from {@code db.monitor.forecast.*}.
+ */
+@Value
+public class ForecastSettings {
+
+    boolean enabled;
+    /** Raise an early warning when saturation is expected within this many milliseconds. */
+    long horizonMillis;
+    /** Samples are averaged over steps of this length before they are smoothed. */
+    long stepMillis;
+    /** Level smoothing factor of the Holt model, 0.0 to 1.0. */
+    double alpha;
+    /** Trend smoothing factor of the Holt model, 0.0 to 1.0. */
+    double beta;
+    /** Smoothed utilization below which no warning is raised, however steep the trend. */
+    double minUtilization;
+
+    public static ForecastSettings resolve(Environment environment) {
+        return new ForecastSettings(
+                environment.getProperty("db.monitor.forecast.enabled", Boolean.class, true),
+                environment.getProperty("db.monitor.forecast.horizon", Long.class, 30000L),
+                environment.getProperty("db.monitor.forecast.step", Long.class, 250L),
+                environment.getProperty("db.monitor.forecast.alpha", Double.class, 0.5),
+                environment.getProperty("db.monitor.forecast.beta", Double.class, 0.3),
+                environment.getProperty("db.monitor.forecast.min-utilization", Double.class, 0.5));
+    }
+}
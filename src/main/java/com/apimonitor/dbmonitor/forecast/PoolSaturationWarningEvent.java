@@ -0,0 +1,35 @@
+package com.apimonitor.dbmonitor.forecast;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a pool's saturation forecast enters or leaves the early-warning horizon.
+ */
+public class PoolSaturationWarningEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String poolName;
+    private final SaturationForecast forecast;
+
+    public PoolSaturationWarningEvent(Object source, String poolName, SaturationForecast forecast) {
+        super(source);
+        this.poolName = poolName;
+        this.forecast = forecast;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public SaturationForecast getForecast() {
+        return forecast;
+    }
+
+    /**
+     * @return true if saturation is now expected within the horizon, false if the warning cleared
+     */
+    public boolean isWarning() {
+        return forecast.isWarning();
+    }
+}
@@ -0,0 +1,27 @@
+package com.apimonitor.dbmonitor.forecast;
+
+import lombok.Value;
+
+/**
+ * Smoothed utilization and waiter trends of a pool and the resulting saturation estimate.
+ */
+@Value
+public class SaturationForecast {
+
+    /** Smoothed utilization, 0.0 to 1.0. */
+    double utilization;
+    /** Utilization change per second; positive while the pool fills up. */
+    double utilizationTrendPerSecond;
+    /** Smoothed number of threads waiting for a connection. */
+    double threadsAwaiting;
+    /** Change of the waiting thread count per second. */
+    double threadsAwaitingTrendPerSecond;
+    /** Estimated seconds until saturation, 0 if already saturated, infinite if not trending towards it. */
+    double secondsToSaturation;
+    /** Whether the estimate is inside the early-warning horizon. */
+    boolean warning;
+
+    public boolean isSaturating() {
+        return !Double.isInfinite(secondsToSaturation);
+    }
+}
@@ -0,0 +1,107 @@
+package com.apimonitor.dbmonitor.forecast;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forecasts pool saturation with Holt's linear trend method (double exponential smoothing)
+ * over utilization and the number of waiting threads.
+ *
+ * Raw samples arrive every few milliseconds and are averaged over fixed steps first, which
+ * keeps the model stable and its cost negligible. Updates come only from the sampler thread;
+ * the latest forecast is published through a volatile field once per step.
+ */
+public class SaturationForecaster {
+
+    /** Smoothed waiter count at which the pool counts as saturated already. */
+    private static final double SATURATED_WAITERS = 0.5;
+
+    private final long stepNanos;
+    private final double alpha;
+    private final double beta;
+    private final double horizonSeconds;
+    private final double minUtilization;
+
+    // Sampler thread only
+    private long stepStart;
+    private double utilizationSum;
+    private double waitersSum;
+    private int stepSamples;
+    private boolean initialized;
+    private double utilizationLevel;
+    private double utilizationTrend;
+    private double waitersLevel;
+    private double waitersTrend;
+    private boolean warning;
+
+    private volatile SaturationForecast latest;
+
+    public SaturationForecaster(ForecastSettings settings) {
+        this.stepNanos = TimeUnit.MILLISECONDS.toNanos(settings.getStepMillis());
+        this.alpha = settings.getAlpha();
+        this.beta = settings.getBeta();
+        this.horizonSeconds = settings.getHorizonMillis() / 1000.0;
+        this.minUtilization = settings.getMinUtilization();
+    }
+
+    /**
+     * Adds a raw pool sample. Must only be called from the sampler thread.
+     */
+    public void update(long nanoTime, int activeConnections, int maxPoolSize, int threadsAwaiting) {
+        if (stepSamples == 0) {
+            stepStart = nanoTime;
+        }
+        utilizationSum += maxPoolSize > 0 ? (double) activeConnections / maxPoolSize : 0.0;
+        waitersSum += threadsAwaiting;
+        stepSamples++;
+
+        if (nanoTime - stepStart >= stepNanos) {
+            smooth(utilizationSum / stepSamples, waitersSum / stepSamples);
+            utilizationSum = 0;
+            waitersSum = 0;
+            stepSamples = 0;
+        }
+    }
+
+    /**
+     * @return the forecast of the last completed step, or null before the first step completed
+     */
+    public SaturationForecast getLatest() {
+        return latest;
+    }
+
+    /**
+     * Feeds one step average into the model. Visible for testing.
+     */
+    void smooth(double utilization, double waiters) {
+        if (!initialized) {
+            utilizationLevel = utilization;
+            waitersLevel = waiters;
+            initialized = true;
+        } else {
+            double previousUtilization = utilizationLevel;
+            utilizationLevel = alpha * utilization + (1 - alpha) * (utilizationLevel + utilizationTrend);
+            utilizationTrend = beta * (utilizationLevel - previousUtilization) + (1 - beta) * utilizationTrend;
+
+            double previousWaiters = waitersLevel;
+            waitersLevel = alpha * waiters + (1 - alpha) * (waitersLevel + waitersTrend);
+            waitersTrend = beta * (waitersLevel - previousWaiters) + (1 - beta) * waitersTrend;
+        }
+
+        double stepSeconds = stepNanos / 1e9;
+        double secondsToSaturation;
+        if (waitersLevel >= SATURATED_WAITERS || utilizationLevel >= 1.0) {
+            secondsToSaturation = 0.0;
+        } else if (utilizationTrend > 0) {
+            secondsToSaturation = (1.0 - utilizationLevel) / utilizationTrend * stepSeconds;
+        } else {
+            secondsToSaturation = Double.POSITIVE_INFINITY;
+        }
+
+        // Leave the warning state only once the estimate is comfortably outside the horizon
+        boolean rising = secondsToSaturation < horizonSeconds && utilizationLevel >= minUtilization;
+        warning = warning ? secondsToSaturation < horizonSeconds * 1.5 : rising;
+
+        latest = new SaturationForecast(utilizationLevel, utilizationTrend / stepSeconds,
+                Math.max(0, waitersLevel), waitersTrend / stepSeconds, secondsToSaturation, warning);
+    }
+}
@@ -0,0 +1,58 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A caller blocking in {@code getConnection()}. The event duration is the wait; its stack
+ * trace shows who waited.
+ */
+@Name("com.apimonitor.dbmonitor.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Database", "Connection Pool"})
+@Description("Time a thread waited in getConnection() of a monitored pool")
+@Threshold("1 ms")
+public class ConnectionAcquireEvent extends jdk.jfr.Event {
+
+    private static final EventType TYPE = EventType.getEventType(ConnectionAcquireEvent.class);
+
+    @Label("Pool")
+    String poolName;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Acquired")
+    @Description("False if the wait ended with an exception, e.g. a connection timeout")
+    boolean success;
+
+    /**
+     * @return a started event, or null while no recording has this event enabled, so that
+     *         nothing is allocated per checkout when JFR is off
+     */
+    public static ConnectionAcquireEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the wait and commits the event if a recording wants it.
+     */
+    public void finish(String poolName, String endpoint, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.poolName = poolName;
+            this.endpoint = endpoint;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A connection checked out of a monitored pool, from {@code getConnection()} returning
+ * until {@code close()}. Committed on the releasing thread.
+ */
+@Name("com.apimonitor.dbmonitor.ConnectionHold")
+@Label("Connection Hold")
+@Category({"Database", "Connection Pool"})
+@Description("Time a connection was held between getConnection() and close()")
+@Threshold("50 ms")
+@StackTrace(false)
+public class ConnectionHoldEvent extends jdk.jfr.Event {
+
+    private static final EventType TYPE = EventType.getEventType(ConnectionHoldEvent.class);
+
+    @Label("Pool")
+    String poolName;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    /**
+     * @return a started event, or null while no recording has this event enabled, so that
+     *         nothing is allocated per checkout when JFR is off
+     */
+    public static ConnectionHoldEvent beginIfEnabled() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        ConnectionHoldEvent event = new ConnectionHoldEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the hold and commits the event if it reached the threshold.
+     */
+    public void finish(String poolName, String endpoint) {
+        end();
+        if (shouldCommit()) {
+            this.poolName = poolName;
+            this.endpoint = endpoint;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One health probe of a monitored pool and its outcome.
+ */
+@Name("com.apimonitor.dbmonitor.HealthProbe")
+@Label("Health Probe")
+@Category({"Database", "Connection Pool"})
+@Description("Health check executed by the database connection monitor")
+@StackTrace(false)
+public class HealthProbeEvent extends jdk.jfr.Event {
+
+    @Label("Pool")
+    String poolName;
+
+    @Label("Successful")
+    boolean success;
+
+    @Label("Error")
+    @Description("Message of the exception the probe failed with, if any")
+    String error;
+
+    /**
+     * Ends the probe and commits the event if a recording wants it.
+     *
+     * @param error message of the exception the probe failed with, or null
+     */
+    public void finish(String poolName, boolean success, String error) {
+        end();
+        if (shouldCommit()) {
+            this.poolName = poolName;
+            this.success = success;
+            this.error = error;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jdk.jfr.FlightRecorder;
+
+import java.util.List;
+
+/**
+ * Emits a {@link PoolSnapshotEvent} per pool at the period configured in the recording.
+ *
+ * Registered as a JFR periodic hook, so the pools are only read while a recording with the
+ * event enabled is running; there is no thread or timer of its own.
+ */
+public class PoolSnapshotEmitter implements Runnable {
+
+    private final List<MonitoredPool> pools;
+    private boolean registered;
+
+    public PoolSnapshotEmitter(List<MonitoredPool> pools) {
+        this.pools = pools;
+    }
+
+    public synchronized void register() {
+        if (!registered) {
+            FlightRecorder.addPeriodicEvent(PoolSnapshotEvent.class, this);
+            registered = true;
+        }
+    }
+
+    public synchronized void unregister() {
+        if (registered) {
+            FlightRecorder.removePeriodicEvent(this);
+            registered = false;
+        }
+    }
+
+    @Override
+    public void run() {
+        for (MonitoredPool pool : pools) {
+            HikariDataSource hikariDataSource = pool.getHikariDataSource();
+            HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+            if (poolMXBean == null) {
+                continue;
+            }
+            PoolSnapshotEvent event = new PoolSnapshotEvent();
+            event.poolName = pool.getName();
+            event.activeConnections = poolMXBean.getActiveConnections();
+            event.idleConnections = poolMXBean.getIdleConnections();
+            event.totalConnections = poolMXBean.getTotalConnections();
+            event.threadsAwaitingConnection = poolMXBean.getThreadsAwaitingConnection();
+            event.maximumPoolSize = hikariDataSource.getMaximumPoolSize();
+            event.consecutiveFailures = pool.getConsecutiveFailures();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic state of a monitored HikariCP pool, emitted by {@link PoolSnapshotEmitter}.
+ */
+@Name("com.apimonitor.dbmonitor.PoolSnapshot")
+@Label("Connection Pool Snapshot")
+@Category({"Database", "Connection Pool"})
+@Description("Connection counts of a monitored pool, read from HikariPoolMXBean")
+@Period("1 s")
+@StackTrace(false)
+public class PoolSnapshotEvent extends jdk.jfr.Event {
+
+    @Label("Pool")
+    String poolName;
+
+    @Label("Active Connections")
+    int activeConnections;
+
+    @Label("Idle Connections")
+    int idleConnections;
+
+    @Label("Total Connections")
+    int totalConnections;
+
+    @Label("Threads Awaiting Connection")
+    int threadsAwaitingConnection;
+
+    @Label("Maximum Pool Size")
+    int maximumPoolSize;
+
+    @Label("Consecutive Probe Failures")
+    int consecutiveFailures;
+}
@@ -0,0 +1,22 @@
+package com.apimonitor.dbmonitor.jfr;
+
+/**
+ * Outcomes recorded by {@link ShutdownDecisionEvent}.
+ */
+public enum ShutdownDecision {
+
+    /** The application is taken out of service so in-flight work can finish before the context closes. */
+    DRAIN,
+
+    /** A drain reached its deadline with connections still in use; the context is closed anyway. */
+    DRAIN_TIMED_OUT,
+
+    /** The JVM is exited right away, no connections being in use. */
+    EXIT,
+
+    /** Connections are in use; the shutdown is reconsidered on the next cycle. */
+    DEFERRED,
+
+    /** The failure threshold was reached, but the pool's shutdown policy only logs. */
+    LOG_ONLY
+}
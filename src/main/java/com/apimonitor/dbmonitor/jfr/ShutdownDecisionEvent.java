@@ -0,0 +1,38 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A decision of the monitor about shutting down the application.
+ */
+@Name("com.apimonitor.dbmonitor.ShutdownDecision")
+@Label("Shutdown Decision")
+@Category({"Database", "Connection Pool"})
+@Description("Shutdown considered by the database connection monitor and what it decided")
+@StackTrace(false)
+public class ShutdownDecisionEvent extends jdk.jfr.Event {
+
+    @Label("Decision")
+    String decision;
+
+    @Label("Reason")
+    String reason;
+
+    @Label("Active Connections")
+    @Description("Active connections across all monitored pools, -1 if unknown")
+    int activeConnections;
+
+    public static void emit(ShutdownDecision decision, String reason, int activeConnections) {
+        ShutdownDecisionEvent event = new ShutdownDecisionEvent();
+        if (event.shouldCommit()) {
+            event.decision = decision.name();
+            event.reason = reason;
+            event.activeConnections = activeConnections;
+            event.commit();
+        }
+    }
+}
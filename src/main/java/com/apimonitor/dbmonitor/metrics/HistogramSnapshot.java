@@ -0,0 +1,93 @@
+package com.apimonitor.dbmonitor.metrics;
+
+/**
+ * Immutable copy of a {@link LatencyHistogram} at a point in time.
+ *
+ * Histograms are cumulative; {@link #minus(HistogramSnapshot)} turns two snapshots
+ * into the distribution of the values recorded between them.
+ */
+public final class HistogramSnapshot {
+
+    private final int precisionBits;
+    private final long[] counts;
+    private final long totalCount;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(int precisionBits, long[] counts, long totalCount, long sum, long max) {
+        this.precisionBits = precisionBits;
+        this.counts = counts;
+        this.totalCount = totalCount;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the largest recorded value in nanoseconds; for interval snapshots this is the
+     *         upper bound of the highest non-empty bucket
+     */
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given quantile, in nanoseconds.
+     *
+     * @param quantile quantile between 0.0 and 1.0, e.g. 0.99 for p99
+     * @return the upper bound of the bucket containing the quantile, never above {@link #getMax()}
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i, precisionBits), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the distribution of values recorded after {@code earlier} was taken.
+     *
+     * @param earlier an older snapshot of the same histogram, or null for the full history
+     */
+    public HistogramSnapshot minus(HistogramSnapshot earlier) {
+        if (earlier == null) {
+            return this;
+        }
+        if (earlier.counts.length != counts.length || earlier.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Snapshots belong to histograms with different layouts");
+        }
+
+        long[] delta = new long[counts.length];
+        long deltaCount = 0;
+        int highest = -1;
+        for (int i = 0; i < counts.length; i++) {
+            delta[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            deltaCount += delta[i];
+            if (delta[i] > 0) {
+                highest = i;
+            }
+        }
+
+        long deltaMax = highest < 0 ? 0 : Math.min(LatencyHistogram.bucketUpperBound(highest, precisionBits), max);
+        return new HistogramSnapshot(precisionBits, delta, deltaCount, Math.max(0, sum - earlier.sum), deltaMax);
+    }
+}
@@ -0,0 +1,159 @@
+package com.apimonitor.dbmonitor.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, constant-memory latency histogram with log-linear buckets.
+ *
+ * Every power of two is split into {@code 2^precisionBits} linear sub-buckets, which
+ * bounds the relative error of any reported percentile to {@code 1 / 2^precisionBits}.
+ * Values above {@code 2^maxExponent} nanoseconds are clamped into the last bucket.
+ * Recording is a bucket index computation and one atomic increment, with no allocation.
+ */
+public final class LatencyHistogram {
+
+    /** Default precision: 8 sub-buckets per power of two, at most 12.5% relative error. */
+    public static final int DEFAULT_PRECISION_BITS = 3;
+
+    /** Default largest trackable value: 2^40 ns, roughly 18 minutes. */
+    public static final int DEFAULT_MAX_EXPONENT = 40;
+
+    private final int precisionBits;
+    private final long maxTrackableValue;
+    private final AtomicLongArray buckets;
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION_BITS, DEFAULT_MAX_EXPONENT);
+    }
+
+    /**
+     * @param precisionBits number of bits of linear sub-buckets per power of two (1 to 8)
+     * @param maxExponent   largest tracked power of two, in nanoseconds
+     */
+    public LatencyHistogram(int precisionBits, int maxExponent) {
+        if (precisionBits < 1 || precisionBits > 8) {
+            throw new IllegalArgumentException("precisionBits must be between 1 and 8");
+        }
+        if (maxExponent <= precisionBits || maxExponent > 62) {
+            throw new IllegalArgumentException("maxExponent must be between precisionBits + 1 and 62");
+        }
+        this.precisionBits = precisionBits;
+        this.maxTrackableValue = (1L << (maxExponent + 1)) - 1;
+        this.buckets = new AtomicLongArray(bucketIndex(maxTrackableValue, precisionBits) + 1);
+    }
+
+    /**
+     * Records a single latency value.
+     *
+     * @param nanos latency in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, maxTrackableValue);
+        buckets.getAndIncrement(bucketIndex(value, precisionBits));
+        sum.add(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Takes a point-in-time copy of the histogram. Concurrent recordings may or may not be
+     * included, but each bucket is read atomically.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[buckets.length()];
+        long totalCount = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            totalCount += counts[i];
+        }
+        return new HistogramSnapshot(precisionBits, counts, totalCount, sum.sum(), max.get());
+    }
+
+    /**
+     * @return the number of recorded values; sums the buckets without allocating
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of all recorded values in nanoseconds
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value at the given quantile without taking a snapshot, for callers that
+     * poll frequently and must not allocate. Concurrent recordings may shift the result by
+     * one bucket.
+     *
+     * @param quantile quantile between 0.0 and 1.0
+     */
+    public long valueAtQuantile(double quantile) {
+        long totalCount = count();
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        long currentMax = max.get();
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i, precisionBits), currentMax);
+            }
+        }
+        return currentMax;
+    }
+
+    public int bucketCount() {
+        return buckets.length();
+    }
+
+    static int bucketIndex(long value, int precisionBits) {
+        long subBucketCount = 1L << precisionBits;
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - precisionBits;
+        return (int) ((long) shift << precisionBits) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the largest value that maps to the given bucket
+     */
+    static long bucketUpperBound(int index, int precisionBits) {
+        int subBucketCount = 1 << precisionBits;
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        long subBucket = index - ((long) shift << precisionBits);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Convenience conversion for log output.
+     */
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.apimonitor.dbmonitor.metrics;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * The values a {@link LatencyHistogram} recorded recently, for reports that must show the
+ * current state rather than everything since startup.
+ *
+ * The histogram itself stays cumulative. This keeps a snapshot of it from about one period
+ * ago and rotates it lazily on read, so a read covers between one and two periods - or
+ * everything since the previous read, when reads are further apart than that.
+ */
+public final class RecentHistogram {
+
+    private final LatencyHistogram histogram;
+    private final long periodNanos;
+
+    // Guarded by this; reads are infrequent (endpoint requests)
+    private HistogramSnapshot windowStart;
+    private long windowStartNanos;
+    private HistogramSnapshot nextWindowStart;
+    private long nextWindowStartNanos;
+
+    public RecentHistogram(LatencyHistogram histogram, Duration period) {
+        this.histogram = histogram;
+        this.periodNanos = period.toNanos();
+        this.windowStart = histogram.snapshot();
+        this.windowStartNanos = System.nanoTime();
+        this.nextWindowStart = windowStart;
+        this.nextWindowStartNanos = windowStartNanos;
+    }
+
+    public synchronized Window read() {
+        long now = System.nanoTime();
+        HistogramSnapshot current = histogram.snapshot();
+        if (now - nextWindowStartNanos >= periodNanos) {
+            windowStart = nextWindowStart;
+            windowStartNanos = nextWindowStartNanos;
+            nextWindowStart = current;
+            nextWindowStartNanos = now;
+        }
+        return new Window(current.minus(windowStart), now - windowStartNanos);
+    }
+
+    /**
+     * Values recorded within the last {@link #getNanos()} nanoseconds.
+     */
+    @Value
+    public static class Window {
+        HistogramSnapshot distribution;
+        long nanos;
+    }
+}
@@ -0,0 +1,185 @@
+package com.apimonitor.dbmonitor.pool;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseCircuitBreaker;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.apimonitor.dbmonitor.probe.HealthProbe;
+import com.apimonitor.dbmonitor.recorder.PoolRecorder;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single monitored DataSource bean together with its thresholds and failure state.
+ *
+ * Probe results are applied from probe threads while the scheduler reads the state,
+ * so everything mutable here is atomic.
+ */
+public class MonitoredPool {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final DataSource dataSource;
+
+    /** The HikariCP pool behind the bean, or null for other DataSource implementations. */
+    @Getter
+    private final HikariDataSource hikariDataSource;
+
+    /** The instrumentation wrapper, or null if instrumentation is disabled. */
+    @Getter
+    private final MonitoredDataSource monitoredDataSource;
+
+    /** The high-frequency sampler, or null if sampling is disabled or the pool is not HikariCP. */
+    @Getter
+    private final PoolSampler sampler;
+
+    @Getter
+    private final PoolSettings settings;
+
+    @Getter
+    private final HealthProbe healthProbe;
+
+    /** Fails connection requests fast during a confirmed outage, or null if disabled. */
+    @Getter
+    private final DatabaseCircuitBreaker circuitBreaker;
+
+    /** Writes this pool's records into the flight recording, or null if recording is disabled. */
+    @Getter
+    private final PoolRecorder recorder;
+
+    /** Duration of every completed health probe, successful or not. */
+    @Getter
+    private final LatencyHistogram probeLatency = new LatencyHistogram();
+
+    private volatile long lastProbeLatencyNanos = -1;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long probeStartedAt;
+
+    // Only touched by the monitoring thread
+    private HistogramSnapshot lastAcquireSnapshot;
+    private HistogramSnapshot lastHoldSnapshot;
+    private boolean criticalUtilization;
+
+    public MonitoredPool(String name, DataSource dataSource, HikariDataSource hikariDataSource,
+                         MonitoredDataSource monitoredDataSource, PoolSampler sampler, PoolSettings settings,
+                         HealthProbe healthProbe, DatabaseCircuitBreaker circuitBreaker, PoolRecorder recorder) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.hikariDataSource = hikariDataSource;
+        this.monitoredDataSource = monitoredDataSource;
+        this.sampler = sampler;
+        this.settings = settings;
+        this.healthProbe = healthProbe;
+        this.circuitBreaker = circuitBreaker;
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return false while the pool's circuit breaker is open or half-open
+     */
+    public boolean isAvailable() {
+        return circuitBreaker == null || circuitBreaker.isAvailable();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * @return the number of consecutive failures including this one
+     */
+    public int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * @return the number of consecutive failures before this success
+     */
+    public int recordSuccess() {
+        return consecutiveFailures.getAndSet(0);
+    }
+
+    /**
+     * Claims the pool for a health probe.
+     *
+     * @return false if the previous probe of this pool has not completed yet
+     */
+    public boolean tryStartProbe() {
+        if (!probeInFlight.compareAndSet(false, true)) {
+            return false;
+        }
+        probeStartedAt = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * @return how long the probe in flight has been running, in nanoseconds
+     */
+    public long getProbeRunningNanos() {
+        return System.nanoTime() - probeStartedAt;
+    }
+
+    public void finishProbe() {
+        probeInFlight.set(false);
+    }
+
+    public void recordProbeLatency(long nanos) {
+        probeLatency.record(nanos);
+        lastProbeLatencyNanos = nanos;
+    }
+
+    /**
+     * @return the duration of the most recently completed probe in nanoseconds, or -1 if none completed yet
+     */
+    public long getLastProbeLatencyNanos() {
+        return lastProbeLatencyNanos;
+    }
+
+    /**
+     * Records whether the pool is at or above its critical utilization.
+     * Must only be called from the monitoring thread.
+     *
+     * @return true if this differs from the state recorded by the previous call
+     */
+    public boolean updateCriticalUtilization(boolean critical) {
+        boolean changed = critical != criticalUtilization;
+        criticalUtilization = critical;
+        return changed;
+    }
+
+    /**
+     * Returns the acquire latency recorded since the previous call.
+     * Must only be called from the monitoring thread.
+     */
+    public HistogramSnapshot acquireSnapshotSinceLastCheck() {
+        HistogramSnapshot current = monitoredDataSource.getAcquireHistogram().snapshot();
+        HistogramSnapshot interval = current.minus(lastAcquireSnapshot);
+        lastAcquireSnapshot = current;
+        return interval;
+    }
+
+    /**
+     * Returns the hold times recorded since the previous call.
+     * Must only be called from the monitoring thread.
+     */
+    public HistogramSnapshot holdSnapshotSinceLastCheck() {
+        HistogramSnapshot current = monitoredDataSource.getHoldHistogram().snapshot();
+        HistogramSnapshot interval = current.minus(lastHoldSnapshot);
+        lastHoldSnapshot = current;
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredPool '" + name + "'";
+    }
+}
@@ -0,0 +1,235 @@
+package com.apimonitor.dbmonitor.pool;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseCircuitBreaker;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.forecast.ForecastSettings;
+import com.apimonitor.dbmonitor.forecast.SaturationForecaster;
+import com.apimonitor.dbmonitor.jfr.PoolSnapshotEmitter;
+import com.apimonitor.dbmonitor.probe.DedicatedConnectionProbe;
+import com.apimonitor.dbmonitor.probe.HealthProbe;
+import com.apimonitor.dbmonitor.probe.PooledHealthProbe;
+import com.apimonitor.dbmonitor.probe.ProbeExecutors;
+import com.apimonitor.dbmonitor.probe.ProbeMode;
+import com.apimonitor.dbmonitor.probe.ProbeValidation;
+import com.apimonitor.dbmonitor.recorder.FlightRecorder;
+import com.apimonitor.dbmonitor.recorder.FlightRecorderSettings;
+import com.apimonitor.dbmonitor.recorder.PoolRecorder;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds one {@link MonitoredPool} per DataSource bean in the application context
+ * and manages the lifecycle of their samplers, health probes, the probe executor and the
+ * JFR pool snapshots.
+ */
+@Slf4j
+public class MonitoredPoolRegistry implements SmartLifecycle, DisposableBean {
+
+    private final ExecutorService probeExecutor = ProbeExecutors.newProbeExecutor();
+    private final List<MonitoredPool> pools;
+    private final FlightRecorder flightRecorder;
+    private final PoolSnapshotEmitter snapshotEmitter;
+    private volatile boolean running;
+
+    /**
+     * @param dataSources      DataSource beans by bean name
+     * @param environment      source of the per-pool and forecast settings
+     * @param samplingInterval time between two pool samples, or null to disable sampling
+     * @param samplingHistory  sample history retained per pool
+     */
+    public MonitoredPoolRegistry(Map<String, DataSource> dataSources, Environment environment,
+                                 Duration samplingInterval, Duration samplingHistory) {
+        List<MonitoredPool> monitoredPools = new ArrayList<>();
+        Set<HikariDataSource> seenPools = Collections.newSetFromMap(new IdentityHashMap<>());
+        ForecastSettings forecastSettings = ForecastSettings.resolve(environment);
+        this.flightRecorder = createFlightRecorder(FlightRecorderSettings.resolve(environment));
+
+        dataSources.forEach((name, dataSource) -> {
+            PoolSettings settings = PoolSettings.resolve(environment, name);
+            if (!settings.isEnabled()) {
+                log.info("Database monitoring disabled for DataSource '{}'", name);
+                return;
+            }
+
+            // An instrumented bean is a proxy of the pool; probes and pool state use the pool behind it
+            MonitoredDataSource monitoredDataSource = unwrapMonitored(dataSource);
+            HikariDataSource hikariDataSource = monitoredDataSource != null ? monitoredDataSource.getHikariDataSource()
+                    : DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+            if (hikariDataSource != null && !seenPools.add(hikariDataSource)) {
+                // Another bean (e.g. a lazy proxy) already exposes the same pool
+                log.debug("Skipping DataSource '{}': its pool is already monitored", name);
+                return;
+            }
+
+            PoolRecorder recorder = flightRecorder != null ? flightRecorder.forPool(name) : null;
+            PoolSampler sampler = hikariDataSource != null && samplingInterval != null
+                    ? new PoolSampler(name, hikariDataSource, samplingInterval, samplingHistory,
+                            forecastSettings.isEnabled() ? new SaturationForecaster(forecastSettings) : null, recorder)
+                    : null;
+
+            HealthProbe healthProbe = createHealthProbe(name, dataSource, hikariDataSource, settings);
+
+            DatabaseCircuitBreaker circuitBreaker = settings.getCircuitBreakerFailureThreshold() > 0
+                    ? new DatabaseCircuitBreaker(name, settings.getCircuitBreakerFailureThreshold(),
+                            Duration.ofMillis(settings.getCircuitBreakerOpenDurationMillis()))
+                    : null;
+            if (circuitBreaker != null && monitoredDataSource != null) {
+                monitoredDataSource.setCircuitBreaker(circuitBreaker);
+            }
+            if (monitoredDataSource != null) {
+                monitoredDataSource.setPoolName(name);
+            }
+
+            monitoredPools.add(new MonitoredPool(name, dataSource, hikariDataSource, monitoredDataSource, sampler, settings,
+                    healthProbe, circuitBreaker, recorder));
+            log.info("Monitoring DataSource '{}' - Failure threshold: {}, Critical utilization: {}%, Shutdown policy: {}, Probe: {}",
+                    name, settings.getMaxFailureThreshold(),
+                    String.format("%.1f", settings.getCriticalPoolUtilization() * 100), settings.getShutdownPolicy(),
+                    healthProbe.getClass().getSimpleName());
+        });
+
+        this.pools = List.copyOf(monitoredPools);
+        this.snapshotEmitter = new PoolSnapshotEmitter(pools);
+    }
+
+    private static MonitoredDataSource unwrapMonitored(DataSource dataSource) {
+        MonitoredDataSource monitoredDataSource = DataSourceUnwrapper.unwrap(dataSource, MonitoredDataSource.class);
+        if (monitoredDataSource != null) {
+            return monitoredDataSource;
+        }
+        // DataSourceUnwrapper only asks Wrapper.unwrap() for interfaces
+        try {
+            return dataSource.isWrapperFor(MonitoredDataSource.class) ? dataSource.unwrap(MonitoredDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static FlightRecorder createFlightRecorder(FlightRecorderSettings settings) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        try {
+            return FlightRecorder.create(Path.of(settings.getFile()), settings.getCapacity(),
+                    TimeUnit.MILLISECONDS.toNanos(settings.getSampleIntervalMillis()));
+        } catch (IOException | RuntimeException e) {
+            // Telemetry must never keep the application from starting
+            log.warn("Cannot create flight recording {}, recording disabled: {}", settings.getFile(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Probes the raw pool, bypassing the instrumentation wrapper so health checks stay out of
+     * the application's acquisition histograms, or uses a dedicated connection outside the pool.
+     */
+    private HealthProbe createHealthProbe(String name, DataSource dataSource, HikariDataSource hikariDataSource,
+                                          PoolSettings settings) {
+        String healthCheckQuery = settings.getHealthCheckQuery();
+        int timeoutMillis = settings.getProbeTimeoutMillis();
+
+        if (settings.getProbeMode() == ProbeMode.DEDICATED) {
+            DataSource connectionFactory = hikariDataSource != null ? DedicatedConnectionProbe.unpooledDataSource(hikariDataSource) : null;
+            if (connectionFactory != null) {
+                String query = settings.getProbeValidation() == ProbeValidation.QUERY ? healthCheckQuery : null;
+                return new DedicatedConnectionProbe(name, connectionFactory, query, timeoutMillis, probeExecutor);
+            }
+            log.warn("Cannot create a dedicated probe connection for DataSource '{}', falling back to pooled probes", name);
+        }
+
+        DataSource probeDataSource = hikariDataSource != null ? hikariDataSource : dataSource;
+        return new PooledHealthProbe(probeDataSource, healthCheckQuery, Math.max(1, (timeoutMillis + 999) / 1000));
+    }
+
+    /**
+     * @return the executor health probes run on
+     */
+    public ExecutorService getProbeExecutor() {
+        return probeExecutor;
+    }
+
+    /**
+     * @return the flight recorder shared by all pools, or null if recording is disabled
+     */
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    public List<MonitoredPool> getPools() {
+        return pools;
+    }
+
+    /**
+     * @return the pool monitoring the DataSource bean with the given name, or null
+     */
+    public MonitoredPool getPool(String name) {
+        for (MonitoredPool pool : pools) {
+            if (pool.getName().equals(name)) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void start() {
+        for (MonitoredPool pool : pools) {
+            if (pool.getSampler() != null) {
+                pool.getSampler().start();
+            }
+        }
+        snapshotEmitter.register();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        snapshotEmitter.unregister();
+        for (MonitoredPool pool : pools) {
+            if (pool.getSampler() != null) {
+                pool.getSampler().stop();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void destroy() {
+        probeExecutor.shutdownNow();
+        for (MonitoredPool pool : pools) {
+            pool.getHealthProbe().close();
+        }
+        if (flightRecorder != null) {
+            try {
+                flightRecorder.close();
+            } catch (IOException e) {
+                log.debug("Error closing flight recording: {}", e.getMessage());
+            }
+        }
+    }
+}
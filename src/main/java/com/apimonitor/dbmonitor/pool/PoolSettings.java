@@ -0,0 +1,111 @@
+package com.apimonitor.dbmonitor.pool;
+
+import com.apimonitor.dbmonitor.probe.ProbeMode;
+import com.apimonitor.dbmonitor.probe.ProbeValidation;
+import lombok.Value;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monitoring thresholds of a single pool.
+ *
+ * Every setting can be overridden per DataSource bean under
+ * {@code db.monitor.pools.<bean-name>.*} and otherwise falls back to the
+ * global {@code db.monitor.*} value.
+ */
+@Value
+public class PoolSettings {
+
+    boolean enabled;
+    int maxFailureThreshold;
+    double criticalPoolUtilization;
+    long criticalAcquireLatencyMillis;
+    ShutdownPolicy shutdownPolicy;
+    String healthCheckQuery;
+    ProbeMode probeMode;
+    ProbeValidation probeValidation;
+    /** Hard deadline of a single health probe. */
+    int probeTimeoutMillis;
+    /** Smallest maximumPoolSize the auto-tuner may set. */
+    int tuningMinPoolSize;
+    /** Largest maximumPoolSize the auto-tuner may set, 0 for the size configured at startup. */
+    int tuningMaxPoolSize;
+    /** Fraction of checkouts (0.0 to 1.0) whose acquisition stack is captured. */
+    double leakStackSampleRate;
+    /** Hold time after which a connection is reported as a leak suspect, 0 to disable reports. */
+    long leakThresholdMillis;
+    /** Number of SQL fingerprints tracked per pool, 0 to disable statement timing. */
+    int sqlCapacity;
+    /** Consecutive failed health checks that open the circuit breaker, 0 to disable the breaker. */
+    int circuitBreakerFailureThreshold;
+    /** Time an open circuit breaker rejects calls before letting a trial call through. */
+    long circuitBreakerOpenDurationMillis;
+    /** Statements run on every connection opened by the startup warm-up. */
+    List<String> warmupQueries;
+
+    public static PoolSettings resolve(Environment environment, String poolName) {
+        ShutdownPolicy shutdownPolicy = property(environment, poolName, "shutdown-policy", ShutdownPolicy.class, ShutdownPolicy.SHUTDOWN);
+        int circuitBreakerFailureThreshold = property(environment, poolName, "circuit-breaker.enabled", Boolean.class, true)
+                ? property(environment, poolName, "circuit-breaker.failure-threshold", Integer.class, 2)
+                : 0;
+        // A pooled probe queues behind application traffic, so when its failures open the breaker
+        // or shut the application down, probes use a connection of their own by default
+        ProbeMode defaultProbeMode = shutdownPolicy == ShutdownPolicy.SHUTDOWN || circuitBreakerFailureThreshold > 0
+                ? ProbeMode.DEDICATED
+                : ProbeMode.POOLED;
+        return new PoolSettings(
+                property(environment, poolName, "enabled", Boolean.class, true),
+                property(environment, poolName, "max-failure-threshold", Integer.class, 3),
+                property(environment, poolName, "critical-pool-utilization", Double.class, 0.9),
+                property(environment, poolName, "critical-acquire-latency", Long.class, 200L),
+                shutdownPolicy,
+                property(environment, poolName, "health-check-query", String.class, "SELECT 1"),
+                property(environment, poolName, "probe.mode", ProbeMode.class, defaultProbeMode),
+                property(environment, poolName, "probe.validation", ProbeValidation.class, ProbeValidation.QUERY),
+                property(environment, poolName, "probe.timeout", Integer.class, 5000),
+                property(environment, poolName, "tuning.min-pool-size", Integer.class, 2),
+                property(environment, poolName, "tuning.max-pool-size", Integer.class, 0),
+                property(environment, poolName, "leak.stack-sample-rate", Double.class, 0.01),
+                property(environment, poolName, "leak.threshold", Long.class, 60000L),
+                property(environment, poolName, "sql.enabled", Boolean.class, true)
+                        ? property(environment, poolName, "sql.capacity", Integer.class, 100)
+                        : 0,
+                circuitBreakerFailureThreshold,
+                property(environment, poolName, "circuit-breaker.open-duration", Long.class, 5000L),
+                listProperty(environment, poolName, "warmup.queries"));
+    }
+
+    private static <T> T property(Environment environment, String poolName, String key, Class<T> type, T defaultValue) {
+        T globalValue = environment.getProperty("db.monitor." + key, type, defaultValue);
+        return environment.getProperty("db.monitor.pools." + poolName + "." + key, type, globalValue);
+    }
+
+    /**
+     * A YAML sequence ({@code key[0]}, {@code key[1]}, ...) or a single value. Unlike other
+     * list settings, a single value is not split at commas, since SQL statements contain them.
+     */
+    private static List<String> listProperty(Environment environment, String poolName, String key) {
+        List<String> poolValue = listProperty(environment, "db.monitor.pools." + poolName + "." + key);
+        if (poolValue != null) {
+            return poolValue;
+        }
+        List<String> globalValue = listProperty(environment, "db.monitor." + key);
+        return globalValue != null ? globalValue : List.of();
+    }
+
+    private static List<String> listProperty(Environment environment, String key) {
+        String value = environment.getProperty(key);
+        if (value != null) {
+            return List.of(value);
+        }
+        List<String> values = new ArrayList<>();
+        String element = environment.getProperty(key + "[0]");
+        while (element != null) {
+            values.add(element);
+            element = environment.getProperty(key + "[" + values.size() + "]");
+        }
+        return values.isEmpty() ? null : List.copyOf(values);
+    }
+}
@@ -0,0 +1,13 @@
+package com.apimonitor.dbmonitor.pool;
+
+/**
+ * What the monitor does once a pool reaches its failure threshold.
+ */
+public enum ShutdownPolicy {
+
+    /** Shut the application down once it is safe to do so. */
+    SHUTDOWN,
+
+    /** Only log the failure; the application keeps running. */
+    LOG_ONLY
+}
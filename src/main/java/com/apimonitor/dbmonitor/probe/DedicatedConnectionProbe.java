@@ -0,0 +1,205 @@
+package com.apimonitor.dbmonitor.probe;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Health probe that keeps one dedicated connection outside the application's pool.
+ *
+ * The connection is opened lazily on the first probe and re-established after any failure.
+ * Validation uses either {@link Connection#isValid(int)} or a prepared health check query
+ * that is cached for the lifetime of the connection. A network timeout is set on the
+ * connection where the driver supports it, and {@link #abort()} aborts the connection so
+ * a probe stuck on a dead socket is released immediately.
+ *
+ * Opening the connection is bounded by the probe deadline as well. The connect runs on the
+ * abort executor and the probe stops waiting for it at the deadline; a connect that is
+ * still running is taken over by the next probe instead of starting another one. The
+ * login timeout is not used for this: on a driver-backed pool it is JVM-wide, and a pool's
+ * own DataSource is shared with the pool.
+ *
+ * Probes of one pool never overlap, so only {@link #abort()} races with {@link #probe()}.
+ */
+@Slf4j
+public class DedicatedConnectionProbe implements HealthProbe {
+
+    private final String poolName;
+    private final DataSource connectionFactory;
+    private final String healthCheckQuery;
+    private final int timeoutMillis;
+    private final Executor abortExecutor;
+
+    private volatile Connection connection;
+    private PreparedStatement statement;
+    // Connect an earlier probe stopped waiting for, still running on the abort executor
+    private CompletableFuture<Connection> pendingConnect;
+
+    /**
+     * @param poolName          name of the probed pool, for logging
+     * @param connectionFactory unpooled DataSource creating physical connections to the same database
+     * @param healthCheckQuery  query to run, or null to validate with {@link Connection#isValid(int)}
+     * @param timeoutMillis     probe deadline, applied as network and query timeout
+     * @param abortExecutor     executor used by the driver to abort the connection, and to open it
+     */
+    public DedicatedConnectionProbe(String poolName, DataSource connectionFactory, String healthCheckQuery,
+                                    int timeoutMillis, Executor abortExecutor) {
+        this.poolName = poolName;
+        this.connectionFactory = connectionFactory;
+        this.healthCheckQuery = healthCheckQuery;
+        this.timeoutMillis = timeoutMillis;
+        this.abortExecutor = abortExecutor;
+    }
+
+    @Override
+    public boolean probe() throws SQLException {
+        Connection current = connection;
+        try {
+            if (current == null) {
+                current = openConnection();
+            }
+            int timeoutSeconds = Math.max(1, (timeoutMillis + 999) / 1000);
+            if (healthCheckQuery == null) {
+                return current.isValid(timeoutSeconds);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Never reuse a connection that failed once; the next probe reconnects
+            closeQuietly(current);
+            connection = null;
+            statement = null;
+            throw e;
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        log.debug("Opening dedicated health probe connection for pool '{}'", poolName);
+        Connection opened = connect();
+        try {
+            try {
+                opened.setNetworkTimeout(abortExecutor, timeoutMillis);
+            } catch (SQLFeatureNotSupportedException e) {
+                log.debug("Driver does not support network timeouts, relying on abort() for pool '{}'", poolName);
+            }
+            opened.setAutoCommit(true);
+            opened.setReadOnly(true);
+            if (healthCheckQuery != null) {
+                statement = opened.prepareStatement(healthCheckQuery);
+                statement.setQueryTimeout(Math.max(1, (timeoutMillis + 999) / 1000));
+            }
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(opened);
+            throw e;
+        }
+        connection = opened;
+        return opened;
+    }
+
+    /**
+     * Opens a physical connection, waiting for it no longer than the probe deadline.
+     *
+     * @throws SQLTimeoutException if the database did not accept the connection in time
+     */
+    private Connection connect() throws SQLException {
+        CompletableFuture<Connection> connect = pendingConnect;
+        if (connect == null) {
+            connect = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return connectionFactory.getConnection();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, abortExecutor);
+        }
+        pendingConnect = null;
+        try {
+            return connect.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pendingConnect = connect;
+            throw new SQLTimeoutException("Opening the health probe connection for pool '" + poolName
+                    + "' took longer than " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendingConnect = connect;
+            throw new SQLException("Interrupted while opening the health probe connection for pool '" + poolName + "'", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new SQLException("Opening the health probe connection for pool '" + poolName + "' failed", e.getCause());
+        }
+    }
+
+    /**
+     * Creates an unpooled DataSource that opens physical connections with the same settings
+     * as the given pool.
+     *
+     * @return the DataSource, or null if the pool is configured through a DataSource class
+     *         name or JNDI and cannot be replicated outside the pool
+     */
+    public static DataSource unpooledDataSource(HikariDataSource pool) {
+        if (pool.getDataSource() != null) {
+            return pool.getDataSource();
+        }
+        if (pool.getJdbcUrl() == null) {
+            return null;
+        }
+        return new DriverDataSource(pool.getJdbcUrl(), pool.getDriverClassName(), pool.getDataSourceProperties(),
+                pool.getUsername(), pool.getPassword());
+    }
+
+    @Override
+    public void abort() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.abort(abortExecutor);
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Aborting health probe connection for pool '{}' failed: {}", poolName, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Connection current = connection;
+        connection = null;
+        closeQuietly(current);
+        CompletableFuture<Connection> connect = pendingConnect;
+        pendingConnect = null;
+        if (connect != null) {
+            connect.thenAccept(this::closeQuietly);
+        }
+    }
+
+    private void closeQuietly(Connection toClose) {
+        if (toClose == null) {
+            return;
+        }
+        try {
+            toClose.close();
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Closing health probe connection for pool '{}' failed: {}", poolName, e.getMessage());
+        }
+    }
+}
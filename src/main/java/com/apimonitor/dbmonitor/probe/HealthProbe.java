@@ -0,0 +1,39 @@
+package com.apimonitor.dbmonitor.probe;
+
+import java.sql.SQLException;
+
+/**
+ * Checks whether a database is reachable.
+ *
+ * {@link #probe()} runs on a probe thread and may block. When it overruns its deadline,
+ * the monitor calls {@link #abort()} from another thread to release whatever the probe
+ * is blocked on.
+ */
+public interface HealthProbe extends AutoCloseable {
+
+    /**
+     * Runs the health check on the calling thread.
+     *
+     * @return true if the database answered as expected, false if it answered unexpectedly
+     * @throws SQLException if the database could not be reached
+     */
+    boolean probe() throws SQLException;
+
+    /**
+     * @return true while {@link #probe()} is queued for a connection of the application's pool
+     */
+    default boolean isAwaitingConnection() {
+        return false;
+    }
+
+    /**
+     * Aborts a probe that exceeded its deadline. Must not block.
+     */
+    void abort();
+
+    /**
+     * Releases resources held between probes.
+     */
+    @Override
+    void close();
+}
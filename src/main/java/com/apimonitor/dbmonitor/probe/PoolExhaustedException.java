@@ -0,0 +1,17 @@
+package com.apimonitor.dbmonitor.probe;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown by a {@link PooledHealthProbe} that could not borrow a connection because the pool
+ * lent all of them to the application, while the pool itself reported no failure to connect.
+ * A saturated pool says nothing about whether the database is reachable.
+ */
+public class PoolExhaustedException extends SQLTransientConnectionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PoolExhaustedException(String message) {
+        super(message);
+    }
+}
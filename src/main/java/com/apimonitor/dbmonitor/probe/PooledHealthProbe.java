@@ -0,0 +1,74 @@
+package com.apimonitor.dbmonitor.probe;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Health probe that borrows a connection from the pool and runs the health check query.
+ *
+ * The query runs with a statement timeout, but waiting for the connection itself is
+ * bounded only by the pool's connection timeout. Such a wait cannot be aborted, and a
+ * probe queued behind application traffic says nothing about the database: the monitor
+ * waits for its outcome instead of counting the deadline as a failure, and a timeout
+ * of the pool without a connection failure behind it is reported as
+ * {@link PoolExhaustedException}.
+ */
+public class PooledHealthProbe implements HealthProbe {
+
+    private final DataSource dataSource;
+    private final String healthCheckQuery;
+    private final int queryTimeoutSeconds;
+
+    private volatile boolean awaitingConnection;
+
+    public PooledHealthProbe(DataSource dataSource, String healthCheckQuery, int queryTimeoutSeconds) {
+        this.dataSource = dataSource;
+        this.healthCheckQuery = healthCheckQuery;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    @Override
+    public boolean probe() throws SQLException {
+        try (Connection connection = borrowConnection();
+             PreparedStatement stmt = connection.prepareStatement(healthCheckQuery)) {
+            stmt.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private Connection borrowConnection() throws SQLException {
+        awaitingConnection = true;
+        try {
+            return dataSource.getConnection();
+        } catch (SQLTransientConnectionException e) {
+            // HikariCP attaches the last failure to connect; without one, every connection was simply in use
+            if (e.getCause() == null) {
+                throw new PoolExhaustedException(e.getMessage());
+            }
+            throw e;
+        } finally {
+            awaitingConnection = false;
+        }
+    }
+
+    @Override
+    public boolean isAwaitingConnection() {
+        return awaitingConnection;
+    }
+
+    @Override
+    public void abort() {
+        // A pooled getConnection() cannot be interrupted; the pool's connection timeout bounds it
+    }
+
+    @Override
+    public void close() {
+        // Nothing is held between probes
+    }
+}
@@ -0,0 +1,54 @@
+package com.apimonitor.dbmonitor.probe;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor that runs health probes, one task per pool and cycle.
+ *
+ * Probes spend nearly all of their time blocked on the network, which is what virtual
+ * threads are for. The library still targets Java 17, so the virtual-thread executor is
+ * looked up reflectively and a cached pool of daemon platform threads is used on older
+ * runtimes. Either way every probe gets its own thread, so a slow pool never delays
+ * the probes of the others.
+ */
+@Slf4j
+public final class ProbeExecutors {
+
+    private ProbeExecutors() {
+    }
+
+    public static ExecutorService newProbeExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            ExecutorService executor = (ExecutorService) factory.invoke();
+            log.debug("Running database health probes on virtual threads");
+            return executor;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.debug("Virtual threads are not available, running database health probes on platform threads");
+        } catch (Throwable e) {
+            log.debug("Could not create virtual thread executor: {}", e.getMessage());
+        }
+        return Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "db-monitor-probe-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.apimonitor.dbmonitor.probe;
+
+/**
+ * Where health probes get their connection from.
+ */
+public enum ProbeMode {
+
+    /** Borrow a connection from the application's pool, like any other caller. */
+    POOLED,
+
+    /**
+     * Use a dedicated connection outside the pool, re-established lazily. The probe never
+     * competes with application traffic for a connection and never queues behind it.
+     */
+    DEDICATED
+}
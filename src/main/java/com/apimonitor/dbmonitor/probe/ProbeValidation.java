@@ -0,0 +1,13 @@
+package com.apimonitor.dbmonitor.probe;
+
+/**
+ * How a dedicated probe connection is validated.
+ */
+public enum ProbeValidation {
+
+    /** Run the configured health check query through a cached prepared statement. */
+    QUERY,
+
+    /** Use the driver's {@link java.sql.Connection#isValid(int)}, usually a protocol-level ping. */
+    IS_VALID
+}
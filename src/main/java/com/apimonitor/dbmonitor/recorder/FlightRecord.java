@@ -0,0 +1,20 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import lombok.Value;
+
+/**
+ * A decoded record of a flight recording. See {@link FlightRecordType} for the meaning of the fields.
+ */
+@Value
+public class FlightRecord {
+
+    long sequence;
+    long epochMillis;
+    FlightRecordType type;
+    String pool;
+    int a;
+    int b;
+    int c;
+    long x;
+    long y;
+}
@@ -0,0 +1,87 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of a flight recording. All values are little-endian.
+ *
+ * <pre>
+ * Header (4096 bytes)
+ *   0  long  magic "DBMONFR1"
+ *   8  int   version
+ *  12  int   record size
+ *  16  int   capacity (records)
+ *  20  int   number of registered pools
+ *  24  long  creation time, epoch milliseconds
+ *  32  long  process id
+ *  64  pool names, 64 bytes each: 1 length byte followed by UTF-8
+ *
+ * Record (48 bytes), slot = (sequence - 1) % capacity
+ *   0  long  sequence, starting at 1; written last, 0 while the record is being written
+ *   8  long  epoch milliseconds
+ *  16  byte  {@link FlightRecordType} code
+ *  17  byte  pool index
+ *  20  int   a
+ *  24  int   b
+ *  28  int   c
+ *  32  long  x
+ *  40  long  y
+ * </pre>
+ *
+ * The meaning of a, b, c, x and y depends on the record type.
+ */
+final class FlightRecordFormat {
+
+    static final long MAGIC = bytesToLong("DBMONFR1");
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 4096;
+    static final int RECORD_SIZE = 48;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 8;
+    static final int RECORD_SIZE_OFFSET = 12;
+    static final int CAPACITY_OFFSET = 16;
+    static final int POOL_COUNT_OFFSET = 20;
+    static final int CREATED_OFFSET = 24;
+    static final int PID_OFFSET = 32;
+
+    static final int POOL_NAMES_OFFSET = 64;
+    static final int POOL_NAME_SIZE = 64;
+    static final int MAX_POOLS = (HEADER_SIZE - POOL_NAMES_OFFSET) / POOL_NAME_SIZE;
+
+    static final int SEQUENCE = 0;
+    static final int TIMESTAMP = 8;
+    static final int TYPE = 16;
+    static final int POOL = 17;
+    static final int A = 20;
+    static final int B = 24;
+    static final int C = 28;
+    static final int X = 32;
+    static final int Y = 40;
+
+    private FlightRecordFormat() {
+    }
+
+    static long recordOffset(long sequence, int capacity) {
+        return HEADER_SIZE + ((sequence - 1) % capacity) * RECORD_SIZE;
+    }
+
+    static byte[] encodePoolName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, POOL_NAME_SIZE - 1);
+        byte[] encoded = new byte[length + 1];
+        encoded[0] = (byte) length;
+        System.arraycopy(bytes, 0, encoded, 1, length);
+        return encoded;
+    }
+
+    private static long bytesToLong(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+}
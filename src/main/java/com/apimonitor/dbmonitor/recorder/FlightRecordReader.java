@@ -0,0 +1,185 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static com.apimonitor.dbmonitor.recorder.FlightRecordFormat.*;
+
+/**
+ * Decodes a flight recording, also from the command line for post-mortems:
+ *
+ * <pre>
+ * java -cp db-connection-monitor-1.0.0.jar com.apimonitor.dbmonitor.recorder.FlightRecordReader \
+ *     db-monitor-flight.rec.previous [--pool dataSource] [--type SAMPLE,PROBE] [--last 200]
+ * </pre>
+ *
+ * Only depends on the JDK, so it runs without the application's classpath.
+ */
+public final class FlightRecordReader {
+
+    private final long createdEpochMillis;
+    private final long pid;
+    private final List<String> pools;
+    private final List<FlightRecord> records;
+
+    private FlightRecordReader(long createdEpochMillis, long pid, List<String> pools, List<FlightRecord> records) {
+        this.createdEpochMillis = createdEpochMillis;
+        this.pid = pid;
+        this.pools = pools;
+        this.records = records;
+    }
+
+    /**
+     * Reads all complete records of a recording, oldest first. Records that were being
+     * written when the process ended are skipped.
+     */
+    public static FlightRecordReader read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(file + " is not a flight recording");
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION || buffer.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            throw new IOException("Unsupported flight recording version " + buffer.getInt(VERSION_OFFSET));
+        }
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        if ((long) HEADER_SIZE + (long) capacity * RECORD_SIZE > buffer.capacity()) {
+            throw new IOException(file + " is truncated");
+        }
+
+        List<String> pools = new ArrayList<>();
+        int poolCount = Math.min(buffer.getInt(POOL_COUNT_OFFSET), MAX_POOLS);
+        for (int i = 0; i < poolCount; i++) {
+            int offset = POOL_NAMES_OFFSET + i * POOL_NAME_SIZE;
+            byte[] name = new byte[buffer.get(offset) & 0xFF];
+            buffer.get(offset + 1, name);
+            pools.add(new String(name, StandardCharsets.UTF_8));
+        }
+
+        List<FlightRecord> records = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            long sequence = buffer.getLong(offset + SEQUENCE);
+            FlightRecordType type = FlightRecordType.fromCode(buffer.get(offset + TYPE));
+            // A sequence that does not map to this slot is left over from a torn write
+            if (sequence <= 0 || recordOffset(sequence, capacity) != offset || type == null) {
+                continue;
+            }
+            int pool = buffer.get(offset + POOL) & 0xFF;
+            records.add(new FlightRecord(sequence, buffer.getLong(offset + TIMESTAMP), type,
+                    pool < pools.size() ? pools.get(pool) : "#" + pool,
+                    buffer.getInt(offset + A), buffer.getInt(offset + B), buffer.getInt(offset + C),
+                    buffer.getLong(offset + X), buffer.getLong(offset + Y)));
+        }
+        records.sort(Comparator.comparingLong(FlightRecord::getSequence));
+
+        return new FlightRecordReader(buffer.getLong(CREATED_OFFSET), buffer.getLong(PID_OFFSET), pools, records);
+    }
+
+    public long getCreatedEpochMillis() {
+        return createdEpochMillis;
+    }
+
+    public long getPid() {
+        return pid;
+    }
+
+    public List<String> getPools() {
+        return pools;
+    }
+
+    public List<FlightRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Formats a record as a single human-readable line.
+     */
+    public static String format(FlightRecord record) {
+        String details;
+        switch (record.getType()) {
+            case SAMPLE:
+                details = String.format(Locale.ROOT, "active=%d idle=%d total=%d waiting=%d max=%d",
+                        record.getA(), record.getB(), record.getC(), record.getX(), record.getY());
+                break;
+            case PROBE:
+                details = String.format(Locale.ROOT, "%s failures=%d duration=%.1fms",
+                        record.getA() == 1 ? "success" : "FAILURE", record.getB(), record.getX() / 1e6);
+                break;
+            case LATENCY:
+                details = String.format(Locale.ROOT, "acquisitions=%d acquire-p99=%.1fms hold-p99=%.1fms",
+                        record.getA(), record.getX() / 1e6, record.getY() / 1e6);
+                break;
+            case BREAKER:
+                details = record.getA() == 1 ? "OPEN" : "closed";
+                break;
+            case SHUTDOWN:
+                details = "active=" + record.getA();
+                break;
+            default:
+                details = "";
+        }
+        return String.format(Locale.ROOT, "%s %8d %-16s %-8s %s", Instant.ofEpochMilli(record.getEpochMillis()),
+                record.getSequence(), record.getPool(), record.getType(), details);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: FlightRecordReader <file> [--pool <name>] [--type <TYPE,...>] [--last <n>]");
+            System.exit(2);
+        }
+
+        String pool = null;
+        Set<FlightRecordType> types = EnumSet.allOf(FlightRecordType.class);
+        int last = Integer.MAX_VALUE;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--pool":
+                    pool = args[i + 1];
+                    break;
+                case "--type":
+                    types = EnumSet.noneOf(FlightRecordType.class);
+                    for (String type : args[i + 1].split(",")) {
+                        types.add(FlightRecordType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--last":
+                    last = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        FlightRecordReader reader = read(Path.of(args[0]));
+        List<FlightRecord> selected = new ArrayList<>();
+        for (FlightRecord record : reader.getRecords()) {
+            if ((pool == null || pool.equals(record.getPool())) && types.contains(record.getType())) {
+                selected.add(record);
+            }
+        }
+
+        PrintStream out = System.out;
+        out.printf("Recording of pid %d started %s - Pools: %s, Records: %d%n", reader.getPid(),
+                Instant.ofEpochMilli(reader.getCreatedEpochMillis()), reader.getPools(), reader.getRecords().size());
+        for (FlightRecord record : selected.subList(Math.max(0, selected.size() - last), selected.size())) {
+            out.println(format(record));
+        }
+    }
+}
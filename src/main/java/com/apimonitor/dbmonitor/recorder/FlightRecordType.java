@@ -0,0 +1,47 @@
+package com.apimonitor.dbmonitor.recorder;
+
+/**
+ * Kinds of records in a flight recording and the meaning of their fields.
+ */
+public enum FlightRecordType {
+
+    /** Pool state. a: active, b: idle, c: total, x: threads awaiting, y: maximum pool size. */
+    SAMPLE(1),
+
+    /** Completed health probe. a: 1 if successful, b: consecutive failures, x: probe duration in ns. */
+    PROBE(2),
+
+    /** Latency since the previous monitoring cycle. a: acquisitions, x: acquire p99 in ns, y: hold p99 in ns. */
+    LATENCY(3),
+
+    /** The circuit breaker opened (a: 1) or closed (a: 0). */
+    BREAKER(4),
+
+    /** The shutdown is committed: the context is about to close or the JVM to exit. a: active connections at that moment. */
+    SHUTDOWN(5);
+
+    private static final FlightRecordType[] BY_CODE = new FlightRecordType[8];
+
+    static {
+        for (FlightRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    FlightRecordType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the type with the given code, or null for unknown codes
+     */
+    public static FlightRecordType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.apimonitor.dbmonitor.recorder.FlightRecordFormat.*;
+
+/**
+ * Fixed-size ring of binary telemetry records in a memory-mapped file.
+ *
+ * Writes are plain stores into the mapping: no system call, no lock and no allocation.
+ * The pages belong to the operating system's page cache, so everything written survives
+ * {@code System.exit}, a JVM crash or a {@code kill -9}; only a crash of the machine itself
+ * can lose the part not yet flushed, which {@link #force()} narrows down.
+ *
+ * Concurrent writers claim slots through a single atomic counter. Each record's sequence
+ * number is written last with release semantics, so {@link FlightRecordReader} can tell a
+ * complete record from one that was cut off mid-write.
+ */
+@Slf4j
+public class FlightRecorder implements Closeable {
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long sampleIntervalNanos;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final AtomicInteger poolCount = new AtomicInteger();
+
+    private FlightRecorder(Path file, FileChannel channel, MappedByteBuffer buffer, int capacity, long sampleIntervalNanos) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.sampleIntervalNanos = sampleIntervalNanos;
+    }
+
+    /**
+     * Creates a new recording. An existing file at the same path is the recording of the
+     * previous run, usually the one needed for a post-mortem, so it is moved aside to
+     * {@code <file>.previous} rather than overwritten.
+     *
+     * @param capacity            number of records before the oldest are overwritten
+     * @param sampleIntervalNanos minimum time between two samples of the same pool
+     */
+    public static FlightRecorder create(Path file, int capacity, long sampleIntervalNanos) throws IOException {
+        if (capacity < 1 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+        }
+        if (Files.exists(file)) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".previous"), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        int size = HEADER_SIZE + capacity * RECORD_SIZE;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(POOL_COUNT_OFFSET, 0);
+        buffer.putLong(CREATED_OFFSET, System.currentTimeMillis());
+        buffer.putLong(PID_OFFSET, ProcessHandle.current().pid());
+        // Last, so a file cut off during creation is never mistaken for a recording
+        buffer.putLong(MAGIC_OFFSET, MAGIC);
+
+        log.info("Flight recorder writing to {} - Capacity: {} records ({} KB)", file.toAbsolutePath(), capacity, size / 1024);
+        return new FlightRecorder(file, channel, buffer, capacity, sampleIntervalNanos);
+    }
+
+    /**
+     * Registers a pool in the recording header.
+     *
+     * @return the handle all records of that pool are written through, or null if the header is full
+     */
+    public synchronized PoolRecorder forPool(String poolName) {
+        int index = poolCount.get();
+        if (index >= MAX_POOLS) {
+            log.warn("Flight recorder supports at most {} pools, not recording '{}'", MAX_POOLS, poolName);
+            return null;
+        }
+        byte[] name = encodePoolName(poolName);
+        buffer.put(POOL_NAMES_OFFSET + index * POOL_NAME_SIZE, name);
+        buffer.putInt(POOL_COUNT_OFFSET, index + 1);
+        poolCount.set(index + 1);
+        return new PoolRecorder(this, index, sampleIntervalNanos);
+    }
+
+    void write(FlightRecordType type, int pool, int a, int b, int c, long x, long y) {
+        long sequence = lastSequence.incrementAndGet();
+        int offset = (int) recordOffset(sequence, capacity);
+
+        // Invalidate first: a slot being overwritten must not look like a complete old record
+        LONG_VIEW.setRelease(buffer, offset + SEQUENCE, 0L);
+        buffer.putLong(offset + TIMESTAMP, System.currentTimeMillis());
+        buffer.put(offset + TYPE, (byte) type.getCode());
+        buffer.put(offset + POOL, (byte) pool);
+        buffer.putInt(offset + A, a);
+        buffer.putInt(offset + B, b);
+        buffer.putInt(offset + C, c);
+        buffer.putLong(offset + X, x);
+        buffer.putLong(offset + Y, y);
+        LONG_VIEW.setRelease(buffer, offset + SEQUENCE, sequence);
+    }
+
+    /**
+     * Flushes written records to the storage device. Only needed to survive a machine
+     * crash; the process ending never loses records.
+     */
+    public void force() {
+        try {
+            buffer.force();
+        } catch (RuntimeException e) {
+            log.debug("Flight recorder flush failed: {}", e.getMessage());
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of records written since the recording was created
+     */
+    public long getRecordCount() {
+        return lastSequence.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        // The mapping stays valid until garbage collected, so late writers cannot fault
+        channel.close();
+    }
+}
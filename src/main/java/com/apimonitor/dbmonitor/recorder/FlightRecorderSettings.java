@@ -0,0 +1,27 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import lombok.Value;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the flight recorder, bound from {@code db.monitor.recorder.*}.
+ */
+@Value
+public class FlightRecorderSettings {
+
+    boolean enabled;
+    /** Recording file; the file of the previous run is kept with a {@code .previous} suffix. */
+    String file;
+    /** Number of records in the ring; the file takes {@value FlightRecordFormat#RECORD_SIZE} bytes per record. */
+    int capacity;
+    /** Time between two pool samples written to the recording, per pool. */
+    long sampleIntervalMillis;
+
+    public static FlightRecorderSettings resolve(Environment environment) {
+        return new FlightRecorderSettings(
+                environment.getProperty("db.monitor.recorder.enabled", Boolean.class, false),
+                environment.getProperty("db.monitor.recorder.file", String.class, "db-monitor-flight.rec"),
+                environment.getProperty("db.monitor.recorder.capacity", Integer.class, 131072),
+                environment.getProperty("db.monitor.recorder.sample-interval", Long.class, 100L));
+    }
+}
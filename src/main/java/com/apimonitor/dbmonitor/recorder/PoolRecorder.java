@@ -0,0 +1,51 @@
+package com.apimonitor.dbmonitor.recorder;
+
+/**
+ * Writes the records of a single pool into a {@link FlightRecorder}.
+ */
+public final class PoolRecorder {
+
+    private final FlightRecorder recorder;
+    private final int pool;
+    private final long sampleIntervalNanos;
+
+    // Only touched by the sampler thread
+    private long nextSampleAt = Long.MIN_VALUE;
+
+    PoolRecorder(FlightRecorder recorder, int pool, long sampleIntervalNanos) {
+        this.recorder = recorder;
+        this.pool = pool;
+        this.sampleIntervalNanos = sampleIntervalNanos;
+    }
+
+    /**
+     * Records the pool state, at most once per sample interval. Must only be called from
+     * the pool's sampler thread.
+     *
+     * @param nanoTime {@link System#nanoTime()} of the sample
+     */
+    public void recordSample(long nanoTime, int active, int idle, int total, int threadsAwaiting, int maxPoolSize) {
+        if (nextSampleAt != Long.MIN_VALUE && nanoTime - nextSampleAt < 0) {
+            return;
+        }
+        nextSampleAt = nanoTime + sampleIntervalNanos;
+        recorder.write(FlightRecordType.SAMPLE, pool, active, idle, total, threadsAwaiting, maxPoolSize);
+    }
+
+    public void recordProbe(boolean successful, int consecutiveFailures, long durationNanos) {
+        recorder.write(FlightRecordType.PROBE, pool, successful ? 1 : 0, consecutiveFailures, 0, durationNanos, 0);
+    }
+
+    public void recordLatency(long acquisitions, long acquireP99Nanos, long holdP99Nanos) {
+        recorder.write(FlightRecordType.LATENCY, pool, (int) Math.min(acquisitions, Integer.MAX_VALUE), 0, 0,
+                acquireP99Nanos, holdP99Nanos);
+    }
+
+    public void recordBreaker(boolean open) {
+        recorder.write(FlightRecordType.BREAKER, pool, open ? 1 : 0, 0, 0, 0, 0);
+    }
+
+    public void recordShutdown(int activeConnections) {
+        recorder.write(FlightRecordType.SHUTDOWN, pool, activeConnections, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,192 @@
+package com.apimonitor.dbmonitor.sampler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size ring buffer of connection pool samples backed by primitive arrays.
+ *
+ * There is exactly one writer (the sampler thread) and any number of readers.
+ * Recording a sample allocates nothing and never blocks. Readers never lock either:
+ * every slot is validated against the writer's claim sequence after it is read,
+ * so a slot that was overwritten while being read is simply discarded.
+ */
+public final class PoolSampleRing {
+
+    private static final VarHandle CLAIMED;
+    private static final VarHandle PUBLISHED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CLAIMED = lookup.findVarHandle(PoolSampleRing.class, "claimed", long.class);
+            PUBLISHED = lookup.findVarHandle(PoolSampleRing.class, "published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] timestamps;
+    private final int[] active;
+    private final int[] idle;
+    private final int[] total;
+    private final int[] awaiting;
+
+    /** Number of slots the writer has started writing. */
+    @SuppressWarnings("unused")
+    private volatile long claimed;
+
+    /** Number of slots that are completely written and visible to readers. */
+    @SuppressWarnings("unused")
+    private volatile long published;
+
+    /**
+     * @param minimumCapacity minimum number of samples to retain; rounded up to a power of two
+     */
+    public PoolSampleRing(int minimumCapacity) {
+        if (minimumCapacity < 2) {
+            throw new IllegalArgumentException("Ring capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(minimumCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.active = new int[capacity];
+        this.idle = new int[capacity];
+        this.total = new int[capacity];
+        this.awaiting = new int[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Records a sample. Must only be called from the single writer thread.
+     *
+     * @param nanoTime sample time as returned by {@link System#nanoTime()}
+     */
+    public void record(long nanoTime, int activeConnections, int idleConnections,
+                       int totalConnections, int threadsAwaiting) {
+        long sequence = (long) PUBLISHED.getOpaque(this);
+        int slot = (int) (sequence & mask);
+
+        // Announce the slot before touching it so readers can detect the overwrite
+        CLAIMED.setOpaque(this, sequence + 1);
+        VarHandle.storeStoreFence();
+
+        timestamps[slot] = nanoTime;
+        active[slot] = activeConnections;
+        idle[slot] = idleConnections;
+        total[slot] = totalConnections;
+        awaiting[slot] = threadsAwaiting;
+
+        PUBLISHED.setRelease(this, sequence + 1);
+    }
+
+    /**
+     * @return total number of samples recorded since creation
+     */
+    public long sampleCount() {
+        return (long) PUBLISHED.getAcquire(this);
+    }
+
+    /**
+     * @return the most recently recorded awaiting-thread count, or 0 if nothing was recorded yet
+     */
+    public int latestThreadsAwaiting() {
+        long end = (long) PUBLISHED.getAcquire(this);
+        return end == 0 ? 0 : awaiting[(int) ((end - 1) & mask)];
+    }
+
+    /**
+     * @return the most recently recorded active connection count, or 0 if nothing was recorded yet
+     */
+    public int latestActiveConnections() {
+        long end = (long) PUBLISHED.getAcquire(this);
+        return end == 0 ? 0 : active[(int) ((end - 1) & mask)];
+    }
+
+    /**
+     * Aggregates all samples recorded within {@code windowNanos} of {@code nowNanos}.
+     *
+     * @param windowNanos   window length in nanoseconds
+     * @param nowNanos      end of the window as returned by {@link System#nanoTime()}
+     * @param maxPoolSize   configured maximum pool size, used for utilization and as the
+     *                      bucket bound of the active-connection percentile computation
+     */
+    public PoolWindowStats stats(long windowNanos, long nowNanos, int maxPoolSize) {
+        int bound = Math.max(1, maxPoolSize);
+        int[] activeCounts = new int[bound + 1];
+        long cutoff = nowNanos - windowNanos;
+
+        int samples = 0;
+        int maxActive = 0;
+        int maxTotal = 0;
+        int maxAwaiting = 0;
+        long sumActive = 0;
+        long sumAwaiting = 0;
+        int samplesWithWaiters = 0;
+
+        long end = (long) PUBLISHED.getAcquire(this);
+        long start = Math.max(0, end - capacity);
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            int slot = (int) (sequence & mask);
+            long timestamp = timestamps[slot];
+            int sampleActive = active[slot];
+            int sampleTotal = total[slot];
+            int sampleAwaiting = awaiting[slot];
+
+            // Discard the slot (and everything older) if the writer has lapped it meanwhile
+            VarHandle.loadLoadFence();
+            if ((long) CLAIMED.getOpaque(this) - sequence > capacity) {
+                break;
+            }
+            if (timestamp - cutoff < 0) {
+                break;
+            }
+
+            samples++;
+            activeCounts[Math.min(sampleActive, bound)]++;
+            maxActive = Math.max(maxActive, sampleActive);
+            maxTotal = Math.max(maxTotal, sampleTotal);
+            maxAwaiting = Math.max(maxAwaiting, sampleAwaiting);
+            sumActive += sampleActive;
+            sumAwaiting += sampleAwaiting;
+            if (sampleAwaiting > 0) {
+                samplesWithWaiters++;
+            }
+        }
+
+        if (samples == 0) {
+            return PoolWindowStats.empty(windowNanos, maxPoolSize);
+        }
+
+        return new PoolWindowStats(
+                windowNanos,
+                samples,
+                maxPoolSize,
+                maxActive,
+                maxTotal,
+                maxAwaiting,
+                (double) sumActive / samples,
+                (double) sumAwaiting / samples,
+                (double) samplesWithWaiters / samples,
+                percentile(activeCounts, samples, 0.50),
+                percentile(activeCounts, samples, 0.90),
+                percentile(activeCounts, samples, 0.99));
+    }
+
+    private static int percentile(int[] counts, int samples, double quantile) {
+        long rank = (long) Math.ceil(quantile * samples);
+        long seen = 0;
+        for (int value = 0; value < counts.length; value++) {
+            seen += counts[value];
+            if (seen >= rank) {
+                return value;
+            }
+        }
+        return counts.length - 1;
+    }
+}
@@ -0,0 +1,179 @@
+package com.apimonitor.dbmonitor.sampler;
+
+import com.apimonitor.dbmonitor.forecast.SaturationForecast;
+import com.apimonitor.dbmonitor.forecast.SaturationForecaster;
+import com.apimonitor.dbmonitor.recorder.PoolRecorder;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Samples HikariCP pool state at a high, fixed frequency on a dedicated daemon thread
+ * and keeps the history in a {@link PoolSampleRing}.
+ *
+ * The periodic monitor only looks at the pool once per monitoring interval, which misses
+ * saturation spikes lasting a few hundred milliseconds. The sampler fills that gap and
+ * exposes windowed views that can be queried from any thread without locking.
+ */
+@Slf4j
+public class PoolSampler implements SmartLifecycle {
+
+    private final String poolName;
+    private final HikariDataSource dataSource;
+    private final long intervalNanos;
+    private final long historyNanos;
+    private final PoolSampleRing ring;
+    private final SaturationForecaster forecaster;
+    private final PoolRecorder recorder;
+
+    private volatile boolean running;
+    private Thread samplerThread;
+
+    /**
+     * @param poolName   name of the pool, used for the sampler thread name
+     * @param dataSource the pool to sample
+     * @param interval   time between two samples
+     * @param history    how far back samples are retained; windows longer than this are truncated
+     */
+    public PoolSampler(String poolName, HikariDataSource dataSource, Duration interval, Duration history) {
+        this(poolName, dataSource, interval, history, null);
+    }
+
+    /**
+     * @param forecaster fed with every sample from the sampler thread, or null to disable forecasting
+     */
+    public PoolSampler(String poolName, HikariDataSource dataSource, Duration interval, Duration history,
+                       SaturationForecaster forecaster) {
+        this(poolName, dataSource, interval, history, forecaster, null);
+    }
+
+    /**
+     * @param recorder receives samples for the flight recording at its own, lower rate, or null
+     */
+    public PoolSampler(String poolName, HikariDataSource dataSource, Duration interval, Duration history,
+                       SaturationForecaster forecaster, PoolRecorder recorder) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        this.poolName = poolName;
+        this.dataSource = dataSource;
+        this.intervalNanos = interval.toNanos();
+        this.historyNanos = history.toNanos();
+        this.ring = new PoolSampleRing((int) Math.min(1 << 24, historyNanos / intervalNanos + 1));
+        this.forecaster = forecaster;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        samplerThread = new Thread(this::runSamplingLoop, "db-monitor-sampler-" + poolName);
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        log.debug("Pool sampler started for '{}' - Interval: {}µs, Capacity: {} samples", poolName,
+                TimeUnit.NANOSECONDS.toMicros(intervalNanos), ring.capacity());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (samplerThread != null) {
+            LockSupport.unpark(samplerThread);
+            samplerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns aggregated pool statistics over one of the standard windows.
+     */
+    public PoolWindowStats stats(SampleWindow window) {
+        return stats(window.getDuration());
+    }
+
+    /**
+     * Returns aggregated pool statistics over the given window, capped at the retained history.
+     */
+    public PoolWindowStats stats(Duration window) {
+        long windowNanos = Math.min(window.toNanos(), historyNanos);
+        return ring.stats(windowNanos, System.nanoTime(), dataSource.getMaximumPoolSize());
+    }
+
+    /**
+     * @return the number of threads that were waiting for a connection at the latest sample
+     */
+    public int latestThreadsAwaiting() {
+        return ring.latestThreadsAwaiting();
+    }
+
+    /**
+     * @return the number of active connections at the latest sample
+     */
+    public int latestActiveConnections() {
+        return ring.latestActiveConnections();
+    }
+
+    /**
+     * @return the latest saturation forecast, or null if forecasting is disabled or still warming up
+     */
+    public SaturationForecast forecast() {
+        return forecaster != null ? forecaster.getLatest() : null;
+    }
+
+    public long sampleCount() {
+        return ring.sampleCount();
+    }
+
+    private void runSamplingLoop() {
+        HikariPoolMXBean poolMXBean = null;
+        long nextSample = System.nanoTime();
+
+        while (running) {
+            if (poolMXBean == null) {
+                // The pool is created lazily on the first getConnection() call
+                poolMXBean = dataSource.getHikariPoolMXBean();
+            }
+
+            if (poolMXBean != null) {
+                try {
+                    long now = System.nanoTime();
+                    int active = poolMXBean.getActiveConnections();
+                    int awaiting = poolMXBean.getThreadsAwaitingConnection();
+                    int idle = poolMXBean.getIdleConnections();
+                    int total = poolMXBean.getTotalConnections();
+                    ring.record(now, active, idle, total, awaiting);
+                    if (forecaster != null) {
+                        forecaster.update(now, active, dataSource.getMaximumPoolSize(), awaiting);
+                    }
+                    if (recorder != null) {
+                        recorder.recordSample(now, active, idle, total, awaiting, dataSource.getMaximumPoolSize());
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Pool sample failed: {}", e.getMessage());
+                }
+            }
+
+            nextSample += intervalNanos;
+            long delay = nextSample - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(this, delay);
+            } else {
+                // Fell behind (GC pause, CPU starvation) - resynchronize instead of bursting
+                nextSample = System.nanoTime();
+            }
+        }
+        log.debug("Pool sampler stopped for '{}'", poolName);
+    }
+}
@@ -0,0 +1,48 @@
+package com.apimonitor.dbmonitor.sampler;
+
+import lombok.Value;
+
+/**
+ * Immutable aggregate of the pool samples recorded within a time window.
+ */
+@Value
+public class PoolWindowStats {
+
+    long windowNanos;
+    int sampleCount;
+    int maxPoolSize;
+    int maxActive;
+    int maxTotal;
+    int maxThreadsAwaiting;
+    double meanActive;
+    double meanThreadsAwaiting;
+    /** Fraction of samples (0.0 to 1.0) in which at least one thread was waiting for a connection. */
+    double waitingRatio;
+    int p50Active;
+    int p90Active;
+    int p99Active;
+
+    static PoolWindowStats empty(long windowNanos, int maxPoolSize) {
+        return new PoolWindowStats(windowNanos, 0, maxPoolSize, 0, 0, 0, 0.0, 0.0, 0.0, 0, 0, 0);
+    }
+
+    public boolean isEmpty() {
+        return sampleCount == 0;
+    }
+
+    public double getMaxUtilization() {
+        return utilization(maxActive);
+    }
+
+    public double getP99Utilization() {
+        return utilization(p99Active);
+    }
+
+    public double getMeanUtilization() {
+        return maxPoolSize > 0 ? meanActive / maxPoolSize : 0.0;
+    }
+
+    private double utilization(int activeConnections) {
+        return maxPoolSize > 0 ? (double) activeConnections / maxPoolSize : 0.0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.apimonitor.dbmonitor.sampler;
+
+import java.time.Duration;
+
+/**
+ * Standard windows over which sampled pool history can be queried.
+ */
+public enum SampleWindow {
+
+    ONE_SECOND(Duration.ofSeconds(1)),
+    TEN_SECONDS(Duration.ofSeconds(10)),
+    ONE_MINUTE(Duration.ofMinutes(1));
+
+    private final Duration duration;
+
+    SampleWindow(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
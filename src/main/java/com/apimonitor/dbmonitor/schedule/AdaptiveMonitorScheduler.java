@@ -0,0 +1,245 @@
+package com.apimonitor.dbmonitor.schedule;
+
+import com.apimonitor.dbmonitor.events.PoolEventDetector;
+import com.apimonitor.dbmonitor.forecast.PoolSaturationWarningEvent;
+import com.apimonitor.dbmonitor.forecast.SaturationForecast;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+import com.apimonitor.dbmonitor.sampler.SampleWindow;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link DatabaseConnectionMonitorService#monitorDatabaseConnection()} at an
+ * interval that adapts to pool pressure.
+ *
+ * A lightweight tick runs every minimum interval and only reads in-memory pool state.
+ * The full monitoring cycle runs when its adaptive delay has elapsed, or right away
+ * when the tick sees pressure appear in the middle of a long quiet interval.
+ * The tick also publishes a {@link PoolSaturationWarningEvent} whenever a pool's
+ * saturation forecast enters or leaves the early-warning horizon, and hands the state
+ * transitions seen since the previous tick to the pool event bus.
+ */
+@Slf4j
+public class AdaptiveMonitorScheduler implements SmartLifecycle {
+
+    private final DatabaseConnectionMonitorService monitorService;
+    private final MonitoredPoolRegistry poolRegistry;
+    private final MonitoringCadence cadence;
+    private final double quietUtilization;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PoolEventDetector eventDetector;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    // Only touched by the scheduler thread
+    private long lastCycleStart;
+    private long nextCycleAt;
+    private boolean firstCycle = true;
+    private final boolean[] forecastWarnings;
+
+    /**
+     * @param quietUtilization utilization below which a pool counts as quiet
+     * @param eventPublisher   receives saturation warnings, may be null
+     */
+    public AdaptiveMonitorScheduler(DatabaseConnectionMonitorService monitorService, MonitoredPoolRegistry poolRegistry,
+                                    MonitoringCadence cadence, double quietUtilization,
+                                    ApplicationEventPublisher eventPublisher) {
+        this(monitorService, poolRegistry, cadence, quietUtilization, eventPublisher, null);
+    }
+
+    /**
+     * @param eventDetector publishes pool state transitions after every tick, may be null
+     */
+    public AdaptiveMonitorScheduler(DatabaseConnectionMonitorService monitorService, MonitoredPoolRegistry poolRegistry,
+                                    MonitoringCadence cadence, double quietUtilization,
+                                    ApplicationEventPublisher eventPublisher, PoolEventDetector eventDetector) {
+        this.monitorService = monitorService;
+        this.poolRegistry = poolRegistry;
+        this.cadence = cadence;
+        this.quietUtilization = quietUtilization;
+        this.eventPublisher = eventPublisher;
+        this.eventDetector = eventDetector;
+        this.forecastWarnings = new boolean[poolRegistry.getPools().size()];
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-monitor-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.scheduleWithFixedDelay(this::tick, 0, cadence.getMinIntervalMillis(), TimeUnit.MILLISECONDS);
+        log.debug("Adaptive monitor scheduler started - Tick: {} ms, Initial interval: {} ms",
+                cadence.getMinIntervalMillis(), cadence.getCurrentIntervalMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the current delay between two monitoring cycles in milliseconds
+     */
+    public long getCurrentIntervalMillis() {
+        return cadence.getCurrentIntervalMillis();
+    }
+
+    private void tick() {
+        try {
+            checkForecasts();
+            runCycleIfDue();
+            if (eventDetector != null) {
+                eventDetector.detect();
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic tick
+            log.error("Error in adaptive monitor scheduler", e);
+        }
+    }
+
+    private void runCycleIfDue() {
+        long now = System.nanoTime();
+        boolean due = firstCycle || now - nextCycleAt >= 0;
+        boolean pressureAppeared = !due
+                && now - lastCycleStart >= TimeUnit.MILLISECONDS.toNanos(cadence.getMinIntervalMillis())
+                && isUnderPressure();
+
+        if (!due && !pressureAppeared) {
+            return;
+        }
+        if (pressureAppeared) {
+            log.debug("Pool pressure detected, running monitoring cycle early");
+        }
+
+        firstCycle = false;
+        lastCycleStart = now;
+        monitorService.monitorDatabaseConnection();
+
+        PoolPressure pressure = assessPressure();
+        long previousInterval = cadence.getCurrentIntervalMillis();
+        long interval = cadence.nextIntervalMillis(pressure);
+        nextCycleAt = now + TimeUnit.MILLISECONDS.toNanos(interval);
+
+        if (interval != previousInterval) {
+            log.debug("Monitoring interval changed from {} ms to {} ms - Pool pressure: {}", previousInterval, interval, pressure);
+        }
+    }
+
+    /**
+     * Logs and publishes forecast warnings on transitions only, so a pool that stays inside
+     * the horizon raises one warning rather than one per tick.
+     */
+    private void checkForecasts() {
+        List<MonitoredPool> pools = poolRegistry.getPools();
+        for (int i = 0; i < pools.size(); i++) {
+            MonitoredPool pool = pools.get(i);
+            SaturationForecast forecast = pool.getSampler() != null ? pool.getSampler().forecast() : null;
+            if (forecast == null || forecast.isWarning() == forecastWarnings[i]) {
+                continue;
+            }
+            forecastWarnings[i] = forecast.isWarning();
+
+            if (forecast.isWarning()) {
+                log.warn("Pool '{}' is forecast to saturate in {}s - Utilization: {}%, Trend: {}%/s, Threads awaiting: {}",
+                        pool.getName(), String.format("%.1f", forecast.getSecondsToSaturation()),
+                        String.format("%.1f", forecast.getUtilization() * 100),
+                        String.format("%+.1f", forecast.getUtilizationTrendPerSecond() * 100),
+                        String.format("%.1f", forecast.getThreadsAwaiting()));
+            } else {
+                log.info("Pool '{}' saturation warning cleared - Utilization: {}%",
+                        pool.getName(), String.format("%.1f", forecast.getUtilization() * 100));
+            }
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(new PoolSaturationWarningEvent(this, pool.getName(), forecast));
+            }
+        }
+    }
+
+    /**
+     * Cheap check run on every tick: current waiters, current utilization, probe failures
+     * and saturation forecasts.
+     */
+    boolean isUnderPressure() {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            if (pool.getConsecutiveFailures() > 0) {
+                return true;
+            }
+            SaturationForecast forecast = pool.getSampler() != null ? pool.getSampler().forecast() : null;
+            if (forecast != null && forecast.isWarning()) {
+                return true;
+            }
+            HikariDataSource hikariDataSource = pool.getHikariDataSource();
+            HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+            if (poolMXBean == null) {
+                continue;
+            }
+            int maxPoolSize = hikariDataSource.getMaximumPoolSize();
+            double utilization = maxPoolSize > 0 ? (double) poolMXBean.getActiveConnections() / maxPoolSize : 0.0;
+            if (poolMXBean.getThreadsAwaitingConnection() > 0
+                    || utilization >= pool.getSettings().getCriticalPoolUtilization()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Full assessment after a monitoring cycle, taking the sampled history into account so
+     * a pool only counts as quiet if it stayed quiet for the whole last minute.
+     */
+    PoolPressure assessPressure() {
+        if (isUnderPressure()) {
+            return PoolPressure.ELEVATED;
+        }
+
+        boolean quiet = true;
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            PoolSampler sampler = pool.getSampler();
+            if (sampler == null) {
+                // Without history a single quiet reading is not enough to back off
+                quiet = false;
+                continue;
+            }
+            PoolWindowStats lastSecond = sampler.stats(SampleWindow.ONE_SECOND);
+            if (lastSecond.getMaxThreadsAwaiting() > 0
+                    || lastSecond.getMaxUtilization() >= pool.getSettings().getCriticalPoolUtilization()) {
+                return PoolPressure.ELEVATED;
+            }
+            PoolWindowStats lastMinute = sampler.stats(SampleWindow.ONE_MINUTE);
+            if (lastMinute.isEmpty() || lastMinute.getMaxThreadsAwaiting() > 0
+                    || lastMinute.getMaxUtilization() >= quietUtilization) {
+                quiet = false;
+            }
+        }
+        return quiet ? PoolPressure.QUIET : PoolPressure.NORMAL;
+    }
+}
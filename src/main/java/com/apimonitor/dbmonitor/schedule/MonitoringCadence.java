@@ -0,0 +1,70 @@
+package com.apimonitor.dbmonitor.schedule;
+
+/**
+ * Computes the delay until the next monitoring cycle from the current pool pressure.
+ *
+ * Under pressure the monitor runs at the minimum interval so failures are confirmed within
+ * seconds. Normal load uses the configured monitoring interval. While all pools stay quiet
+ * the interval grows geometrically up to the maximum, so healthy, idle nodes pay almost
+ * nothing for monitoring. Only the scheduler thread updates it; the current interval may
+ * be read from any thread, e.g. by the actuator endpoint and metrics.
+ */
+public class MonitoringCadence {
+
+    private final long baseIntervalMillis;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final double backoffMultiplier;
+
+    // Written by the scheduler thread only, volatile for the endpoint and gauge readers
+    private volatile long currentIntervalMillis;
+
+    public MonitoringCadence(long baseIntervalMillis, long minIntervalMillis, long maxIntervalMillis,
+                             double backoffMultiplier) {
+        if (minIntervalMillis <= 0 || minIntervalMillis > baseIntervalMillis || baseIntervalMillis > maxIntervalMillis) {
+            throw new IllegalArgumentException("Monitoring intervals must satisfy 0 < min <= base <= max");
+        }
+        if (backoffMultiplier < 1.0) {
+            throw new IllegalArgumentException("Backoff multiplier must be at least 1.0");
+        }
+        this.baseIntervalMillis = baseIntervalMillis;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.backoffMultiplier = backoffMultiplier;
+        this.currentIntervalMillis = baseIntervalMillis;
+    }
+
+    /**
+     * A cadence that ignores pressure and always uses the base interval.
+     */
+    public static MonitoringCadence fixed(long intervalMillis) {
+        return new MonitoringCadence(intervalMillis, intervalMillis, intervalMillis, 1.0);
+    }
+
+    /**
+     * @return the delay in milliseconds until the next monitoring cycle
+     */
+    public long nextIntervalMillis(PoolPressure pressure) {
+        switch (pressure) {
+            case ELEVATED:
+                currentIntervalMillis = minIntervalMillis;
+                break;
+            case QUIET:
+                long grown = (long) (Math.max(currentIntervalMillis, baseIntervalMillis) * backoffMultiplier);
+                currentIntervalMillis = Math.min(maxIntervalMillis, grown);
+                break;
+            default:
+                currentIntervalMillis = baseIntervalMillis;
+                break;
+        }
+        return currentIntervalMillis;
+    }
+
+    public long getCurrentIntervalMillis() {
+        return currentIntervalMillis;
+    }
+
+    public long getMinIntervalMillis() {
+        return minIntervalMillis;
+    }
+}
@@ -0,0 +1,16 @@
+package com.apimonitor.dbmonitor.schedule;
+
+/**
+ * How much attention the monitored pools currently need.
+ */
+public enum PoolPressure {
+
+    /** Utilization is critical, threads are waiting for connections, or probes are failing. */
+    ELEVATED,
+
+    /** Neither under pressure nor quiet. */
+    NORMAL,
+
+    /** Every pool has been well below its critical utilization with no waiters and no failures. */
+    QUIET
+}
@@ -1,134 +1,312 @@
 package com.apimonitor.dbmonitor.service;
 
+import com.apimonitor.dbmonitor.attribution.EndpointUsage;
+import com.apimonitor.dbmonitor.datasource.HeldConnection;
+import com.apimonitor.dbmonitor.forecast.SaturationForecast;
+import com.apimonitor.dbmonitor.jfr.HealthProbeEvent;
+import com.apimonitor.dbmonitor.jfr.ShutdownDecision;
+import com.apimonitor.dbmonitor.jfr.ShutdownDecisionEvent;
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.pool.PoolSettings;
+import com.apimonitor.dbmonitor.pool.ShutdownPolicy;
+import com.apimonitor.dbmonitor.probe.PoolExhaustedException;
+import com.apimonitor.dbmonitor.sampler.PoolSampler;
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+import com.apimonitor.dbmonitor.sampler.SampleWindow;
+import com.apimonitor.dbmonitor.shutdown.ApplicationDrainer;
+import com.apimonitor.dbmonitor.sql.SqlStats;
+import com.apimonitor.dbmonitor.sql.SqlStatsTracker;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.HikariPoolMXBean;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service responsible for monitoring database connections and making
  * informed decisions about application termination based on connection pool health.
+ *
+ * Every DataSource bean in the context is monitored. Health probes of different pools
+ * run concurrently, each on its own thread, so a slow pool never delays failure
+ * detection on the others.
  */
 @Slf4j
 @Service
 @ConditionalOnProperty(name = "db.monitor.enabled", havingValue = "true", matchIfMissing = true)
 public class DatabaseConnectionMonitorService {
 
-    @Autowired
-    private DataSource dataSource;
+    /** Number of longest-held connections listed when open connections block a shutdown. */
+    private static final int HELD_CONNECTIONS_REPORTED = 5;
 
-    @Value("${db.monitor.health-check-query:SELECT 1}")
-    private String healthCheckQuery;
+    /** Number of endpoints listed when a pool crosses its critical utilization. */
+    private static final int TOP_CONSUMERS_REPORTED = 5;
 
-    @Value("${db.monitor.max-failure-threshold:3}")
-    private int maxFailureThreshold;
+    /** Number of SQL fingerprints listed when a pool crosses its critical utilization. */
+    private static final int TOP_STATEMENTS_REPORTED = 5;
 
-    @Value("${db.monitor.critical-pool-utilization:0.9}")
-    private double criticalPoolUtilization;
+    /** Stack frames included per leak report. */
+    private static final int MAX_STACK_FRAMES = 15;
 
+    @Autowired
+    private MonitoredPoolRegistry poolRegistry;
 
+    /** Drains and closes the application context on shutdown; without it the JVM is exited directly. */
+    @Autowired(required = false)
+    private ApplicationDrainer applicationDrainer;
 
-    private int consecutiveFailures = 0;
-    private boolean isShutdownInProgress = false;
+    private final AtomicBoolean isShutdownInProgress = new AtomicBoolean();
 
     public DatabaseConnectionMonitorService() {
-        log.warn("DatabaseConnectionMonitorService instantiated");
+        log.debug("DatabaseConnectionMonitorService instantiated");
     }
 
     /**
-     * Scheduled method that runs periodically to monitor database connections.
-     * Default interval is 30 seconds, configurable via db.monitor.monitoring-interval
+     * Runs one monitoring cycle over all pools. Invoked by the
+     * {@link com.apimonitor.dbmonitor.schedule.AdaptiveMonitorScheduler}, which runs it every
+     * db.monitor.monitoring-interval (30 seconds by default) and more or less often depending
+     * on pool pressure.
      */
-    @Scheduled(fixedDelayString = "${db.monitor.monitoring-interval:30000}")
     public void monitorDatabaseConnection() {
-        log.warn("Scheduled monitor task triggered");
-        if (isShutdownInProgress) {
-            log.warn("Shutdown already in progress, skipping monitoring cycle");
+        if (isShutdownInProgress.get()) {
+            log.debug("Shutdown already in progress, skipping monitoring cycle");
             return;
         }
 
         log.debug("Starting database connection monitoring cycle");
 
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            try {
+                // Probes complete asynchronously and apply their own results
+                startHealthProbe(pool);
+
+                // Always check pool utilization for logging purposes
+                checkPoolUtilization(pool);
+
+                checkConnectionLeaks(pool);
+
+            } catch (Exception e) {
+                log.error("Error during database monitoring cycle for pool '{}'", pool.getName(), e);
+                recordFailure(pool, "Monitoring service errors");
+            }
+        }
+    }
+
+    /**
+     * Cheap availability check for request threads: a single volatile read per pool.
+     *
+     * @return false if the circuit breaker of any monitored pool is open, i.e. the monitor
+     *         has confirmed an outage that has not recovered yet
+     */
+    public boolean isDatabaseAvailable() {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            if (!pool.isAvailable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the circuit breaker of the given pool is open; unknown pools count as available
+     */
+    public boolean isDatabaseAvailable(String poolName) {
+        MonitoredPool pool = poolRegistry.getPool(poolName);
+        return pool == null || pool.isAvailable();
+    }
+
+    /**
+     * @return true once the monitor has started draining or shutting down the application
+     */
+    public boolean isShutdownInProgress() {
+        return isShutdownInProgress.get();
+    }
+
+    /**
+     * Submits a health probe for the pool unless the previous one is still running.
+     * A probe that outlives its deadline is aborted and counts as one failure. Should it be
+     * stuck past the deadline anyway, every cycle it blocks counts as another failure, so the
+     * breaker and shutdown policy keep advancing. A pooled probe that is still queued for a
+     * connection at its deadline is waiting behind application traffic, not on the database,
+     * so its eventual outcome is applied instead.
+     */
+    private void startHealthProbe(MonitoredPool pool) {
+        if (!pool.tryStartProbe()) {
+            long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(pool.getSettings().getProbeTimeoutMillis());
+            if (pool.getProbeRunningNanos() > deadlineNanos && !pool.getHealthProbe().isAwaitingConnection()) {
+                log.warn("Health probe for pool '{}' is still stuck {} ms after it started",
+                          pool.getName(), TimeUnit.NANOSECONDS.toMillis(pool.getProbeRunningNanos()));
+                pool.getHealthProbe().abort();
+                recordFailure(pool, "Health probe stuck");
+            } else {
+                log.debug("Health probe for pool '{}' is still running from a previous cycle", pool.getName());
+            }
+            return;
+        }
+
+        long deadlineMillis = pool.getSettings().getProbeTimeoutMillis();
+        ExecutorService probeExecutor = poolRegistry.getProbeExecutor();
+        try {
+            CompletableFuture<ProbeOutcome> probe = CompletableFuture.supplyAsync(() -> runHealthProbe(pool), probeExecutor);
+            probe.copy()
+                    .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((outcome, error) -> {
+                        if (unwrap(error) instanceof TimeoutException && pool.getHealthProbe().isAwaitingConnection()) {
+                            log.warn("Health probe for pool '{}' is still waiting for a pooled connection after {} ms",
+                                      pool.getName(), deadlineMillis);
+                            probe.whenCompleteAsync((lateOutcome, lateError) -> applyProbeResult(pool, lateOutcome, lateError),
+                                    probeExecutor);
+                        } else {
+                            applyProbeResult(pool, outcome, error);
+                        }
+                    }, probeExecutor);
+        } catch (RejectedExecutionException e) {
+            pool.finishProbe();
+            log.debug("Health probe for pool '{}' rejected, monitor is shutting down", pool.getName());
+        }
+    }
+
+    private ProbeOutcome runHealthProbe(MonitoredPool pool) {
+        long start = System.nanoTime();
         try {
             // Test database connection
-            boolean connectionSuccessful = testDatabaseConnection();
-            
-            if (connectionSuccessful) {
-                consecutiveFailures = 0;
-                log.debug("Database connection test successful");
+            return testDatabaseConnection(pool);
+        } finally {
+            pool.recordProbeLatency(System.nanoTime() - start);
+            pool.finishProbe();
+        }
+    }
+
+    private void applyProbeResult(MonitoredPool pool, ProbeOutcome outcome, Throwable error) {
+        Throwable cause = unwrap(error);
+
+        if (cause instanceof TimeoutException) {
+            log.warn("Health probe for pool '{}' did not complete within its deadline of {} ms",
+                      pool.getName(), pool.getSettings().getProbeTimeoutMillis());
+            pool.getHealthProbe().abort();
+            recordFailure(pool, "Connection test timed out repeatedly");
+        } else if (cause != null) {
+            log.error("Error during database health probe for pool '{}'", pool.getName(), cause);
+            recordFailure(pool, "Monitoring service errors");
+        } else if (outcome == ProbeOutcome.INCONCLUSIVE) {
+            // Neither a success nor a failure: the consecutive failure count is left as it is
+            log.info("Health probe for pool '{}' could not borrow a connection from the saturated pool, result ignored",
+                      pool.getName());
+        } else if (outcome == ProbeOutcome.HEALTHY) {
+            int previousFailures = pool.recordSuccess();
+            if (pool.getRecorder() != null) {
+                pool.getRecorder().recordProbe(true, 0, pool.getLastProbeLatencyNanos());
+            }
+            if (pool.getCircuitBreaker() != null && pool.getCircuitBreaker().recordProbeSuccess()
+                    && pool.getRecorder() != null) {
+                pool.getRecorder().recordBreaker(false);
+            }
+            if (previousFailures > 0) {
+                log.info("Database connection test for pool '{}' succeeded after {} consecutive failures",
+                          pool.getName(), previousFailures);
             } else {
-                consecutiveFailures++;
-                log.warn("Database connection test failed. Consecutive failures: {}", consecutiveFailures);
-                
-                // Only consider shutdown if we've reached the failure threshold
-                if (consecutiveFailures >= maxFailureThreshold) {
-                    checkForSafeShutdown("Connection test failed repeatedly");
-                }
+                log.debug("Database connection test successful for pool '{}' in {} ms",
+                           pool.getName(), formatMillis(pool.getLastProbeLatencyNanos()));
             }
+        } else {
+            recordFailure(pool, "Connection test failed repeatedly");
+        }
+    }
 
-            // Always check pool utilization for logging purposes
-            checkPoolUtilization();
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 
-        } catch (Exception e) {
-            log.error("Error during database monitoring cycle", e);
-            consecutiveFailures++;
-            
-            if (consecutiveFailures >= maxFailureThreshold) {
-                checkForSafeShutdown("Monitoring service errors");
+    /**
+     * Counts a failure for the pool and applies its shutdown policy once the
+     * failure threshold is reached.
+     */
+    private void recordFailure(MonitoredPool pool, String reason) {
+        int consecutiveFailures = pool.recordFailure();
+        PoolSettings settings = pool.getSettings();
+        log.warn("Database connection test failed for pool '{}'. Consecutive failures: {}", pool.getName(), consecutiveFailures);
+        if (pool.getRecorder() != null) {
+            pool.getRecorder().recordProbe(false, consecutiveFailures, pool.getLastProbeLatencyNanos());
+        }
+        if (pool.getCircuitBreaker() != null && pool.getCircuitBreaker().recordProbeFailure(consecutiveFailures)
+                && pool.getRecorder() != null) {
+            pool.getRecorder().recordBreaker(true);
+        }
+
+        // Only consider shutdown if we've reached the failure threshold
+        if (consecutiveFailures >= settings.getMaxFailureThreshold()) {
+            if (settings.getShutdownPolicy() == ShutdownPolicy.SHUTDOWN) {
+                checkForSafeShutdown(reason + " (pool '" + pool.getName() + "')");
+            } else {
+                log.error("Pool '{}' reached the failure threshold ({}), shutdown policy is {}. Application keeps running.",
+                           pool.getName(), settings.getMaxFailureThreshold(), settings.getShutdownPolicy());
+                ShutdownDecisionEvent.emit(ShutdownDecision.LOG_ONLY, reason + " (pool '" + pool.getName() + "')",
+                                           totalActiveConnections());
             }
         }
     }
 
     /**
-     * Tests the database connection by executing a simple query.
-     * 
-     * @return true if connection is successful, false otherwise
+     * Tests the database connection through the pool's health probe.
+     *
+     * @return whether the database answered, or {@link ProbeOutcome#INCONCLUSIVE} if a pooled
+     *         probe found every connection in use without the pool failing to connect
      */
-    private boolean testDatabaseConnection() {
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement stmt = connection.prepareStatement(healthCheckQuery);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                log.debug("Health check query executed successfully: {}", healthCheckQuery);
-                return true;
+    private ProbeOutcome testDatabaseConnection(MonitoredPool pool) {
+        HealthProbeEvent event = new HealthProbeEvent();
+        event.begin();
+        try {
+            if (pool.getHealthProbe().probe()) {
+                log.debug("Health check executed successfully on pool '{}'", pool.getName());
+                event.finish(pool.getName(), true, null);
+                return ProbeOutcome.HEALTHY;
             } else {
-                log.warn("Health check query returned no results");
-                return false;
+                log.warn("Health check returned no results on pool '{}'", pool.getName());
+                event.finish(pool.getName(), false, "No results");
+                return ProbeOutcome.UNHEALTHY;
             }
+        } catch (PoolExhaustedException e) {
+            log.debug("Health check on pool '{}' found no free connection: {}", pool.getName(), e.getMessage());
+            event.finish(pool.getName(), false, e.getMessage());
+            return ProbeOutcome.INCONCLUSIVE;
         } catch (SQLException e) {
-            log.error("Database connection test failed: {}", e.getMessage());
-            return false;
+            log.error("Database connection test failed for pool '{}': {}", pool.getName(), e.getMessage());
+            event.finish(pool.getName(), false, e.getMessage());
+            return ProbeOutcome.UNHEALTHY;
         }
     }
 
     /**
-     * Checks pool utilization and logs warnings for critical levels.
+     * Checks pool utilization and logs a warning when the pool enters or leaves its critical
+     * level; while it stays there, details are logged at debug level only.
      * This is for monitoring purposes only - no shutdown actions are taken.
      */
-    private void checkPoolUtilization() {
-        if (!(dataSource instanceof HikariDataSource)) {
+    private void checkPoolUtilization(MonitoredPool pool) {
+        HikariDataSource hikariDataSource = pool.getHikariDataSource();
+        if (hikariDataSource == null) {
             return;
         }
 
-        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
         HikariPoolMXBean poolMXBean = hikariDataSource.getHikariPoolMXBean();
 
         if (poolMXBean == null) {
             return;
         }
 
+        double criticalPoolUtilization = pool.getSettings().getCriticalPoolUtilization();
         int maxPoolSize = hikariDataSource.getMaximumPoolSize();
         int activeConnections = poolMXBean.getActiveConnections();
         int idleConnections = poolMXBean.getIdleConnections();
@@ -138,83 +316,374 @@ public class DatabaseConnectionMonitorService {
         // Calculate pool utilization
         double poolUtilization = maxPoolSize > 0 ? (double) activeConnections / maxPoolSize : 0.0;
 
-        log.debug("Pool utilization check - Max: {}, Active: {}, Idle: {}, Total: {}, Waiting: {}, Utilization: {}%", 
-                   maxPoolSize, activeConnections, idleConnections, totalConnections, threadsAwaitingConnection,
+        log.debug("Pool utilization check for '{}' - Max: {}, Active: {}, Idle: {}, Total: {}, Waiting: {}, Utilization: {}%",
+                   pool.getName(), maxPoolSize, activeConnections, idleConnections, totalConnections, threadsAwaitingConnection,
                    String.format("%.1f", poolUtilization * 100));
 
-        // Log warning for critical pool utilization
-        if (poolUtilization >= criticalPoolUtilization) {
-            log.warn("Critical pool utilization detected: {}% (threshold: {}%) - Active: {}, Max: {}, Waiting: {}", 
-                       String.format("%.1f", poolUtilization * 100), 
+        // Short spikes between two monitoring cycles are only visible in the sampled history
+        PoolWindowStats recentStats = null;
+        if (pool.getSampler() != null) {
+            recentStats = pool.getSampler().stats(SampleWindow.ONE_MINUTE);
+            logWindowStats(pool, recentStats);
+
+            SaturationForecast forecast = pool.getSampler().forecast();
+            if (forecast != null) {
+                log.debug("Saturation forecast for '{}' - Utilization: {}%, Trend: {}%/s, Threads awaiting: {}, Saturation in: {}",
+                           pool.getName(), String.format("%.1f", forecast.getUtilization() * 100),
+                           String.format("%+.1f", forecast.getUtilizationTrendPerSecond() * 100),
+                           String.format("%.1f", forecast.getThreadsAwaiting()),
+                           forecast.isSaturating() ? String.format("%.1fs", forecast.getSecondsToSaturation()) : "never");
+            }
+        }
+
+        // Acquire latency is what callers actually experience; a pool can be far from full and still slow
+        checkAcquireLatency(pool, activeConnections, maxPoolSize, threadsAwaitingConnection);
+
+        boolean critical = poolUtilization >= criticalPoolUtilization
+                || (recentStats != null && recentStats.getMaxUtilization() >= criticalPoolUtilization);
+        boolean changed = pool.updateCriticalUtilization(critical);
+
+        if (!critical) {
+            if (changed) {
+                log.info("Pool utilization for '{}' back below the critical threshold: {}% (threshold: {}%)",
+                          pool.getName(), String.format("%.1f", poolUtilization * 100),
+                          String.format("%.1f", criticalPoolUtilization * 100));
+            }
+        } else if (!changed) {
+            log.debug("Pool utilization for '{}' remains critical: {}% - Active: {}, Max: {}, Waiting: {}",
+                       pool.getName(), String.format("%.1f", poolUtilization * 100),
+                       activeConnections, maxPoolSize, threadsAwaitingConnection);
+        } else if (poolUtilization >= criticalPoolUtilization) {
+            log.warn("Critical pool utilization detected for '{}': {}% (threshold: {}%) - Active: {}, Max: {}, Waiting: {}",
+                       pool.getName(),
+                       String.format("%.1f", poolUtilization * 100),
                        String.format("%.1f", criticalPoolUtilization * 100),
                        activeConnections, maxPoolSize, threadsAwaitingConnection);
+        } else {
+            log.warn("Critical pool utilization spike for '{}' in the last {}s: peak {}%, p99 {}% (threshold: {}%) - Peak active: {}, Max: {}, Peak waiting: {}",
+                       pool.getName(),
+                       SampleWindow.ONE_MINUTE.getDuration().getSeconds(),
+                       String.format("%.1f", recentStats.getMaxUtilization() * 100),
+                       String.format("%.1f", recentStats.getP99Utilization() * 100),
+                       String.format("%.1f", criticalPoolUtilization * 100),
+                       recentStats.getMaxActive(), maxPoolSize, recentStats.getMaxThreadsAwaiting());
+        }
+
+        // Who was using the pool matters when it runs hot, not on every cycle it stays there
+        reportTopConsumers(pool, critical && changed);
+        if (critical && changed) {
+            reportTopStatements(pool);
+        }
+    }
+
+    /**
+     * Advances the per-endpoint usage baseline every cycle, and lists the endpoints that
+     * held connections longest since the previous cycle when the pool started running hot.
+     */
+    private void reportTopConsumers(MonitoredPool pool, boolean critical) {
+        if (pool.getMonitoredDataSource() == null) {
+            return;
+        }
+        List<EndpointUsage> usage = pool.getMonitoredDataSource().getEndpointStats().usageSinceLastCheck();
+        if (!critical || usage.isEmpty()) {
+            return;
+        }
+
+        long totalHoldNanos = 0;
+        for (EndpointUsage endpointUsage : usage) {
+            totalHoldNanos += endpointUsage.getHoldNanos();
+        }
+        log.warn("Top connection consumers of pool '{}' since the last check:", pool.getName());
+        for (int i = 0; i < usage.size() && i < TOP_CONSUMERS_REPORTED; i++) {
+            EndpointUsage endpointUsage = usage.get(i);
+            log.warn("  {} - Connections: {}, Hold time: {} ms ({}%), Mean hold: {} ms, Mean acquire: {} ms",
+                      endpointUsage.getEndpoint(), endpointUsage.getConnections(),
+                      TimeUnit.NANOSECONDS.toMillis(endpointUsage.getHoldNanos()),
+                      String.format("%.1f", totalHoldNanos > 0 ? 100.0 * endpointUsage.getHoldNanos() / totalHoldNanos : 0.0),
+                      formatMillis(endpointUsage.getMeanHoldNanos()), formatMillis(endpointUsage.getMeanAcquireNanos()));
+        }
+    }
+
+    /**
+     * Logs the SQL fingerprints with the highest cumulative execution time, so a saturated
+     * pool can be traced to the statements keeping its connections busy.
+     */
+    private void reportTopStatements(MonitoredPool pool) {
+        SqlStatsTracker sqlStats = pool.getMonitoredDataSource() != null ? pool.getMonitoredDataSource().getSqlStats() : null;
+        if (sqlStats == null) {
+            return;
+        }
+        List<SqlStats> top = sqlStats.topByTotalTime(TOP_STATEMENTS_REPORTED);
+        if (top.isEmpty()) {
+            return;
         }
+        log.warn("Most expensive SQL of pool '{}' since startup:", pool.getName());
+        for (SqlStats statement : top) {
+            log.warn("  {} - Executions: {}, Total: {} ms, Mean: {} ms, p99: {} ms, Max: {} ms",
+                      statement.getFingerprint(), statement.getCount(),
+                      TimeUnit.NANOSECONDS.toMillis(statement.getTotalNanos()),
+                      formatMillis(statement.getMeanNanos()), formatMillis(statement.getP99Nanos()),
+                      formatMillis(statement.getMaxNanos()));
+        }
+    }
+
+    /**
+     * Logs connection acquire and hold time percentiles recorded since the previous check
+     * and warns when the acquire p99 crosses the critical latency threshold.
+     */
+    private void checkAcquireLatency(MonitoredPool pool, int activeConnections, int maxPoolSize, int threadsAwaitingConnection) {
+        if (pool.getMonitoredDataSource() == null) {
+            return;
+        }
+
+        HistogramSnapshot acquire = pool.acquireSnapshotSinceLastCheck();
+        HistogramSnapshot hold = pool.holdSnapshotSinceLastCheck();
+
+        if (acquire.getCount() == 0) {
+            return;
+        }
+        if (pool.getRecorder() != null) {
+            pool.getRecorder().recordLatency(acquire.getCount(), acquire.getValueAtQuantile(0.99), hold.getValueAtQuantile(0.99));
+        }
+
+        long criticalAcquireLatencyMillis = pool.getSettings().getCriticalAcquireLatencyMillis();
+        long acquireP99 = acquire.getValueAtQuantile(0.99);
+        log.debug("Connection latency for '{}' since last check - Acquisitions: {}, Acquire p50/p99/p999: {}/{}/{} ms, Hold p50/p99/p999: {}/{}/{} ms",
+                   pool.getName(), acquire.getCount(),
+                   formatMillis(acquire.getValueAtQuantile(0.50)), formatMillis(acquireP99),
+                   formatMillis(acquire.getValueAtQuantile(0.999)),
+                   formatMillis(hold.getValueAtQuantile(0.50)), formatMillis(hold.getValueAtQuantile(0.99)),
+                   formatMillis(hold.getValueAtQuantile(0.999)));
+
+        if (acquireP99 >= TimeUnit.MILLISECONDS.toNanos(criticalAcquireLatencyMillis)) {
+            log.warn("Critical connection acquire latency detected for '{}': p99 {} ms, p999 {} ms (threshold: {} ms) - Active: {}, Max: {}, Waiting: {}",
+                       pool.getName(), formatMillis(acquireP99), formatMillis(acquire.getValueAtQuantile(0.999)),
+                       criticalAcquireLatencyMillis, activeConnections, maxPoolSize, threadsAwaitingConnection);
+        }
+    }
+
+    /**
+     * Logs the sampled pool history over the standard windows.
+     */
+    private void logWindowStats(MonitoredPool pool, PoolWindowStats lastMinute) {
+        if (!log.isDebugEnabled() || lastMinute.isEmpty()) {
+            return;
+        }
+
+        PoolSampler sampler = pool.getSampler();
+        PoolWindowStats lastSecond = sampler.stats(SampleWindow.ONE_SECOND);
+        PoolWindowStats lastTenSeconds = sampler.stats(SampleWindow.TEN_SECONDS);
+        log.debug("Sampled pool utilization for '{}' - Peak 1s/10s/60s: {}%/{}%/{}%, p99 60s: {}%, Peak waiting 60s: {}, Samples 60s: {}",
+                   pool.getName(),
+                   String.format("%.1f", lastSecond.getMaxUtilization() * 100),
+                   String.format("%.1f", lastTenSeconds.getMaxUtilization() * 100),
+                   String.format("%.1f", lastMinute.getMaxUtilization() * 100),
+                   String.format("%.1f", lastMinute.getP99Utilization() * 100),
+                   lastMinute.getMaxThreadsAwaiting(), lastMinute.getSampleCount());
     }
 
     /**
      * Checks if it's safe to shutdown the application based on connection pool state.
-     * Only shuts down if there are no active connections (no active transactions).
-     * 
+     * Only shuts down if there are no active connections (no active transactions) in any
+     * monitored pool.
+     *
+     * With an {@link ApplicationDrainer}, the application is first taken out of service so
+     * in-flight connections can be returned, instead of waiting for a cycle that happens
+     * to see zero active connections.
+     *
      * @param reason The reason for considering shutdown
      */
     private void checkForSafeShutdown(String reason) {
-        if (!(dataSource instanceof HikariDataSource)) {
-            log.warn("DataSource is not HikariCP, cannot check pool state for safe shutdown");
+        if (applicationDrainer != null) {
+            drainAndShutdown(reason);
             return;
         }
 
-        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
-        HikariPoolMXBean poolMXBean = hikariDataSource.getHikariPoolMXBean();
+        int activeConnections = 0;
+        boolean poolStateKnown = false;
 
-        if (poolMXBean == null) {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariPoolMXBean poolMXBean = poolMXBean(pool);
+            if (poolMXBean == null) {
+                continue;
+            }
+            poolStateKnown = true;
+            activeConnections += poolMXBean.getActiveConnections();
+            log.info("Safe shutdown check for '{}' - Active: {}, Idle: {}, Total: {}, Waiting: {}",
+                      pool.getName(), poolMXBean.getActiveConnections(), poolMXBean.getIdleConnections(),
+                      poolMXBean.getTotalConnections(), poolMXBean.getThreadsAwaitingConnection());
+        }
+
+        if (!poolStateKnown) {
             log.warn("HikariPoolMXBean is not available for safe shutdown check");
             return;
         }
 
-        int activeConnections = poolMXBean.getActiveConnections();
-        int idleConnections = poolMXBean.getIdleConnections();
-        int totalConnections = poolMXBean.getTotalConnections();
-        int threadsAwaitingConnection = poolMXBean.getThreadsAwaitingConnection();
-
-        log.info("Safe shutdown check - Active: {}, Idle: {}, Total: {}, Waiting: {}", 
-                  activeConnections, idleConnections, totalConnections, threadsAwaitingConnection);
-
         // Only shutdown if there are NO active connections (no active transactions)
         if (activeConnections == 0) {
             log.error("Safe to shutdown: No active connections detected. Reason: {}. Initiating application shutdown.", reason);
             initiateApplicationShutdown(reason + " - No active transactions");
         } else {
             log.warn("Cannot shutdown safely: {} active connections detected. Will retry on next monitoring cycle.", activeConnections);
+            ShutdownDecisionEvent.emit(ShutdownDecision.DEFERRED, reason, activeConnections);
+            logLongestHeldConnections();
+        }
+    }
+
+    /**
+     * Reports connections held longer than the pool's leak threshold, once per connection.
+     */
+    private void checkConnectionLeaks(MonitoredPool pool) {
+        long thresholdMillis = pool.getSettings().getLeakThresholdMillis();
+        if (thresholdMillis <= 0 || pool.getMonitoredDataSource() == null) {
+            return;
+        }
+
+        List<HeldConnection> suspects = pool.getMonitoredDataSource().getLeakTracker()
+                .newLeakSuspects(TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+        for (HeldConnection suspect : suspects) {
+            log.warn("Possible connection leak in pool '{}': held for {} ms by {} on thread '{}' ({}){}", pool.getName(),
+                      TimeUnit.NANOSECONDS.toMillis(suspect.getHeldNanos()), suspect.getEndpoint(), suspect.getOwnerThreadName(),
+                      suspect.getOwnerThreadState(), describeCallSite(suspect));
+        }
+    }
+
+    /**
+     * Lists who holds the connections that keep the application from shutting down.
+     */
+    private void logLongestHeldConnections() {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            if (pool.getMonitoredDataSource() == null) {
+                continue;
+            }
+            for (HeldConnection held : pool.getMonitoredDataSource().getLeakTracker().longestHeld(HELD_CONNECTIONS_REPORTED)) {
+                log.warn("Connection of pool '{}' held for {} ms by {} on thread '{}' ({}){}", pool.getName(),
+                          TimeUnit.NANOSECONDS.toMillis(held.getHeldNanos()), held.getEndpoint(), held.getOwnerThreadName(),
+                          held.getOwnerThreadState(), describeCallSite(held));
+            }
         }
     }
 
+    private static String describeCallSite(HeldConnection held) {
+        if (held.getAcquisitionStack() != null) {
+            return " - acquired at:" + formatStack(held.getAcquisitionStack());
+        }
+        if (held.getOwnerStack() != null) {
+            return " - acquisition stack not sampled, owner thread is currently at:" + formatStack(held.getOwnerStack());
+        }
+        return "";
+    }
+
+    private static String formatStack(StackTraceElement[] stack) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < stack.length && i < MAX_STACK_FRAMES; i++) {
+            builder.append(System.lineSeparator()).append("\tat ").append(stack[i]);
+        }
+        if (stack.length > MAX_STACK_FRAMES) {
+            builder.append(System.lineSeparator()).append("\t... ").append(stack.length - MAX_STACK_FRAMES).append(" more");
+        }
+        return builder.toString();
+    }
+
+    private void drainAndShutdown(String reason) {
+        if (!isShutdownInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariPoolMXBean poolMXBean = poolMXBean(pool);
+            if (poolMXBean != null) {
+                log.info("Pool state before drain for '{}' - Active: {}, Idle: {}, Total: {}, Waiting: {}",
+                          pool.getName(), poolMXBean.getActiveConnections(), poolMXBean.getIdleConnections(),
+                          poolMXBean.getTotalConnections(), poolMXBean.getThreadsAwaitingConnection());
+            }
+        }
+        ShutdownDecisionEvent.emit(ShutdownDecision.DRAIN, reason, totalActiveConnections());
+
+        // Once started, a drain always ends with the context closed; monitoring stays off until then
+        applicationDrainer.drain(reason, activeConnections -> {
+            if (activeConnections > 0) {
+                log.warn("Connections were not returned within the drain timeout, shutting down anyway.");
+                ShutdownDecisionEvent.emit(ShutdownDecision.DRAIN_TIMED_OUT, reason, activeConnections);
+                logLongestHeldConnections();
+            }
+            // Only now is the exit committed, so the recording never shows a shutdown that did not happen
+            recordShutdown();
+        });
+    }
+
     /**
      * Initiates application shutdown.
-     * 
+     *
      * @param reason The reason for shutdown
      */
     private void initiateApplicationShutdown(String reason) {
-        if (isShutdownInProgress) {
+        // Probes of several pools may reach their thresholds at the same time
+        if (!isShutdownInProgress.compareAndSet(false, true)) {
             return;
         }
 
-        isShutdownInProgress = true;
         log.error("Database connection monitor: Shutting down application. Reason: {}", reason);
-        
+
         // Log current pool state before shutdown
-        if (dataSource instanceof HikariDataSource) {
-            HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
-            HikariPoolMXBean poolMXBean = hikariDataSource.getHikariPoolMXBean();
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariPoolMXBean poolMXBean = poolMXBean(pool);
             if (poolMXBean != null) {
-                log.error("Final pool state - Active: {}, Idle: {}, Total: {}, Waiting: {}", 
-                           poolMXBean.getActiveConnections(), 
+                log.error("Final pool state for '{}' - Active: {}, Idle: {}, Total: {}, Waiting: {}",
+                           pool.getName(),
+                           poolMXBean.getActiveConnections(),
                            poolMXBean.getIdleConnections(),
                            poolMXBean.getTotalConnections(),
                            poolMXBean.getThreadsAwaitingConnection());
             }
         }
+        recordShutdown();
+        ShutdownDecisionEvent.emit(ShutdownDecision.EXIT, reason, totalActiveConnections());
         System.exit(1);
     }
 
+    /**
+     * Marks the shutdown in the flight recording and flushes it, so the recording
+     * survives even if the machine goes down with the application. Called once the
+     * exit is committed, right before the context is closed or the JVM exits.
+     */
+    private void recordShutdown() {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariPoolMXBean poolMXBean = poolMXBean(pool);
+            if (pool.getRecorder() != null) {
+                pool.getRecorder().recordShutdown(poolMXBean != null ? poolMXBean.getActiveConnections() : -1);
+            }
+        }
+        if (poolRegistry.getFlightRecorder() != null) {
+            poolRegistry.getFlightRecorder().force();
+        }
+    }
+
+    /**
+     * Active connections across all pools, or -1 if no pool reports its state.
+     */
+    private int totalActiveConnections() {
+        int activeConnections = -1;
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariPoolMXBean poolMXBean = poolMXBean(pool);
+            if (poolMXBean != null) {
+                activeConnections = Math.max(activeConnections, 0) + poolMXBean.getActiveConnections();
+            }
+        }
+        return activeConnections;
+    }
+
+    private static HikariPoolMXBean poolMXBean(MonitoredPool pool) {
+        return pool.getHikariDataSource() != null ? pool.getHikariDataSource().getHikariPoolMXBean() : null;
+    }
 
-} 
\ No newline at end of file
+    private static String formatMillis(long nanos) {
+        return String.format("%.1f", LatencyHistogram.toMillis(nanos));
+    }
+
+    private enum ProbeOutcome {
+        HEALTHY,
+        UNHEALTHY,
+        /** The probe could not reach the database through a saturated pool; says nothing about its health. */
+        INCONCLUSIVE
+    }
+}
@@ -0,0 +1,122 @@
+package com.apimonitor.dbmonitor.shutdown;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes the application out of service before a database-triggered shutdown instead of
+ * exiting the JVM at a single instant:
+ *
+ * <ol>
+ *     <li>readiness changes to {@link ReadinessState#REFUSING_TRAFFIC}, so load balancers stop routing new requests</li>
+ *     <li>the instrumented pools reject new checkouts</li>
+ *     <li>in-flight connections get up to {@code drain-timeout} to be returned</li>
+ *     <li>the application context is closed through {@link SpringApplication#exit}, which runs the
+ *         regular shutdown hooks and graceful web server shutdown</li>
+ * </ol>
+ *
+ * The deadline bounds the shutdown, it does not cancel it: if connections are still checked
+ * out when it passes, the context is closed anyway. Re-admitting traffic would only start the
+ * next drain, so a single leaked connection would keep the node flapping in and out of the
+ * load balancer instead of being replaced. Requests still running at that point are left to
+ * the graceful web server shutdown.
+ */
+@Slf4j
+public class ApplicationDrainer {
+
+    private final ConfigurableApplicationContext context;
+    private final MonitoredPoolRegistry poolRegistry;
+    private final DrainSettings settings;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    public ApplicationDrainer(ConfigurableApplicationContext context, MonitoredPoolRegistry poolRegistry,
+                              DrainSettings settings) {
+        this.context = context;
+        this.poolRegistry = poolRegistry;
+        this.settings = settings;
+    }
+
+    public boolean isDraining() {
+        return draining.get();
+    }
+
+    /**
+     * Starts draining on a dedicated thread and returns immediately.
+     *
+     * @param beforeClose run on the drain thread right before the context is closed, with the
+     *                    number of connections still in use, 0 unless the deadline passed
+     * @return false if a drain is already in progress
+     */
+    public boolean drain(String reason, IntConsumer beforeClose) {
+        if (!draining.compareAndSet(false, true)) {
+            return false;
+        }
+        // Not a daemon: the JVM must not end with exit code 0 before this thread has called System.exit
+        Thread drainThread = new Thread(() -> runDrain(reason, beforeClose), "db-monitor-drain");
+        drainThread.start();
+        return true;
+    }
+
+    private void runDrain(String reason, IntConsumer beforeClose) {
+        long start = System.nanoTime();
+        log.error("Draining application before shutdown. Reason: {}", reason);
+
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        setDraining(true);
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getDrainTimeoutMillis());
+        int activeConnections = activeConnections();
+        while (activeConnections > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(settings.getPollIntervalMillis()));
+            activeConnections = activeConnections();
+        }
+
+        if (activeConnections > 0) {
+            log.warn("Drain deadline of {} ms passed with {} connections still in use. Closing the application context anyway.",
+                    settings.getDrainTimeoutMillis(), activeConnections);
+        } else {
+            log.error("All connections returned after {} ms. Closing the application context.",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        beforeClose.accept(activeConnections);
+        int exitCode = SpringApplication.exit(context, settings::getExitCode);
+        if (settings.isExitJvm()) {
+            System.exit(exitCode);
+        }
+    }
+
+    private void setDraining(boolean draining) {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            if (pool.getMonitoredDataSource() != null) {
+                pool.getMonitoredDataSource().setDraining(draining);
+            }
+        }
+    }
+
+    /**
+     * @return the number of connections checked out across all pools whose state is known
+     */
+    private int activeConnections() {
+        int activeConnections = 0;
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariDataSource hikariDataSource = pool.getHikariDataSource();
+            HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+            if (poolMXBean != null) {
+                activeConnections += poolMXBean.getActiveConnections();
+            }
+        }
+        return activeConnections;
+    }
+}
@@ -0,0 +1,28 @@
+package com.apimonitor.dbmonitor.shutdown;
+
+import lombok.Value;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the graceful drain before a database-triggered shutdown, bound from
+ * {@code db.monitor.shutdown.*}.
+ */
+@Value
+public class DrainSettings {
+
+    /** Longest time to wait for in-flight connections to be returned before the context is closed anyway. */
+    long drainTimeoutMillis;
+    /** Time between two checks of the active connection count while draining. */
+    long pollIntervalMillis;
+    /** Whether to end the JVM with {@link #exitCode} once the application context is closed. */
+    boolean exitJvm;
+    int exitCode;
+
+    public static DrainSettings resolve(Environment environment) {
+        return new DrainSettings(
+                environment.getProperty("db.monitor.shutdown.drain-timeout", Long.class, 30000L),
+                environment.getProperty("db.monitor.shutdown.poll-interval", Long.class, 100L),
+                environment.getProperty("db.monitor.shutdown.exit-jvm", Boolean.class, true),
+                environment.getProperty("db.monitor.shutdown.exit-code", Integer.class, 1));
+    }
+}
@@ -0,0 +1,136 @@
+package com.apimonitor.dbmonitor.sql;
+
+/**
+ * Normalizes SQL text so that statements differing only in literal values, comments,
+ * whitespace or keyword case map to the same fingerprint.
+ *
+ * String and numeric literals become {@code ?}, and lists of placeholders such as
+ * {@code IN (?, ?, ?)} collapse to {@code in (?)}. This is a single pass over the text
+ * without regular expressions; it does not parse SQL and never fails on malformed input.
+ */
+public final class SqlFingerprint {
+
+    /** Longer statements are truncated; the prefix is distinctive enough to identify them. */
+    static final int MAX_LENGTH = 1024;
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        int length = sql.length();
+        StringBuilder out = new StringBuilder(Math.min(length, MAX_LENGTH));
+        int i = 0;
+
+        while (i < length && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                appendSpace(out);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipUntil(sql, i + 2, "\n");
+                appendSpace(out);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipUntil(sql, i + 2, "*/");
+                appendSpace(out);
+            } else if (c == '\'') {
+                i = skipStringLiteral(sql, i + 1);
+                appendPlaceholder(out);
+            } else if (c == '"' || c == '`') {
+                // Quoted identifiers are kept verbatim
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? length : end + 1;
+                out.append(sql, i, Math.min(end, i + MAX_LENGTH - out.length()));
+                i = end;
+            } else if (Character.isDigit(c) && !endsWithIdentifierChar(out)) {
+                i = skipNumber(sql, i);
+                appendPlaceholder(out);
+            } else if (c == '?') {
+                i++;
+                appendPlaceholder(out);
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    private static void appendSpace(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Appends a placeholder unless it continues a placeholder list, so {@code ?, ?, ?} becomes {@code ?}.
+     */
+    private static void appendPlaceholder(StringBuilder out) {
+        int end = out.length();
+        if (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end > 1 && out.charAt(end - 1) == ',' && out.charAt(end - 2) == '?') {
+            out.setLength(end - 1);
+            return;
+        }
+        if (end > 2 && out.charAt(end - 1) == ',' && out.charAt(end - 2) == ' ' && out.charAt(end - 3) == '?') {
+            out.setLength(end - 2);
+            return;
+        }
+        out.append('?');
+    }
+
+    private static boolean endsWithIdentifierChar(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    private static int skipUntil(String sql, int from, String terminator) {
+        int end = sql.indexOf(terminator, from);
+        return end < 0 ? sql.length() : end + terminator.length();
+    }
+
+    private static int skipStringLiteral(String sql, int from) {
+        int i = from;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                // '' is an escaped quote inside the literal
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipNumber(String sql, int from) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.') {
+                i++;
+            } else if ((c == '+' || c == '-') && (sql.charAt(i - 1) == 'e' || sql.charAt(i - 1) == 'E')) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,23 @@
+package com.apimonitor.dbmonitor.sql;
+
+import lombok.Value;
+
+/**
+ * Execution statistics of one SQL fingerprint.
+ */
+@Value
+public class SqlStats {
+
+    String fingerprint;
+    long count;
+    /** Total execution time; may overestimate by up to {@link #totalErrorNanos}. */
+    long totalNanos;
+    /** Upper bound of the overestimation, inherited from the fingerprint this one replaced. */
+    long totalErrorNanos;
+    long maxNanos;
+    long p99Nanos;
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : (totalNanos - totalErrorNanos) / count;
+    }
+}
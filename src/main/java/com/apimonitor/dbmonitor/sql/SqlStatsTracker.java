@@ -0,0 +1,224 @@
+package com.apimonitor.dbmonitor.sql;
+
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.metrics.LatencyHistogram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory heavy-hitters sketch of SQL execution time (weighted space-saving).
+ *
+ * At most {@code capacity} fingerprints are tracked. A new fingerprint arriving when the
+ * sketch is full replaces the one with the lowest total time and inherits that total as its
+ * error bound, so every fingerprint whose true total exceeds the smallest tracked total is
+ * guaranteed to be present. Recording for a tracked fingerprint is lock-free; only admitting
+ * a new fingerprint takes a lock.
+ *
+ * Admission must stay cheap even when most executions bring an untracked fingerprint, e.g.
+ * ad-hoc SQL. Instead of scanning for the minimum on every eviction, one scan collects the
+ * {@code capacity / 8} smallest entries and the following evictions take them in order.
+ * Totals only grow, so a candidate may no longer be the exact minimum when it is evicted;
+ * its current total is what the newcomer inherits, which keeps the error bound honest.
+ */
+public class SqlStatsTracker {
+
+    /** 4 sub-buckets per power of two keep the per-fingerprint histogram at about 1.3 KB. */
+    private static final int HISTOGRAM_PRECISION_BITS = 2;
+
+    /** Slots of the fingerprint cache, a power of two; ORMs reuse a small set of statement strings. */
+    static final int FINGERPRINT_CACHE_SIZE = 1024;
+
+    /** Longer SQL is fingerprinted on every execution, so the cache never holds more than about 1 MB. */
+    static final int MAX_CACHED_SQL_LENGTH = 1024;
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Entry> entries;
+    /** Direct-mapped: a statement evicts whatever occupied its slot, so one-off SQL never accumulates. */
+    private final AtomicReferenceArray<CachedFingerprint> fingerprintCache = new AtomicReferenceArray<>(FINGERPRINT_CACHE_SIZE);
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this: smallest entries of the last scan, smallest first
+    private final ArrayDeque<Entry> evictionCandidates = new ArrayDeque<>();
+    private final int candidatesPerScan;
+    private long candidateScans;
+
+    public SqlStatsTracker(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(capacity * 2);
+        this.candidatesPerScan = Math.max(1, capacity / 8);
+    }
+
+    /**
+     * Records one execution of the given SQL text.
+     */
+    public void record(String sql, long nanos) {
+        recordFingerprint(fingerprint(sql), nanos);
+    }
+
+    void recordFingerprint(String fingerprint, long nanos) {
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            entry = admit(fingerprint);
+        }
+        // A concurrent eviction may drop this sample; the sketch is approximate by design
+        entry.record(nanos);
+    }
+
+    /**
+     * @return the fingerprints with the highest total execution time, highest first
+     */
+    public List<SqlStats> topByTotalTime(int limit) {
+        return top(limit, Comparator.comparingLong(SqlStats::getTotalNanos).reversed());
+    }
+
+    /**
+     * @return the fingerprints with the highest p99 execution time, highest first
+     */
+    public List<SqlStats> topByP99(int limit) {
+        return top(limit, Comparator.comparingLong(SqlStats::getP99Nanos).reversed());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return how often a fingerprint was replaced; a high rate means the capacity is too small for the workload
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    String fingerprint(String sql) {
+        if (sql.length() > MAX_CACHED_SQL_LENGTH) {
+            return SqlFingerprint.of(sql);
+        }
+        int hash = sql.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (FINGERPRINT_CACHE_SIZE - 1);
+        CachedFingerprint cached = fingerprintCache.get(slot);
+        if (cached != null && cached.sql.equals(sql)) {
+            return cached.fingerprint;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        fingerprintCache.set(slot, new CachedFingerprint(sql, fingerprint));
+        return fingerprint;
+    }
+
+    private synchronized Entry admit(String fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        if (entry != null) {
+            return entry;
+        }
+
+        long inheritedNanos = 0;
+        if (entries.size() >= capacity) {
+            Entry evicted = nextEvictionCandidate();
+            entries.remove(evicted.fingerprint);
+            evictions.increment();
+            inheritedNanos = evicted.totalNanos();
+        }
+
+        entry = new Entry(fingerprint, inheritedNanos);
+        entries.put(fingerprint, entry);
+        return entry;
+    }
+
+    private Entry nextEvictionCandidate() {
+        if (evictionCandidates.isEmpty()) {
+            collectEvictionCandidates();
+        }
+        return evictionCandidates.poll();
+    }
+
+    /**
+     * Scans all entries for the {@link #candidatesPerScan} smallest totals.
+     */
+    private void collectEvictionCandidates() {
+        candidateScans++;
+        // Totals are read once so that concurrent recording cannot break the heap order
+        PriorityQueue<Candidate> largestFirst = new PriorityQueue<>(candidatesPerScan + 1,
+                Comparator.comparingLong((Candidate candidate) -> candidate.total).reversed());
+        for (Entry entry : entries.values()) {
+            largestFirst.add(new Candidate(entry, entry.totalNanos()));
+            if (largestFirst.size() > candidatesPerScan) {
+                largestFirst.poll();
+            }
+        }
+        while (!largestFirst.isEmpty()) {
+            evictionCandidates.addFirst(largestFirst.poll().entry);
+        }
+    }
+
+    synchronized long getCandidateScanCount() {
+        return candidateScans;
+    }
+
+    private List<SqlStats> top(int limit, Comparator<SqlStats> order) {
+        List<SqlStats> stats = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            stats.add(entry.stats());
+        }
+        stats.sort(order);
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    private static final class Candidate {
+
+        final Entry entry;
+        final long total;
+
+        Candidate(Entry entry, long total) {
+            this.entry = entry;
+            this.total = total;
+        }
+    }
+
+    private static final class CachedFingerprint {
+
+        final String sql;
+        final String fingerprint;
+
+        CachedFingerprint(String sql, String fingerprint) {
+            this.sql = sql;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final class Entry {
+
+        final String fingerprint;
+        final long errorNanos;
+        final LongAdder ownNanos = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram(HISTOGRAM_PRECISION_BITS, LatencyHistogram.DEFAULT_MAX_EXPONENT);
+
+        Entry(String fingerprint, long errorNanos) {
+            this.fingerprint = fingerprint;
+            this.errorNanos = errorNanos;
+        }
+
+        void record(long nanos) {
+            ownNanos.add(nanos);
+            histogram.record(nanos);
+        }
+
+        long totalNanos() {
+            return errorNanos + ownNanos.sum();
+        }
+
+        SqlStats stats() {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            return new SqlStats(fingerprint, snapshot.getCount(), errorNanos + snapshot.getSum(), errorNanos,
+                    snapshot.getMax(), snapshot.getValueAtQuantile(0.99));
+        }
+    }
+}
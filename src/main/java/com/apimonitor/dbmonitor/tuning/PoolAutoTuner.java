@@ -0,0 +1,160 @@
+package com.apimonitor.dbmonitor.tuning;
+
+import com.apimonitor.dbmonitor.metrics.HistogramSnapshot;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.pool.PoolSettings;
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes HikariCP pools at runtime through {@link HikariConfigMXBean}.
+ *
+ * Every evaluation looks at the sampled pool state and acquire latency since the previous
+ * one and lets a {@link PoolSizeController} per pool decide on a new {@code maximumPoolSize}.
+ * {@code minimumIdle} follows the p90 demand, so idle connections above it are retired by
+ * HikariCP after {@code idleTimeout}. Pools without a sampler are left alone.
+ */
+@Slf4j
+public class PoolAutoTuner implements SmartLifecycle {
+
+    private final TuningSettings settings;
+    private final List<TunedPool> tunedPools = new ArrayList<>();
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    public PoolAutoTuner(MonitoredPoolRegistry poolRegistry, TuningSettings settings) {
+        this.settings = settings;
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            if (pool.getHikariDataSource() == null || pool.getSampler() == null) {
+                log.info("Pool auto-tuning skipped for '{}': requires a HikariCP pool with sampling enabled", pool.getName());
+                continue;
+            }
+            PoolSettings poolSettings = pool.getSettings();
+            int upperBound = poolSettings.getTuningMaxPoolSize() > 0
+                    ? poolSettings.getTuningMaxPoolSize()
+                    : pool.getHikariDataSource().getMaximumPoolSize();
+            tunedPools.add(new TunedPool(pool, new PoolSizeController(poolSettings.getTuningMinPoolSize(), upperBound, settings)));
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || tunedPools.isEmpty()) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-monitor-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.scheduleWithFixedDelay(this::evaluate, settings.getIntervalMillis(), settings.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        for (TunedPool tunedPool : tunedPools) {
+            log.info("Pool auto-tuning enabled for '{}' - Bounds: {} to {}, Connection limit: {}",
+                    tunedPool.pool.getName(), tunedPool.controller.getLowerBound(), tunedPool.controller.getUpperBound(),
+                    settings.getConnectionLimit() > 0 ? settings.getConnectionLimit() : "none");
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs one tuning evaluation over all pools.
+     */
+    void evaluate() {
+        try {
+            Duration window = Duration.ofMillis(settings.getIntervalMillis());
+            long now = System.nanoTime();
+
+            for (TunedPool tunedPool : tunedPools) {
+                MonitoredPool pool = tunedPool.pool;
+                if (pool.getHikariDataSource().getHikariPoolMXBean() == null) {
+                    continue;
+                }
+                HikariConfigMXBean config = pool.getHikariDataSource().getHikariConfigMXBean();
+                int currentMax = config.getMaximumPoolSize();
+
+                PoolWindowStats stats = pool.getSampler().stats(window);
+                long acquireP99 = tunedPool.acquireP99SinceLastEvaluation();
+                int newMax = tunedPool.controller.nextMaximumPoolSize(currentMax, stats, acquireP99, headroom(), now);
+                if (newMax == currentMax) {
+                    continue;
+                }
+
+                int newMinIdle = tunedPool.controller.minimumIdleFor(newMax, stats);
+                if (newMax > currentMax) {
+                    config.setMaximumPoolSize(newMax);
+                    config.setMinimumIdle(newMinIdle);
+                } else {
+                    config.setMinimumIdle(newMinIdle);
+                    config.setMaximumPoolSize(newMax);
+                }
+                log.info("Resized pool '{}' from {} to {} connections (minimum idle: {}) - p90 active: {}, Peak waiting: {}, Acquire p99: {} ms",
+                        pool.getName(), currentMax, newMax, newMinIdle, stats.getP90Active(), stats.getMaxThreadsAwaiting(),
+                        String.format("%.2f", acquireP99 / 1e6));
+            }
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic evaluation
+            log.error("Error during pool auto-tuning", e);
+        }
+    }
+
+    /**
+     * @return how many connections the tuned pools may still grow by in total
+     */
+    private int headroom() {
+        if (settings.getConnectionLimit() <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        int allocated = 0;
+        for (TunedPool tunedPool : tunedPools) {
+            allocated += tunedPool.pool.getHikariDataSource().getMaximumPoolSize();
+        }
+        return settings.getConnectionLimit() - allocated;
+    }
+
+    private static final class TunedPool {
+
+        final MonitoredPool pool;
+        final PoolSizeController controller;
+        HistogramSnapshot lastAcquireSnapshot;
+
+        TunedPool(MonitoredPool pool, PoolSizeController controller) {
+            this.pool = pool;
+            this.controller = controller;
+        }
+
+        long acquireP99SinceLastEvaluation() {
+            if (pool.getMonitoredDataSource() == null) {
+                return 0;
+            }
+            HistogramSnapshot current = pool.getMonitoredDataSource().getAcquireHistogram().snapshot();
+            HistogramSnapshot interval = current.minus(lastAcquireSnapshot);
+            lastAcquireSnapshot = current;
+            return interval.getValueAtQuantile(0.99);
+        }
+    }
+}
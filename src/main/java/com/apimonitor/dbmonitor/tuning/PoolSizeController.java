@@ -0,0 +1,99 @@
+package com.apimonitor.dbmonitor.tuning;
+
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizing decisions for a single pool.
+ *
+ * Growth reacts within one evaluation to waiting threads, slow acquisition or sustained
+ * high utilization. Shrinking needs {@code shrinkAfter} consecutive evaluations below the
+ * low watermark and a cooldown since the last change, and targets a size at which the
+ * observed peak sits between the two watermarks, so a shrink never triggers the next growth.
+ * Not thread-safe; used by the tuner thread only.
+ */
+class PoolSizeController {
+
+    private final int lowerBound;
+    private final int upperBound;
+    private final TuningSettings settings;
+    private final long targetAcquireLatencyNanos;
+    private final long cooldownNanos;
+
+    private int quietEvaluations;
+    private int peakActiveWhileQuiet;
+    private long lastChangeAt;
+    private boolean changedBefore;
+
+    PoolSizeController(int lowerBound, int upperBound, TuningSettings settings) {
+        this.upperBound = Math.max(1, upperBound);
+        this.lowerBound = Math.max(1, Math.min(lowerBound, this.upperBound));
+        this.settings = settings;
+        this.targetAcquireLatencyNanos = TimeUnit.MILLISECONDS.toNanos(settings.getTargetAcquireLatencyMillis());
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(settings.getCooldownMillis());
+    }
+
+    /**
+     * @param currentMax       the pool's current maximumPoolSize
+     * @param window           sampled pool state since the previous evaluation
+     * @param acquireP99Nanos  acquire p99 since the previous evaluation, 0 if unknown
+     * @param headroom         connections that may still be added under the connection limit
+     * @return the new maximumPoolSize, or {@code currentMax} to keep it
+     */
+    int nextMaximumPoolSize(int currentMax, PoolWindowStats window, long acquireP99Nanos, int headroom, long nowNanos) {
+        if (window.isEmpty()) {
+            return currentMax;
+        }
+        int step = Math.max(1, (int) Math.ceil(currentMax * settings.getStepFraction()));
+
+        boolean starved = window.getMaxThreadsAwaiting() > 0
+                || acquireP99Nanos >= targetAcquireLatencyNanos
+                || (double) window.getP90Active() / currentMax >= settings.getHighWatermark();
+        if (starved) {
+            quietEvaluations = 0;
+            int target = Math.min(upperBound, currentMax + Math.min(step, Math.max(0, headroom)));
+            return target > currentMax ? changedTo(target, nowNanos) : currentMax;
+        }
+
+        boolean overProvisioned = (double) window.getMaxActive() / currentMax < settings.getLowWatermark()
+                && acquireP99Nanos < targetAcquireLatencyNanos / 2;
+        if (!overProvisioned) {
+            quietEvaluations = 0;
+            return currentMax;
+        }
+
+        peakActiveWhileQuiet = quietEvaluations == 0 ? window.getMaxActive() : Math.max(peakActiveWhileQuiet, window.getMaxActive());
+        quietEvaluations++;
+        if (quietEvaluations < settings.getShrinkAfter() || (changedBefore && nowNanos - lastChangeAt < cooldownNanos)) {
+            return currentMax;
+        }
+
+        double midpoint = (settings.getLowWatermark() + settings.getHighWatermark()) / 2;
+        int sized = (int) Math.ceil(peakActiveWhileQuiet / midpoint);
+        int target = Math.max(lowerBound, Math.max(sized, currentMax - step));
+        quietEvaluations = 0;
+        return target < currentMax ? changedTo(target, nowNanos) : currentMax;
+    }
+
+    /**
+     * @return the minimumIdle matching a pool size: enough idle connections for the p90 demand
+     */
+    int minimumIdleFor(int maximumPoolSize, PoolWindowStats window) {
+        return Math.min(maximumPoolSize, Math.max(lowerBound, window.getP90Active()));
+    }
+
+    int getLowerBound() {
+        return lowerBound;
+    }
+
+    int getUpperBound() {
+        return upperBound;
+    }
+
+    private int changedTo(int size, long nowNanos) {
+        lastChangeAt = nowNanos;
+        changedBefore = true;
+        return size;
+    }
+}
@@ -0,0 +1,43 @@
+package com.apimonitor.dbmonitor.tuning;
+
+import lombok.Value;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the pool auto-tuner, bound from {@code db.monitor.tuning.*}.
+ * The size bounds of each pool are part of {@link com.apimonitor.dbmonitor.pool.PoolSettings}.
+ */
+@Value
+public class TuningSettings {
+
+    boolean enabled;
+    /** Time between two tuning evaluations; also the observation window of each evaluation. */
+    long intervalMillis;
+    /** Upper limit of the summed maximumPoolSize of all tuned pools, 0 for no limit. */
+    int connectionLimit;
+    /** p90 utilization at or above which a pool grows. */
+    double highWatermark;
+    /** Peak utilization below which a pool counts as over-provisioned. */
+    double lowWatermark;
+    /** Acquire p99 at or above which a pool grows. */
+    long targetAcquireLatencyMillis;
+    /** Consecutive over-provisioned evaluations required before a pool shrinks. */
+    int shrinkAfter;
+    /** Minimum time between a size change and the next shrink. */
+    long cooldownMillis;
+    /** Fraction of the current size a pool grows or shrinks by per step, at least one connection. */
+    double stepFraction;
+
+    public static TuningSettings resolve(Environment environment) {
+        return new TuningSettings(
+                environment.getProperty("db.monitor.tuning.enabled", Boolean.class, false),
+                environment.getProperty("db.monitor.tuning.interval", Long.class, 10000L),
+                environment.getProperty("db.monitor.tuning.connection-limit", Integer.class, 0),
+                environment.getProperty("db.monitor.tuning.high-watermark", Double.class, 0.8),
+                environment.getProperty("db.monitor.tuning.low-watermark", Double.class, 0.5),
+                environment.getProperty("db.monitor.tuning.target-acquire-latency", Long.class, 50L),
+                environment.getProperty("db.monitor.tuning.shrink-after", Integer.class, 6),
+                environment.getProperty("db.monitor.tuning.cooldown", Long.class, 60000L),
+                environment.getProperty("db.monitor.tuning.step-fraction", Double.class, 0.25));
+    }
+}
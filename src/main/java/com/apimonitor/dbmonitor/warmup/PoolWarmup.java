@@ -0,0 +1,215 @@
+package com.apimonitor.dbmonitor.warmup;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens and validates the connections of every pool before the application reports ready,
+ * so the first requests after a deploy do not pay for creating them.
+ *
+ * Runs during context startup, after the web server has started but before readiness
+ * changes to accepting traffic. For each pool, {@code minimumIdle} connections are checked
+ * out in parallel and held until all of them are open, so every physical connection is
+ * validated and runs the pool's {@code warmup.queries}, not just the first one. Then every
+ * {@link WarmupTask} bean runs. The whole warm-up is bounded by {@code warmup.timeout};
+ * whatever has not finished by then is abandoned and startup continues with a colder pool.
+ *
+ * Starts before the sampler, the scheduler and the auto-tuner, so the checkouts are not
+ * mistaken for load. The first monitoring cycle then probes an already warm pool.
+ */
+@Slf4j
+public class PoolWarmup implements SmartLifecycle {
+
+    private final MonitoredPoolRegistry poolRegistry;
+    private final List<WarmupTask> tasks;
+    private final long timeoutMillis;
+
+    private volatile boolean running;
+
+    public PoolWarmup(MonitoredPoolRegistry poolRegistry, List<WarmupTask> tasks, long timeoutMillis) {
+        this.poolRegistry = poolRegistry;
+        this.tasks = tasks;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        warmUp();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the monitor's own components, which start in the default phase.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    /**
+     * Warms up all pools and runs the warm-up tasks, blocking until done or the timeout has elapsed.
+     *
+     * @return false if the warm-up did not complete within the timeout
+     */
+    public boolean warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "db-monitor-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            AtomicInteger warmConnections = new AtomicInteger();
+            List<Future<?>> connections = new ArrayList<>();
+            for (MonitoredPool pool : poolRegistry.getPools()) {
+                int count = connectionCount(pool);
+                CountDownLatch allOpened = new CountDownLatch(count);
+                for (int i = 0; i < count; i++) {
+                    connections.add(executor.submit(() -> warmConnection(pool, allOpened, deadline, warmConnections)));
+                }
+            }
+            boolean complete = awaitAll(connections, deadline);
+
+            if (complete && !tasks.isEmpty()) {
+                List<Future<?>> taskFutures = new ArrayList<>();
+                for (WarmupTask task : tasks) {
+                    taskFutures.add(executor.submit(() -> runTask(task)));
+                }
+                complete = awaitAll(taskFutures, deadline);
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (complete) {
+                log.info("Database warm-up completed in {} ms: {} connections of {} pools validated, {} warm-up tasks run",
+                        elapsedMillis, warmConnections.get(), poolRegistry.getPools().size(), tasks.size());
+            } else {
+                log.warn("Database warm-up did not complete within {} ms ({} connections validated). Continuing startup.",
+                        timeoutMillis, warmConnections.get());
+            }
+            return complete;
+        } finally {
+            // Interrupts whatever is still running at the deadline; its connections are closed on the way out
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmConnection(MonitoredPool pool, CountDownLatch allOpened, long deadline, AtomicInteger warmConnections) {
+        // Straight from HikariCP, so warm-up checkouts are not recorded as application usage
+        DataSource dataSource = pool.getHikariDataSource() != null ? pool.getHikariDataSource() : pool.getDataSource();
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            log.warn("Warm-up could not open a connection of pool '{}': {}", pool.getName(), e.getMessage());
+            allOpened.countDown();
+            return;
+        }
+
+        try (connection) {
+            allOpened.countDown();
+            if (!connection.isValid(remainingSeconds(deadline))) {
+                log.warn("Warm-up found an invalid connection in pool '{}'", pool.getName());
+                return;
+            }
+            for (String query : pool.getSettings().getWarmupQueries()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.setQueryTimeout(remainingSeconds(deadline));
+                    statement.execute(query);
+                }
+            }
+            warmConnections.incrementAndGet();
+
+            // Handing it back earlier would let the next checkout reuse it instead of opening another one
+            allOpened.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (SQLException e) {
+            log.warn("Warm-up of a connection of pool '{}' failed: {}", pool.getName(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runTask(WarmupTask task) {
+        try {
+            task.warmUp();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up task {} failed: {}", task.getClass().getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return false if the deadline passed before all futures completed
+     */
+    private static boolean awaitAll(List<Future<?>> futures, long deadline) {
+        try {
+            for (Future<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // The tasks handle their own failures
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * HikariCP treats an unset {@code minimumIdle} as {@code maximumPoolSize}. Pools that keep
+     * no idle connections, and pools that are not HikariCP, still get one connection validated.
+     */
+    private static int connectionCount(MonitoredPool pool) {
+        HikariDataSource hikariDataSource = pool.getHikariDataSource();
+        if (hikariDataSource == null) {
+            return 1;
+        }
+        int maximumPoolSize = hikariDataSource.getMaximumPoolSize();
+        int minimumIdle = hikariDataSource.getMinimumIdle();
+        return Math.max(1, minimumIdle < 0 || minimumIdle > maximumPoolSize ? maximumPoolSize : minimumIdle);
+    }
+
+    /**
+     * JDBC timeouts are whole seconds and 0 means none, so this never returns less than 1.
+     */
+    private static int remainingSeconds(long deadline) {
+        return (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.apimonitor.dbmonitor.warmup;
+
+/**
+ * Application code run by the startup warm-up once the pools are filled, for example the
+ * repository queries of the hot endpoints, so that their ORM query plans, prepared
+ * statements and code paths are ready before the first request.
+ *
+ * Implementations are picked up as beans and run in parallel with each other, within the
+ * warm-up deadline. Failures are logged and do not stop the application from starting.
+ */
+@FunctionalInterface
+public interface WarmupTask {
+
+    void warmUp() throws Exception;
+}
@@ -0,0 +1,114 @@
+package com.apimonitor.dbmonitor.web;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects requests with {@code 503 Service Unavailable} and a {@code Retry-After} header
+ * while a monitored pool is saturated.
+ *
+ * Without it, every request queues in {@code getConnection()} for up to the pool's
+ * connection timeout and holds a servlet thread meanwhile. The admission check only reads
+ * in-memory pool state, so shedding costs a few volatile reads per request.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    /** Acquire latencies older than this are ignored, so shedding cannot keep itself going. */
+    private static final long LATENCY_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MonitoredPoolRegistry poolRegistry;
+    private final int maxThreadsAwaiting;
+    private final long maxAcquireLatencyNanos;
+    private final long retryAfterSeconds;
+
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final AtomicBoolean shedding = new AtomicBoolean();
+
+    /**
+     * @param maxThreadsAwaiting      reject while at least this many threads wait for a connection, 0 to disable
+     * @param maxAcquireLatencyMillis reject while the recent average acquire time is at least this high, 0 to disable
+     * @param retryAfterSeconds       value of the {@code Retry-After} header
+     */
+    public AdmissionControlFilter(MonitoredPoolRegistry poolRegistry, int maxThreadsAwaiting,
+                                  long maxAcquireLatencyMillis, long retryAfterSeconds) {
+        this.poolRegistry = poolRegistry;
+        this.maxThreadsAwaiting = maxThreadsAwaiting;
+        this.maxAcquireLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxAcquireLatencyMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String rejection = rejectionReason();
+        if (rejection == null) {
+            if (shedding.compareAndSet(true, false)) {
+                log.info("Pool pressure relieved, admitting requests again - Rejected so far: {}", rejectedRequests.sum());
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejectedRequests.increment();
+        if (shedding.compareAndSet(false, true)) {
+            log.warn("Shedding load with 503 responses: {}", rejection);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), rejection);
+        }
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":\"unavailable\",\"reason\":\"database pool saturated\"}");
+    }
+
+    /**
+     * @return why new requests are currently rejected, or null if they are admitted
+     */
+    String rejectionReason() {
+        for (MonitoredPool pool : poolRegistry.getPools()) {
+            HikariDataSource hikariDataSource = pool.getHikariDataSource();
+            HikariPoolMXBean poolMXBean = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+            if (poolMXBean != null && maxThreadsAwaiting > 0) {
+                int threadsAwaiting = poolMXBean.getThreadsAwaitingConnection();
+                if (threadsAwaiting >= maxThreadsAwaiting) {
+                    return "pool '" + pool.getName() + "' has " + threadsAwaiting + " threads waiting for a connection";
+                }
+            }
+
+            MonitoredDataSource monitoredDataSource = pool.getMonitoredDataSource();
+            if (monitoredDataSource != null && maxAcquireLatencyNanos > 0) {
+                long recentAcquireNanos = monitoredDataSource.getRecentAcquireNanos(LATENCY_MAX_AGE_NANOS);
+                if (recentAcquireNanos >= maxAcquireLatencyNanos) {
+                    return "pool '" + pool.getName() + "' acquire time is " + TimeUnit.NANOSECONDS.toMillis(recentAcquireNanos) + " ms";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of requests rejected since startup
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequests.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package com.apimonitor.dbmonitor.web;
+
+import com.apimonitor.dbmonitor.attribution.EndpointAttribution;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Tags the request thread with the handler method of the current request, e.g.
+ * {@code HelloController.getAllMessages}, so that connection checkouts made while handling
+ * it are attributed to that endpoint.
+ */
+public class EndpointAttributionInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            EndpointAttribution.set(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        EndpointAttribution.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The servlet thread goes back to the container while the async part runs elsewhere
+        EndpointAttribution.clear();
+    }
+}
@@ -0,0 +1,101 @@
+package com.apimonitor.dbmonitor.actuate;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the actuator endpoint and the Micrometer meters against an in-memory pool.
+ */
+class DatabaseMonitorEndpointTest {
+
+    private HikariDataSource pool;
+    private MonitoredDataSource dataSource;
+    private MonitoredPoolRegistry registry;
+    private DatabaseConnectionMonitorService monitorService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:endpointtest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(4);
+        dataSource = new MonitoredDataSource(pool);
+        registry = new MonitoredPoolRegistry(Map.of("dataSource", dataSource), new StandardEnvironment(),
+                Duration.ofMillis(5), Duration.ofSeconds(10));
+        registry.start();
+        monitorService = new DatabaseConnectionMonitorService();
+        ReflectionTestUtils.setField(monitorService, "poolRegistry", registry);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection ignored = dataSource.getConnection()) {
+                Thread.sleep(2);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.stop();
+        registry.destroy();
+        pool.close();
+    }
+
+    @Test
+    void testReportIsBuiltFromInMemoryState() throws Exception {
+        DatabaseMonitorEndpoint endpoint = new DatabaseMonitorEndpoint(registry, monitorService, null);
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(50);
+            DatabaseMonitorEndpoint.MonitorReport report = endpoint.report();
+
+            assertTrue(report.isDatabaseAvailable());
+            assertFalse(report.isShutdownInProgress());
+            assertEquals(1, report.getPools().size());
+
+            PoolReport poolReport = report.getPools().get(0);
+            assertEquals("dataSource", poolReport.getName());
+            assertEquals(1, poolReport.getConnections().getActive());
+            assertEquals(4, poolReport.getConnections().getMaximumPoolSize());
+            assertTrue(poolReport.getWindows().getOneSecond().getMaxActive() >= 1, "Sampled windows are included");
+            assertEquals(4, poolReport.getLatency().getLifetimeAcquisitions());
+            assertEquals(1, poolReport.getLatency().getRecentAcquire().getCount(),
+                    "Percentiles cover the recent window, not the checkouts before the endpoint existed");
+            assertEquals(0, poolReport.getProbe().getLifetimeCount(), "Reading the endpoint never probes the database");
+            assertNotNull(poolReport.getBreaker());
+        }
+
+        assertNotNull(endpoint.pool("dataSource"));
+        assertNull(endpoint.pool("unknown"));
+    }
+
+    @Test
+    void testMetersReadMonitorState() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new DatabaseMonitorMetrics(registry, monitorService, null).bindTo(meterRegistry);
+
+        FunctionTimer acquire = meterRegistry.get("dbmonitor.connection.acquire").tag("pool", "dataSource").functionTimer();
+        assertEquals(3, acquire.count(), 0.0);
+        assertEquals(1.0, meterRegistry.get("dbmonitor.available").gauge().value());
+        assertEquals(0.0, meterRegistry.get("dbmonitor.breaker.state").tag("pool", "dataSource").gauge().value());
+
+        MonitoredPool monitoredPool = registry.getPool("dataSource");
+        monitoredPool.recordFailure();
+        assertEquals(1.0, meterRegistry.get("dbmonitor.probe.consecutive.failures").gauge().value());
+    }
+}
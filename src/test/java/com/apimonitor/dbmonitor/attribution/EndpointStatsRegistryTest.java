@@ -0,0 +1,71 @@
+package com.apimonitor.dbmonitor.attribution;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests per-endpoint connection usage accounting.
+ */
+class EndpointStatsRegistryTest {
+
+    @Test
+    void testUsageSinceLastCheckIsOrderedByHoldTime() {
+        EndpointStatsRegistry registry = new EndpointStatsRegistry();
+        registry.statsFor("HelloController.getRecentMessages").recordAcquire(1_000);
+        registry.statsFor("HelloController.getRecentMessages").recordHold(2_000_000);
+        registry.statsFor("HelloController.getAllMessages").recordAcquire(5_000);
+        registry.statsFor("HelloController.getAllMessages").recordHold(40_000_000);
+        registry.statsFor("HelloController.getAllMessages").recordAcquire(5_000);
+        registry.statsFor("HelloController.getAllMessages").recordHold(20_000_000);
+
+        List<EndpointUsage> usage = registry.usageSinceLastCheck();
+        assertEquals(2, usage.size());
+        assertEquals("HelloController.getAllMessages", usage.get(0).getEndpoint());
+        assertEquals(2, usage.get(0).getConnections());
+        assertEquals(30_000_000, usage.get(0).getMeanHoldNanos());
+        assertEquals(5_000, usage.get(0).getMeanAcquireNanos());
+
+        assertTrue(registry.usageSinceLastCheck().isEmpty(), "Usage is reported relative to the previous check");
+        assertEquals(2, registry.statsFor("HelloController.getAllMessages").getConnections());
+    }
+
+    @Test
+    void testDistinctEndpointsAreCapped() {
+        EndpointStatsRegistry registry = new EndpointStatsRegistry();
+        for (int i = 0; i < EndpointStatsRegistry.MAX_ENDPOINTS; i++) {
+            registry.statsFor("endpoint-" + i);
+        }
+        assertEquals(EndpointStatsRegistry.OTHER, registry.statsFor("one-too-many").getEndpoint());
+        assertEquals("endpoint-7", registry.statsFor("endpoint-7").getEndpoint());
+    }
+
+    @Test
+    void testCheckoutsAreAttributedToCurrentEndpoint() throws Exception {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:attributiontest;DB_CLOSE_DELAY=-1");
+            pool.setUsername("sa");
+            pool.setPassword("");
+            MonitoredDataSource dataSource = new MonitoredDataSource(pool);
+
+            EndpointAttribution.set("HelloController.getAllMessages");
+            try (Connection ignored = dataSource.getConnection()) {
+                Thread.sleep(5);
+            } finally {
+                EndpointAttribution.clear();
+            }
+            dataSource.getConnection().close();
+
+            EndpointStatsRegistry registry = dataSource.getEndpointStats();
+            EndpointStats attributed = registry.statsFor("HelloController.getAllMessages");
+            assertEquals(1, attributed.getConnections());
+            assertTrue(attributed.getHoldNanos() >= 5_000_000L);
+            assertEquals(1, registry.statsFor(EndpointAttribution.UNATTRIBUTED).getConnections());
+        }
+    }
+}
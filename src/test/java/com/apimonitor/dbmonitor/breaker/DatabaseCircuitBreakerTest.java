@@ -0,0 +1,75 @@
+package com.apimonitor.dbmonitor.breaker;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the circuit breaker state machine and its fail-fast path in the DataSource wrapper.
+ */
+class DatabaseCircuitBreakerTest {
+
+    @Test
+    void testOpensAtFailureThresholdAndClosesOnProbeSuccess() throws Exception {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker("test", 2, Duration.ofMinutes(1));
+
+        assertFalse(breaker.recordProbeFailure(1));
+        assertTrue(breaker.isAvailable());
+        assertFalse(breaker.acquirePermission(), "A closed breaker lets calls through without a trial");
+
+        assertTrue(breaker.recordProbeFailure(2));
+        assertFalse(breaker.recordProbeFailure(3), "Only the transition reports true");
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertFalse(breaker.isAvailable());
+        assertThrows(DatabaseUnavailableException.class, breaker::acquirePermission);
+        assertEquals(1, breaker.getRejectedCallCount());
+
+        assertTrue(breaker.recordProbeSuccess());
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertFalse(breaker.acquirePermission());
+    }
+
+    @Test
+    void testHalfOpenLetsSingleTrialThrough() throws Exception {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker("test", 1, Duration.ZERO);
+        breaker.recordProbeFailure(1);
+
+        assertTrue(breaker.acquirePermission(), "The open duration has elapsed, so the caller is the trial");
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        breaker.recordTrialFailure();
+        assertEquals(CircuitState.OPEN, breaker.getState());
+
+        assertTrue(breaker.acquirePermission());
+        breaker.recordTrialSuccess();
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testOpenBreakerFailsGetConnectionFast() throws Exception {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:breakertest;DB_CLOSE_DELAY=-1");
+            pool.setUsername("sa");
+            pool.setPassword("");
+            MonitoredDataSource dataSource = new MonitoredDataSource(pool);
+            DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker("dataSource", 1, Duration.ofMinutes(1));
+            dataSource.setCircuitBreaker(breaker);
+
+            dataSource.getConnection().close();
+            breaker.recordProbeFailure(1);
+
+            long start = System.nanoTime();
+            SQLTransientConnectionException e = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(50).toNanos(), "Rejection must not wait for the pool");
+            assertInstanceOf(DatabaseUnavailableException.class, e);
+            assertEquals(0, pool.getHikariPoolMXBean().getActiveConnections());
+
+            breaker.recordProbeSuccess();
+            dataSource.getConnection().close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import com.apimonitor.dbmonitor.attribution.EndpointAttribution;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests checkout tracking and leak reports against an in-memory H2 pool.
+ */
+class ConnectionLeakTrackerTest {
+
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:leaktest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testSampledCheckoutReportsCallSiteOnce() throws Exception {
+        MonitoredDataSource dataSource = new MonitoredDataSource(pool, 1.0, 0);
+        ConnectionLeakTracker tracker = dataSource.getLeakTracker();
+
+        try (Connection ignored = dataSource.getConnection()) {
+            List<HeldConnection> suspects = tracker.newLeakSuspects(0);
+            assertEquals(1, suspects.size());
+            HeldConnection suspect = suspects.get(0);
+            assertEquals(Thread.currentThread().getName(), suspect.getOwnerThreadName());
+            assertEquals(getClass().getName(), suspect.getAcquisitionStack()[0].getClassName(),
+                    "Acquisition stack must start at the caller of getConnection()");
+            assertNull(suspect.getOwnerStack());
+
+            assertTrue(tracker.newLeakSuspects(0).isEmpty(), "A suspect is reported only once");
+            assertEquals(1, tracker.longestHeld(5).size());
+        }
+
+        assertTrue(tracker.longestHeld(5).isEmpty());
+    }
+
+    @Test
+    void testUnsampledCheckoutCapturesOwnerStackLazily() throws Exception {
+        MonitoredDataSource dataSource = new MonitoredDataSource(pool, 0.0, 0);
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread owner = new Thread(() -> {
+            try (Connection ignored = dataSource.getConnection()) {
+                acquired.countDown();
+                done.await();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, "leaking-thread");
+        owner.start();
+        acquired.await();
+
+        try {
+            HeldConnection suspect = dataSource.getLeakTracker().newLeakSuspects(0).get(0);
+            assertEquals("leaking-thread", suspect.getOwnerThreadName());
+            assertNull(suspect.getAcquisitionStack());
+            assertNotNull(suspect.getOwnerStack());
+        } finally {
+            done.countDown();
+            owner.join();
+        }
+    }
+
+    @Test
+    void testLongestHeldConnectionsComeFirst() throws Exception {
+        MonitoredDataSource dataSource = new MonitoredDataSource(pool, 0.0, 0);
+        try (Connection first = dataSource.getConnection()) {
+            Thread.sleep(20);
+            try (Connection second = dataSource.getConnection()) {
+                List<HeldConnection> held = dataSource.getLeakTracker().longestHeld(1);
+                assertEquals(1, held.size());
+                assertTrue(held.get(0).getHeldNanos() >= 20_000_000L);
+            }
+        }
+    }
+
+    @Test
+    void testFullTableCountsUntrackedCheckouts() {
+        ConnectionLeakTracker tracker = new ConnectionLeakTracker(1, 0.0);
+        MonitoredDataSource dataSource = new MonitoredDataSource(pool, 0.0, 0);
+        assertEquals(0, tracker.track(placeholder(dataSource)));
+        assertEquals(-1, tracker.track(placeholder(dataSource)));
+        assertEquals(1, tracker.getUntrackedCount());
+    }
+
+    private static MonitoredConnection placeholder(MonitoredDataSource dataSource) {
+        return new MonitoredConnection(null, dataSource, System.nanoTime(), null,
+                dataSource.getEndpointStats().statsFor(EndpointAttribution.UNATTRIBUTED), null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.apimonitor.dbmonitor.datasource;
+
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The instrumented pool bean must still be injectable as a {@link HikariDataSource}.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.hikari.maximum-pool-size=3",
+    "db.monitor.shutdown.exit-jvm=false"
+})
+class MonitoredDataSourceBeanPostProcessorTest {
+
+    @Autowired
+    HikariDataSource hikariDataSource;
+
+    @Autowired
+    MonitoredPoolRegistry poolRegistry;
+
+    @Test
+    void testPoolBeanKeepsItsTypeAndIsMonitored() throws Exception {
+        MonitoredPool pool = poolRegistry.getPool("dataSource");
+        MonitoredDataSource monitoredDataSource = hikariDataSource.unwrap(MonitoredDataSource.class);
+        assertSame(pool.getMonitoredDataSource(), monitoredDataSource);
+        assertEquals(3, hikariDataSource.getMaximumPoolSize(), "Configuration is read from the pool itself");
+        assertNotSame(hikariDataSource, pool.getHikariDataSource(), "The monitor must see the pool, not the proxy");
+
+        long acquisitions = monitoredDataSource.getAcquireHistogram().snapshot().getCount();
+        try (Connection connection = hikariDataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+        assertEquals(acquisitions + 1, monitoredDataSource.getAcquireHistogram().snapshot().getCount(),
+                "Connections taken from the injected pool are measured");
+    }
+}
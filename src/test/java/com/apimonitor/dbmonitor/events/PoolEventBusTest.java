@@ -0,0 +1,171 @@
+package com.apimonitor.dbmonitor.events;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.service.DatabaseConnectionMonitorService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the single-producer queue, asynchronous delivery and edge-triggered event detection.
+ */
+class PoolEventBusTest {
+
+    @Test
+    void testQueueIsBoundedAndFifo() {
+        SpscEventQueue<Integer> queue = new SpscEventQueue<>(3);
+        assertEquals(4, queue.capacity(), "Capacity is rounded up to a power of two");
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(queue.offer(i));
+            }
+            assertFalse(queue.offer(4), "A full queue rejects instead of blocking");
+            assertEquals(4, queue.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, queue.poll());
+            }
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    void testQueueHandsOverBetweenThreads() throws Exception {
+        SpscEventQueue<Long> queue = new SpscEventQueue<>(64);
+        int count = 10_000;
+        long[] received = new long[1];
+        boolean[] ordered = {true};
+        Thread consumer = new Thread(() -> {
+            long expected = 0;
+            while (expected < count) {
+                Long value = queue.poll();
+                if (value == null) {
+                    // Yield rather than spin, so the producer gets the CPU on single-core machines
+                    Thread.yield();
+                    continue;
+                }
+                ordered[0] &= value == expected;
+                expected++;
+            }
+            received[0] = expected;
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+
+        for (long i = 0; i < count; i++) {
+            while (!queue.offer(i)) {
+                Thread.yield();
+            }
+        }
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertFalse(consumer.isAlive(), "Consumer did not receive every element within 30 seconds");
+        assertEquals(count, received[0]);
+        assertTrue(ordered[0], "Elements arrive in the order they were offered");
+    }
+
+    @Test
+    void testSlowListenerDoesNotBlockPublisher() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<PoolEvent> fastEvents = new LinkedBlockingQueue<>();
+        PoolEventListener slow = event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        PoolEventBus bus = new PoolEventBus(List.of(slow, fastEvents::add), 16);
+        bus.start();
+        try {
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < 16; i++) {
+                    bus.publish(new PoolEvent(PoolEventType.PROBE_FAILED, "dataSource", 0, -1, round * 16 + i));
+                }
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Publishing never waits for a listener");
+
+                for (int i = 0; i < 16; i++) {
+                    PoolEvent event = fastEvents.poll(5, TimeUnit.SECONDS);
+                    assertNotNull(event, "The fast listener receives every event");
+                    assertEquals(round * 16 + i, event.getConsecutiveFailures());
+                }
+            }
+            assertTrue(bus.getDroppedEventCount() > 0, "Events beyond the slow listener's queue are dropped");
+        } finally {
+            release.countDown();
+            bus.stop();
+        }
+    }
+
+    @Test
+    void testDetectorPublishesTransitionsOnly() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:eventtest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(2);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("db.monitor.pools.dataSource.max-failure-threshold", 2)));
+        MonitoredPoolRegistry registry = new MonitoredPoolRegistry(Map.of("dataSource", new MonitoredDataSource(pool)),
+                environment, null, Duration.ofSeconds(10));
+        DatabaseConnectionMonitorService monitorService = new DatabaseConnectionMonitorService();
+        ReflectionTestUtils.setField(monitorService, "poolRegistry", registry);
+
+        BlockingQueue<PoolEvent> events = new LinkedBlockingQueue<>();
+        PoolEventBus bus = new PoolEventBus(List.of(events::add), 16);
+        bus.start();
+        PoolEventDetector detector = new PoolEventDetector(registry, monitorService, bus);
+        MonitoredPool monitoredPool = registry.getPool("dataSource");
+        try {
+            detector.detect();
+            assertNull(events.poll(100, TimeUnit.MILLISECONDS), "A healthy, idle pool raises nothing");
+
+            try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+                detector.detect();
+                detector.detect();
+                PoolEvent saturated = events.poll(5, TimeUnit.SECONDS);
+                assertEquals(PoolEventType.SATURATION_ENTERED, saturated.getType());
+                assertEquals("dataSource", saturated.getPoolName());
+                assertEquals(1.0, saturated.getUtilization());
+            }
+            detector.detect();
+            assertEquals(PoolEventType.SATURATION_LEFT, events.poll(5, TimeUnit.SECONDS).getType());
+
+            monitoredPool.recordFailure();
+            detector.detect();
+            monitoredPool.recordFailure();
+            detector.detect();
+            detector.detect();
+            assertEquals(PoolEventType.PROBE_FAILED, events.poll(5, TimeUnit.SECONDS).getType());
+            PoolEvent threshold = events.poll(5, TimeUnit.SECONDS);
+            assertEquals(PoolEventType.FAILURE_THRESHOLD_CROSSED, threshold.getType());
+            assertEquals(2, threshold.getConsecutiveFailures());
+
+            monitoredPool.recordSuccess();
+            detector.detect();
+            assertEquals(PoolEventType.PROBE_RECOVERED, events.poll(5, TimeUnit.SECONDS).getType());
+            assertNull(events.poll(100, TimeUnit.MILLISECONDS), "Every transition is published once");
+        } finally {
+            bus.stop();
+            registry.destroy();
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.apimonitor.dbmonitor.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Holt trend saturation forecaster.
+ */
+class SaturationForecasterTest {
+
+    private static final ForecastSettings SETTINGS = new ForecastSettings(true, 30_000, 250, 0.5, 0.3, 0.5);
+
+    @Test
+    void testSteadyLoadNeverSaturates() {
+        SaturationForecaster forecaster = new SaturationForecaster(SETTINGS);
+        for (int i = 0; i < 40; i++) {
+            forecaster.smooth(0.6, 0);
+        }
+
+        SaturationForecast forecast = forecaster.getLatest();
+        assertEquals(0.6, forecast.getUtilization(), 0.01);
+        assertFalse(forecast.isSaturating());
+        assertFalse(forecast.isWarning());
+    }
+
+    @Test
+    void testRisingUtilizationRaisesWarningBeforeSaturation() {
+        SaturationForecaster forecaster = new SaturationForecaster(SETTINGS);
+        // +1% per 250 ms step, i.e. +4%/s starting at 40%
+        for (int i = 0; i <= 20; i++) {
+            forecaster.smooth(0.4 + i * 0.01, 0);
+        }
+
+        SaturationForecast forecast = forecaster.getLatest();
+        assertEquals(0.04, forecast.getUtilizationTrendPerSecond(), 0.01);
+        // 40% left at 4%/s is about 10 seconds, well inside the 30 second horizon
+        assertTrue(forecast.getSecondsToSaturation() > 5 && forecast.getSecondsToSaturation() < 15,
+                "Unexpected estimate: " + forecast.getSecondsToSaturation());
+        assertTrue(forecast.isWarning());
+    }
+
+    @Test
+    void testLowUtilizationDoesNotWarnDespiteTrend() {
+        SaturationForecaster forecaster = new SaturationForecaster(SETTINGS);
+        for (int i = 0; i <= 20; i++) {
+            forecaster.smooth(0.05 + i * 0.01, 0);
+        }
+        assertTrue(forecaster.getLatest().isSaturating());
+        assertFalse(forecaster.getLatest().isWarning());
+    }
+
+    @Test
+    void testWaitingThreadsMeanSaturatedAndWarningClearsWithHysteresis() {
+        SaturationForecaster forecaster = new SaturationForecaster(SETTINGS);
+        for (int i = 0; i < 10; i++) {
+            forecaster.smooth(1.0, 3);
+        }
+        assertEquals(0.0, forecaster.getLatest().getSecondsToSaturation());
+        assertTrue(forecaster.getLatest().isWarning());
+
+        for (int i = 0; i < 40; i++) {
+            forecaster.smooth(0.3, 0);
+        }
+        assertTrue(forecaster.getLatest().getSecondsToSaturation() > 45);
+        assertFalse(forecaster.getLatest().isWarning());
+    }
+
+    @Test
+    void testRawSamplesAreAveragedPerStep() {
+        SaturationForecaster forecaster = new SaturationForecaster(SETTINGS);
+        long stepNanos = TimeUnit.MILLISECONDS.toNanos(250);
+        long now = 0;
+        for (int i = 0; i < 50; i++) {
+            forecaster.update(now, i % 2 == 0 ? 4 : 6, 10, 0);
+            now += stepNanos / 50;
+        }
+        assertNull(forecaster.getLatest());
+
+        forecaster.update(now + stepNanos, 5, 10, 0);
+        assertEquals(0.5, forecaster.getLatest().getUtilization(), 0.01);
+    }
+}
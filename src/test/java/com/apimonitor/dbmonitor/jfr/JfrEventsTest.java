@@ -0,0 +1,125 @@
+package com.apimonitor.dbmonitor.jfr;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that checkouts and pool snapshots of an in-memory H2 pool show up in a JFR recording.
+ */
+class JfrEventsTest {
+
+    private static final String ACQUIRE = "com.apimonitor.dbmonitor.ConnectionAcquire";
+    private static final String HOLD = "com.apimonitor.dbmonitor.ConnectionHold";
+    private static final String SNAPSHOT = "com.apimonitor.dbmonitor.PoolSnapshot";
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:jfrtest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testCheckoutEmitsAcquireAndHoldEvents() throws Exception {
+        MonitoredDataSource dataSource = new MonitoredDataSource(pool);
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(ACQUIRE).withThreshold(Duration.ZERO);
+            recording.enable(HOLD).withThreshold(Duration.ZERO);
+            recording.start();
+            try (Connection connection = dataSource.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+            recording.stop();
+            events = read(recording);
+        }
+
+        RecordedEvent acquire = single(events, ACQUIRE);
+        assertEquals(pool.getPoolName(), acquire.getString("poolName"));
+        assertTrue(acquire.getBoolean("success"));
+        assertNotNull(acquire.getStackTrace(), "The acquire event shows who waited");
+
+        RecordedEvent hold = single(events, HOLD);
+        assertEquals(pool.getPoolName(), hold.getString("poolName"));
+        assertNull(hold.getStackTrace());
+    }
+
+    @Test
+    void testCheckoutEventsAreNotCreatedWithoutRecording() throws Exception {
+        assertNull(ConnectionAcquireEvent.beginIfEnabled(), "Nothing is allocated while no recording wants the event");
+        assertNull(ConnectionHoldEvent.beginIfEnabled(), "Nothing is allocated while no recording wants the event");
+    }
+
+    @Test
+    void testRegistryEmitsPoolSnapshots() throws Exception {
+        MonitoredPoolRegistry registry = new MonitoredPoolRegistry(Map.of("dataSource", new MonitoredDataSource(pool)),
+                new StandardEnvironment(), null, Duration.ofSeconds(10));
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(SNAPSHOT).withPeriod(Duration.ofMillis(50));
+            registry.start();
+            recording.start();
+            try (Connection ignored = pool.getConnection()) {
+                Thread.sleep(300);
+            }
+            recording.stop();
+            events = read(recording);
+        } finally {
+            registry.stop();
+            registry.destroy();
+        }
+
+        List<RecordedEvent> snapshots = events.stream().filter(event -> is(event, SNAPSHOT)).toList();
+        assertFalse(snapshots.isEmpty());
+        RecordedEvent snapshot = snapshots.get(snapshots.size() - 1);
+        assertEquals("dataSource", snapshot.getString("poolName"));
+        assertEquals(2, snapshot.getInt("maximumPoolSize"));
+        assertTrue(snapshots.stream().anyMatch(event -> event.getInt("activeConnections") == 1),
+                "A snapshot taken while the connection was held counts it as active");
+    }
+
+    private List<RecordedEvent> read(Recording recording) throws Exception {
+        Path file = tempDir.resolve("recording.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(event -> is(event, name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private static boolean is(RecordedEvent event, String name) {
+        return event.getEventType().getName().equals(name);
+    }
+}
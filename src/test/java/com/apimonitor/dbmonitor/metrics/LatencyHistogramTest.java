@@ -0,0 +1,108 @@
+package com.apimonitor.dbmonitor.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the log-bucketed latency histogram.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketIndexesAreContiguous() {
+        int precisionBits = LatencyHistogram.DEFAULT_PRECISION_BITS;
+        int previous = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value, precisionBits);
+            assertTrue(index == previous || index == previous + 1, "Bucket gap at value " + value);
+            assertTrue(value <= LatencyHistogram.bucketUpperBound(index, precisionBits));
+            previous = index;
+        }
+    }
+
+    @Test
+    void testPercentilesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMax());
+        assertEquals(5_000_000, snapshot.getValueAtQuantile(0.50), 5_000_000 * 0.125);
+        assertEquals(9_900_000, snapshot.getValueAtQuantile(0.99), 9_900_000 * 0.125);
+        assertEquals(5_000_500, snapshot.getMean(), 1.0);
+    }
+
+    @Test
+    void testLiveReadsMatchSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000; value++) {
+            histogram.record(value * 10_000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.getCount(), histogram.count());
+        assertEquals(snapshot.getSum(), histogram.sum());
+        assertEquals(snapshot.getMax(), histogram.max());
+        assertEquals(snapshot.getValueAtQuantile(0.99), histogram.valueAtQuantile(0.99));
+        assertEquals(0, new LatencyHistogram().valueAtQuantile(0.99));
+    }
+
+    @Test
+    void testIntervalSnapshotOnlyContainsNewValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_000_000L);
+        HistogramSnapshot first = histogram.snapshot();
+
+        histogram.record(1_000);
+        histogram.record(2_000);
+        HistogramSnapshot interval = histogram.snapshot().minus(first);
+
+        assertEquals(2, interval.getCount());
+        assertEquals(3_000, interval.getSum());
+        assertTrue(interval.getValueAtQuantile(1.0) < 3_000);
+    }
+
+    @Test
+    void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(1, 10);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtQuantile(0.5));
+        assertEquals((1L << 11) - 1, snapshot.getMax());
+    }
+
+    @Test
+    void testRecentHistogramForgetsOlderValues() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000_000_000);
+        }
+        RecentHistogram recent = new RecentHistogram(histogram, Duration.ofMillis(50));
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+
+        RecentHistogram.Window window = recent.read();
+        assertEquals(10, window.getDistribution().getCount(), "Values before the first snapshot are not recent");
+        assertTrue(window.getDistribution().getValueAtQuantile(0.99) < 1_200_000);
+
+        Thread.sleep(60);
+        recent.read();
+        Thread.sleep(60);
+        for (int i = 0; i < 5; i++) {
+            histogram.record(2_000_000);
+        }
+        window = recent.read();
+        assertEquals(5, window.getDistribution().getCount(), "The window rotated past the 1 ms values");
+        assertTrue(window.getNanos() >= 50_000_000 && window.getNanos() < 1_000_000_000L);
+    }
+}
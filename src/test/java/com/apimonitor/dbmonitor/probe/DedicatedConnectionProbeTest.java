@@ -0,0 +1,115 @@
+package com.apimonitor.dbmonitor.probe;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the out-of-pool health probe against an in-memory H2 database.
+ */
+class DedicatedConnectionProbeTest {
+
+    private HikariDataSource pool;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:probetest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(1);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testProbeDoesNotUsePoolConnections() throws Exception {
+        DataSource unpooled = DedicatedConnectionProbe.unpooledDataSource(pool);
+        assertNotNull(unpooled, "Pool configured with a JDBC URL should be replicable");
+
+        try (DedicatedConnectionProbe probe = new DedicatedConnectionProbe("test", unpooled, "SELECT 1", 1000, executor);
+             var borrowed = pool.getConnection()) {
+            // The only pooled connection is taken; the probe must still succeed immediately
+            assertTrue(borrowed.isValid(1));
+            assertTrue(probe.probe());
+            assertEquals(1, pool.getHikariPoolMXBean().getActiveConnections());
+        }
+    }
+
+    @Test
+    void testIsValidValidation() throws Exception {
+        try (DedicatedConnectionProbe probe = new DedicatedConnectionProbe("test",
+                DedicatedConnectionProbe.unpooledDataSource(pool), null, 1000, executor)) {
+            assertTrue(probe.probe());
+            assertTrue(probe.probe());
+        }
+    }
+
+    @Test
+    void testConnectionIsReestablishedAfterAbort() throws Exception {
+        try (DedicatedConnectionProbe probe = new DedicatedConnectionProbe("test",
+                DedicatedConnectionProbe.unpooledDataSource(pool), "SELECT 1", 1000, executor)) {
+            assertTrue(probe.probe());
+            probe.abort();
+            assertTrue(probe.probe(), "Probe should reconnect lazily after an abort");
+        }
+    }
+
+    @Test
+    void testConnectIsBoundedByTheDeadline() throws Exception {
+        CountDownLatch databaseResponds = new CountDownLatch(1);
+        AtomicInteger connects = new AtomicInteger();
+        DataSource unresponsive = new DelegatingDataSource(DedicatedConnectionProbe.unpooledDataSource(pool)) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connects.incrementAndGet();
+                try {
+                    databaseResponds.await();
+                } catch (InterruptedException e) {
+                    throw new SQLException(e);
+                }
+                return super.getConnection();
+            }
+        };
+
+        try (DedicatedConnectionProbe probe = new DedicatedConnectionProbe("test", unresponsive, "SELECT 1", 200, executor)) {
+            long start = System.nanoTime();
+            assertThrows(SQLTimeoutException.class, probe::probe);
+            assertTrue(System.nanoTime() - start < 2_000_000_000L, "Connect must not outlive the deadline");
+            assertThrows(SQLTimeoutException.class, probe::probe);
+            assertEquals(1, connects.get(), "A connect still running is taken over, not started again");
+
+            databaseResponds.countDown();
+            assertTrue(probe.probe());
+            assertEquals(1, connects.get());
+        }
+    }
+
+    @Test
+    void testFailingQueryThrows() {
+        try (DedicatedConnectionProbe probe = new DedicatedConnectionProbe("test",
+                DedicatedConnectionProbe.unpooledDataSource(pool), "SELECT * FROM missing_table", 1000, executor)) {
+            assertThrows(SQLException.class, probe::probe);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.apimonitor.dbmonitor.recorder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the memory-mapped flight recording and its reader.
+ */
+class FlightRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsAreReadBackInOrder() throws IOException {
+        Path file = directory.resolve("flight.rec");
+        try (FlightRecorder recorder = FlightRecorder.create(file, 16, TimeUnit.MILLISECONDS.toNanos(100))) {
+            PoolRecorder primary = recorder.forPool("primary");
+            PoolRecorder reporting = recorder.forPool("reporting");
+
+            primary.recordSample(0, 3, 7, 10, 0, 10);
+            primary.recordSample(TimeUnit.MILLISECONDS.toNanos(50), 9, 1, 10, 4, 10);
+            primary.recordSample(TimeUnit.MILLISECONDS.toNanos(100), 10, 0, 10, 6, 10);
+            reporting.recordProbe(false, 2, 5_000_000);
+            reporting.recordBreaker(true);
+            primary.recordLatency(120, 2_000_000, 30_000_000);
+            primary.recordShutdown(0);
+        }
+
+        FlightRecordReader reader = FlightRecordReader.read(file);
+        assertEquals(List.of("primary", "reporting"), reader.getPools());
+        List<FlightRecord> records = reader.getRecords();
+        assertEquals(6, records.size(), "The sample within the sample interval is skipped");
+
+        FlightRecord sample = records.get(1);
+        assertEquals(FlightRecordType.SAMPLE, sample.getType());
+        assertEquals("primary", sample.getPool());
+        assertEquals(10, sample.getA());
+        assertEquals(6, sample.getX());
+
+        FlightRecord probe = records.get(2);
+        assertEquals(FlightRecordType.PROBE, probe.getType());
+        assertEquals("reporting", probe.getPool());
+        assertEquals(0, probe.getA());
+        assertEquals(5_000_000, probe.getX());
+
+        assertEquals(FlightRecordType.SHUTDOWN, records.get(5).getType());
+        assertTrue(FlightRecordReader.format(probe).contains("FAILURE failures=2 duration=5.0ms"));
+    }
+
+    @Test
+    void testRingKeepsNewestRecords() throws IOException {
+        Path file = directory.resolve("ring.rec");
+        try (FlightRecorder recorder = FlightRecorder.create(file, 8, 0)) {
+            PoolRecorder pool = recorder.forPool("dataSource");
+            for (int i = 0; i < 20; i++) {
+                pool.recordProbe(true, 0, i);
+            }
+        }
+
+        List<FlightRecord> records = FlightRecordReader.read(file).getRecords();
+        assertEquals(8, records.size());
+        assertEquals(13, records.get(0).getSequence());
+        assertEquals(19, records.get(7).getX());
+    }
+
+    @Test
+    void testPreviousRecordingIsKept() throws IOException {
+        Path file = directory.resolve("restart.rec");
+        try (FlightRecorder recorder = FlightRecorder.create(file, 4, 0)) {
+            recorder.forPool("first-run").recordShutdown(0);
+        }
+        try (FlightRecorder recorder = FlightRecorder.create(file, 4, 0)) {
+            recorder.forPool("second-run");
+        }
+
+        FlightRecordReader previous = FlightRecordReader.read(directory.resolve("restart.rec.previous"));
+        assertEquals(List.of("first-run"), previous.getPools());
+        assertEquals(1, previous.getRecords().size());
+        assertTrue(FlightRecordReader.read(file).getRecords().isEmpty());
+    }
+
+    @Test
+    void testRecordingSurvivesHaltedJvm() throws Exception {
+        Path file = directory.resolve("crash.rec");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                CrashingWriter.class.getName(), file.toString())
+                .inheritIO()
+                .start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        assertEquals(3, process.exitValue());
+
+        List<FlightRecord> records = FlightRecordReader.read(file).getRecords();
+        assertEquals(100, records.size(), "Records written without close or flush survive the process");
+        assertEquals(99, records.get(99).getX());
+    }
+
+    @Test
+    void testRejectsForeignFiles() throws IOException {
+        Path file = directory.resolve("not-a-recording.rec");
+        Files.write(file, new byte[8192]);
+        assertThrows(IOException.class, () -> FlightRecordReader.read(file));
+    }
+
+    /**
+     * Writes records and halts the JVM without closing the recorder or running shutdown hooks.
+     */
+    static class CrashingWriter {
+
+        public static void main(String[] args) throws IOException {
+            FlightRecorder recorder = FlightRecorder.create(Path.of(args[0]), 1024, 0);
+            PoolRecorder pool = recorder.forPool("dataSource");
+            for (int i = 0; i < 100; i++) {
+                pool.recordProbe(true, 0, i);
+            }
+            Runtime.getRuntime().halt(3);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.apimonitor.dbmonitor.sampler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free pool sample ring buffer.
+ */
+class PoolSampleRingTest {
+
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(16, new PoolSampleRing(10).capacity());
+        assertEquals(16, new PoolSampleRing(16).capacity());
+    }
+
+    @Test
+    void testWindowOnlyIncludesRecentSamples() {
+        PoolSampleRing ring = new PoolSampleRing(64);
+        long now = 1_000 * MILLI;
+
+        // An old spike outside the window followed by a quiet period
+        ring.record(now - 500 * MILLI, 10, 0, 10, 4);
+        for (int i = 9; i >= 0; i--) {
+            ring.record(now - i * MILLI, 2, 8, 10, 0);
+        }
+
+        PoolWindowStats recent = ring.stats(100 * MILLI, now, 10);
+        assertEquals(10, recent.getSampleCount());
+        assertEquals(2, recent.getMaxActive());
+        assertEquals(0, recent.getMaxThreadsAwaiting());
+        assertEquals(0.2, recent.getMaxUtilization(), 1e-9);
+
+        PoolWindowStats all = ring.stats(1_000 * MILLI, now, 10);
+        assertEquals(11, all.getSampleCount());
+        assertEquals(10, all.getMaxActive());
+        assertEquals(4, all.getMaxThreadsAwaiting());
+        assertEquals(1.0, all.getMaxUtilization(), 1e-9);
+    }
+
+    @Test
+    void testPercentilesOfActiveConnections() {
+        PoolSampleRing ring = new PoolSampleRing(128);
+        long now = 1_000 * MILLI;
+        for (int i = 0; i < 100; i++) {
+            int active = i < 90 ? 1 : 9;
+            ring.record(now - (99 - i) * MILLI, active, 10 - active, 10, 0);
+        }
+
+        PoolWindowStats stats = ring.stats(1_000 * MILLI, now, 10);
+        assertEquals(100, stats.getSampleCount());
+        assertEquals(1, stats.getP50Active());
+        assertEquals(1, stats.getP90Active());
+        assertEquals(9, stats.getP99Active());
+    }
+
+    @Test
+    void testOverwrittenSamplesAreDropped() {
+        PoolSampleRing ring = new PoolSampleRing(8);
+        long now = 1_000 * MILLI;
+        for (int i = 19; i >= 0; i--) {
+            ring.record(now - i * MILLI, 1, 0, 1, 0);
+        }
+
+        assertEquals(20, ring.sampleCount());
+        assertEquals(8, ring.stats(1_000 * MILLI, now, 1).getSampleCount());
+    }
+
+    @Test
+    void testEmptyRing() {
+        PoolWindowStats stats = new PoolSampleRing(8).stats(MILLI, 0, 10);
+        assertTrue(stats.isEmpty());
+        assertEquals(0.0, stats.getMaxUtilization());
+    }
+}
@@ -0,0 +1,45 @@
+package com.apimonitor.dbmonitor.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the adaptive monitoring interval policy.
+ */
+class MonitoringCadenceTest {
+
+    @Test
+    void testPressureSwitchesToMinimumInterval() {
+        MonitoringCadence cadence = new MonitoringCadence(30_000, 1_000, 120_000, 2.0);
+        assertEquals(1_000, cadence.nextIntervalMillis(PoolPressure.ELEVATED));
+        assertEquals(1_000, cadence.nextIntervalMillis(PoolPressure.ELEVATED));
+        assertEquals(30_000, cadence.nextIntervalMillis(PoolPressure.NORMAL));
+    }
+
+    @Test
+    void testQuietPoolsBackOffUpToMaximum() {
+        MonitoringCadence cadence = new MonitoringCadence(30_000, 1_000, 120_000, 2.0);
+        assertEquals(60_000, cadence.nextIntervalMillis(PoolPressure.QUIET));
+        assertEquals(120_000, cadence.nextIntervalMillis(PoolPressure.QUIET));
+        assertEquals(120_000, cadence.nextIntervalMillis(PoolPressure.QUIET));
+
+        // Pressure during a long backoff takes effect immediately
+        assertEquals(1_000, cadence.nextIntervalMillis(PoolPressure.ELEVATED));
+        assertEquals(60_000, cadence.nextIntervalMillis(PoolPressure.QUIET));
+    }
+
+    @Test
+    void testFixedCadenceIgnoresPressure() {
+        MonitoringCadence cadence = MonitoringCadence.fixed(30_000);
+        assertEquals(30_000, cadence.nextIntervalMillis(PoolPressure.ELEVATED));
+        assertEquals(30_000, cadence.nextIntervalMillis(PoolPressure.QUIET));
+    }
+
+    @Test
+    void testInvalidIntervalsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MonitoringCadence(1_000, 5_000, 10_000, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new MonitoringCadence(30_000, 1_000, 10_000, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new MonitoringCadence(30_000, 1_000, 120_000, 0.5));
+    }
+}
@@ -0,0 +1,92 @@
+package com.apimonitor.dbmonitor.service;
+
+import com.apimonitor.dbmonitor.breaker.CircuitState;
+import com.apimonitor.dbmonitor.pool.MonitoredPool;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.apimonitor.dbmonitor.probe.DedicatedConnectionProbe;
+import com.apimonitor.dbmonitor.probe.PooledHealthProbe;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A pool whose every connection is held by the application is saturated, not down:
+ * health probes must neither open the circuit breaker nor start a drain.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:saturated;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.hikari.maximum-pool-size=1",
+    "spring.datasource.hikari.connection-timeout=2000",
+    "db.monitor.monitoring-interval=1000",
+    "db.monitor.probe.timeout=1000",
+    "db.monitor.max-failure-threshold=2",
+    "db.monitor.shutdown.drain-timeout=1000",
+    // Should the test fail, close the context instead of ending the test JVM
+    "db.monitor.shutdown.exit-jvm=false"
+})
+class SaturatedPoolMonitoringTest {
+
+    /** Several monitoring cycles, probe deadlines and pool connection timeouts. */
+    private static final long HOLD_MILLIS = 7000;
+
+    @Autowired
+    DatabaseConnectionMonitorService monitorService;
+
+    @Autowired
+    MonitoredPoolRegistry poolRegistry;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void testHeldPoolDoesNotOpenBreakerOrDrain() throws Exception {
+        assertInstanceOf(DedicatedConnectionProbe.class, poolRegistry.getPool("dataSource").getHealthProbe(),
+                "Probes should not compete with the application for connections by default");
+        assertSaturationIsNotAnOutage(monitorService, poolRegistry, dataSource);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "db.monitor.probe.mode=POOLED")
+    class PooledProbe {
+
+        // Nested tests run against their own context, the enclosing instance is injected from the outer one
+        @Autowired
+        DatabaseConnectionMonitorService pooledMonitorService;
+
+        @Autowired
+        MonitoredPoolRegistry pooledPoolRegistry;
+
+        @Autowired
+        DataSource pooledDataSource;
+
+        @Test
+        void testHeldPoolDoesNotOpenBreakerOrDrain() throws Exception {
+            assertInstanceOf(PooledHealthProbe.class, pooledPoolRegistry.getPool("dataSource").getHealthProbe());
+            assertSaturationIsNotAnOutage(pooledMonitorService, pooledPoolRegistry, pooledDataSource);
+        }
+    }
+
+    private static void assertSaturationIsNotAnOutage(DatabaseConnectionMonitorService monitorService,
+                                                      MonitoredPoolRegistry poolRegistry, DataSource dataSource) throws Exception {
+        MonitoredPool pool = poolRegistry.getPool("dataSource");
+        try (Connection held = dataSource.getConnection()) {
+            Thread.sleep(HOLD_MILLIS);
+
+            assertEquals(CircuitState.CLOSED, pool.getCircuitBreaker().getState(), "Breaker should stay closed");
+            assertTrue(monitorService.isDatabaseAvailable(), "Database should be reported available");
+            assertFalse(monitorService.isShutdownInProgress(), "No drain should start");
+            assertEquals(0, pool.getConsecutiveFailures(), "Saturation should not count as a probe failure");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.apimonitor.dbmonitor.shutdown;
+
+import com.apimonitor.dbmonitor.breaker.DatabaseUnavailableException;
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the drain sequence: readiness, admission, bounded wait and context shutdown.
+ */
+class ApplicationDrainerTest {
+
+    private HikariDataSource pool;
+    private MonitoredDataSource dataSource;
+    private MonitoredPoolRegistry registry;
+    private GenericApplicationContext context;
+    private ApplicationAvailabilityBean availability;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:draintest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        dataSource = new MonitoredDataSource(pool);
+        registry = new MonitoredPoolRegistry(Map.of("dataSource", dataSource), new StandardEnvironment(), null, null);
+
+        context = new GenericApplicationContext();
+        context.registerBean(ApplicationAvailabilityBean.class);
+        context.refresh();
+        availability = context.getBean(ApplicationAvailabilityBean.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        registry.destroy();
+        pool.close();
+    }
+
+    @Test
+    void testDrainWaitsForInFlightConnectionsThenClosesContext() throws Exception {
+        ApplicationDrainer drainer = new ApplicationDrainer(context, registry, new DrainSettings(10000, 10, false, 1));
+        Connection inFlight = dataSource.getConnection();
+
+        assertTrue(drainer.drain("test", activeConnections -> assertEquals(0, activeConnections)));
+        assertFalse(drainer.drain("test", activeConnections -> { }), "Only one drain runs at a time");
+        waitUntil(() -> availability.getReadinessState() == ReadinessState.REFUSING_TRAFFIC);
+        waitUntil(dataSource::isDraining);
+
+        assertThrows(DatabaseUnavailableException.class, dataSource::getConnection, "New work is not admitted");
+        assertTrue(context.isActive(), "The context stays open while a connection is in use");
+
+        inFlight.close();
+        waitUntil(() -> !context.isActive());
+    }
+
+    @Test
+    void testDrainClosesContextAtDeadline() throws Exception {
+        ApplicationDrainer drainer = new ApplicationDrainer(context, registry, new DrainSettings(100, 10, false, 1));
+        AtomicInteger inUseAtClose = new AtomicInteger(-1);
+
+        try (Connection ignored = dataSource.getConnection()) {
+            drainer.drain("test", inUseAtClose::set);
+            waitUntil(() -> !context.isActive());
+        }
+
+        assertEquals(1, inUseAtClose.get(), "The held connection is reported before the context closes");
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, availability.getReadinessState(), "Traffic is never admitted again");
+        assertTrue(dataSource.isDraining());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.apimonitor.dbmonitor.sql;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests SQL fingerprinting and the bounded top-N execution time sketch.
+ */
+class SqlStatsTrackerTest {
+
+    @Test
+    void testFingerprintNormalizesLiteralsCommentsAndCase() {
+        assertEquals("select * from message where id = ? and author = ?",
+                SqlFingerprint.of("SELECT *  FROM message\n WHERE id = 42 AND author = 'O''Brien' -- lookup"));
+        assertEquals("select * from message where id in (?)",
+                SqlFingerprint.of("select * from message where id in (1, 2, 3)"));
+        assertEquals(SqlFingerprint.of("select * from message where id in (?, ?)"),
+                SqlFingerprint.of("select /* hint */ * from message where id in (7,8,9,10)"));
+        assertEquals("select col1 from t2 where x = ?", SqlFingerprint.of("select col1 from t2 where x = 1.5e-3"));
+        assertEquals("", SqlFingerprint.of(null));
+        assertEquals(SqlFingerprint.MAX_LENGTH, SqlFingerprint.of("x".repeat(5000)).length());
+    }
+
+    @Test
+    void testFingerprintCacheStaysBoundedAndCorrect() {
+        SqlStatsTracker tracker = new SqlStatsTracker(10);
+        // More distinct statements than cache slots: colliding statements evict each other
+        for (int i = 0; i < SqlStatsTracker.FINGERPRINT_CACHE_SIZE * 4; i++) {
+            assertEquals("select * from t" + i + " where id = ?", tracker.fingerprint("select * from t" + i + " where id = " + i));
+        }
+        assertEquals("select * from t0 where id = ?", tracker.fingerprint("select * from t0 where id = 0"));
+
+        String longSql = "select * from message where content in (" + "'x', ".repeat(SqlStatsTracker.MAX_CACHED_SQL_LENGTH) + "'y')";
+        assertEquals(SqlFingerprint.of(longSql), tracker.fingerprint(longSql));
+    }
+
+    @Test
+    void testTopByTotalTimeAndP99() {
+        SqlStatsTracker tracker = new SqlStatsTracker(10);
+        for (int i = 0; i < 1000; i++) {
+            tracker.record("select * from message where id = " + i, 1_000_000);
+        }
+        tracker.record("select * from message order by created_at", 300_000_000);
+
+        List<SqlStats> byTotal = tracker.topByTotalTime(2);
+        assertEquals(2, byTotal.size());
+        assertEquals("select * from message where id = ?", byTotal.get(0).getFingerprint());
+        assertEquals(1000, byTotal.get(0).getCount());
+        assertTrue(byTotal.get(0).getMeanNanos() >= 900_000 && byTotal.get(0).getMeanNanos() <= 1_100_000);
+
+        SqlStats slowest = tracker.topByP99(1).get(0);
+        assertEquals("select * from message order by created_at", slowest.getFingerprint());
+        assertTrue(slowest.getP99Nanos() >= 225_000_000, "p99 is within the histogram's relative error");
+    }
+
+    @Test
+    void testHeavyHitterSurvivesChurnOfRareStatements() {
+        SqlStatsTracker tracker = new SqlStatsTracker(4);
+        for (int round = 0; round < 50; round++) {
+            tracker.record("select * from hot", 10_000_000);
+            // Distinct table names produce distinct fingerprints that compete for the remaining slots
+            tracker.record("select * from cold_" + (char) ('a' + round % 26) + round % 7, 100_000);
+        }
+
+        assertTrue(tracker.getEvictionCount() > 0);
+        assertEquals(4, tracker.topByTotalTime(100).size());
+        SqlStats hot = tracker.topByTotalTime(1).get(0);
+        assertEquals("select * from hot", hot.getFingerprint());
+        assertEquals(50, hot.getCount());
+    }
+
+    @Test
+    void testAdmissionStaysCheapWithMoreFingerprintsThanCapacity() {
+        SqlStatsTracker tracker = new SqlStatsTracker(64);
+        int distinct = 10_000;
+        for (int i = 0; i < distinct; i++) {
+            if (i % 10 == 0) {
+                tracker.record("select * from hot where id = " + i, 10_000_000);
+            }
+            tracker.record("select * from adhoc_" + i, 100_000);
+        }
+
+        long evictions = distinct + 1 - 64;
+        assertEquals(evictions, tracker.getEvictionCount());
+        assertEquals(64, tracker.topByTotalTime(1000).size());
+        assertTrue(tracker.getCandidateScanCount() <= evictions / 8 + 1,
+                "Each scan for the smallest totals must serve several evictions");
+
+        SqlStats hot = tracker.topByTotalTime(1).get(0);
+        assertEquals("select * from hot where id = ?", hot.getFingerprint());
+        assertEquals(distinct / 10, hot.getCount());
+    }
+
+    @Test
+    void testStatementsAreTimedThroughMonitoredDataSource() throws Exception {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:sqlstatstest;DB_CLOSE_DELAY=-1");
+            pool.setUsername("sa");
+            pool.setPassword("");
+            MonitoredDataSource dataSource = new MonitoredDataSource(pool, 0.0, 16);
+
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("create table message (id int primary key, text varchar(100))");
+                try (PreparedStatement insert = connection.prepareStatement("insert into message values (?, ?)")) {
+                    for (int i = 0; i < 3; i++) {
+                        insert.setInt(1, i);
+                        insert.setString(2, "hello " + i);
+                        insert.executeUpdate();
+                    }
+                }
+                statement.executeQuery("select text from message where id = 1").close();
+                assertSame(connection, statement.getConnection());
+            }
+
+            List<SqlStats> stats = dataSource.getSqlStats().topByTotalTime(10);
+            SqlStats insert = stats.stream()
+                    .filter(s -> s.getFingerprint().equals("insert into message values (?)"))
+                    .findFirst().orElseThrow();
+            assertEquals(3, insert.getCount());
+            assertTrue(stats.stream().anyMatch(s -> s.getFingerprint().equals("select text from message where id = ?")));
+            assertNull(new MonitoredDataSource(pool).getSqlStats());
+        }
+    }
+}
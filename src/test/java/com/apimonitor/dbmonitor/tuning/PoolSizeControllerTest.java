@@ -0,0 +1,77 @@
+package com.apimonitor.dbmonitor.tuning;
+
+import com.apimonitor.dbmonitor.sampler.PoolWindowStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pool sizing decisions of the auto-tuner.
+ */
+class PoolSizeControllerTest {
+
+    private static final TuningSettings SETTINGS = new TuningSettings(true, 10_000, 0, 0.8, 0.5, 50, 3, 60_000, 0.25);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static PoolWindowStats window(int maxActive, int p90Active, int maxThreadsAwaiting) {
+        return new PoolWindowStats(10 * SECOND, 1000, 10, maxActive, maxActive, maxThreadsAwaiting,
+                p90Active, maxThreadsAwaiting, maxThreadsAwaiting > 0 ? 0.1 : 0.0, p90Active, p90Active, maxActive);
+    }
+
+    @Test
+    void testWaitingThreadsGrowPoolUpToUpperBound() {
+        PoolSizeController controller = new PoolSizeController(2, 12, SETTINGS);
+        assertEquals(12, controller.nextMaximumPoolSize(10, window(10, 10, 3), 0, UNLIMITED, 0));
+        assertEquals(12, controller.nextMaximumPoolSize(12, window(12, 12, 3), 0, UNLIMITED, SECOND));
+    }
+
+    @Test
+    void testSlowAcquisitionGrowsPoolWithinConnectionLimit() {
+        PoolSizeController controller = new PoolSizeController(2, 40, SETTINGS);
+        long slow = TimeUnit.MILLISECONDS.toNanos(80);
+        assertEquals(10, controller.nextMaximumPoolSize(8, window(6, 5, 0), slow, 3, 0));
+        assertEquals(11, controller.nextMaximumPoolSize(10, window(6, 5, 0), slow, 1, SECOND));
+        assertEquals(11, controller.nextMaximumPoolSize(11, window(6, 5, 0), slow, 0, 2 * SECOND));
+    }
+
+    @Test
+    void testShrinkRequiresConsecutiveQuietEvaluations() {
+        PoolSizeController controller = new PoolSizeController(2, 20, SETTINGS);
+        assertEquals(20, controller.nextMaximumPoolSize(20, window(4, 3, 0), 0, UNLIMITED, 0));
+        assertEquals(20, controller.nextMaximumPoolSize(20, window(4, 3, 0), 0, UNLIMITED, SECOND));
+        // One busy evaluation restarts the count
+        assertEquals(20, controller.nextMaximumPoolSize(20, window(12, 8, 0), 0, UNLIMITED, 2 * SECOND));
+        assertEquals(20, controller.nextMaximumPoolSize(20, window(4, 3, 0), 0, UNLIMITED, 3 * SECOND));
+        assertEquals(20, controller.nextMaximumPoolSize(20, window(4, 3, 0), 0, UNLIMITED, 4 * SECOND));
+        // Shrinks by one step (25%), not straight to the peak
+        assertEquals(15, controller.nextMaximumPoolSize(20, window(4, 3, 0), 0, UNLIMITED, 5 * SECOND));
+    }
+
+    @Test
+    void testShrinkRespectsCooldown() {
+        PoolSizeController controller = new PoolSizeController(2, 20, SETTINGS);
+        assertEquals(20, controller.nextMaximumPoolSize(16, window(16, 16, 1), 0, UNLIMITED, 0));
+
+        long t = SECOND;
+        for (int i = 0; i < 6; i++, t += 10 * SECOND) {
+            assertEquals(20, controller.nextMaximumPoolSize(20, window(6, 5, 0), 0, UNLIMITED, t),
+                    "Shrunk during cooldown at evaluation " + i);
+        }
+        // Peak of 6 at 65% utilization needs 10 connections, but one step only reaches 15
+        assertEquals(15, controller.nextMaximumPoolSize(20, window(6, 5, 0), 0, UNLIMITED, 70 * SECOND));
+    }
+
+    @Test
+    void testShrinkLeavesHeadroomForObservedPeak() {
+        TuningSettings largeSteps = new TuningSettings(true, 10_000, 0, 0.8, 0.5, 50, 1, 60_000, 0.5);
+        PoolSizeController controller = new PoolSizeController(2, 20, largeSteps);
+        // A peak of 9 at the 65% watermark midpoint needs 14 connections, although one step would allow 10
+        assertEquals(14, controller.nextMaximumPoolSize(20, window(9, 7, 0), 0, UNLIMITED, 0));
+
+        assertEquals(2, controller.minimumIdleFor(10, window(6, 1, 0)));
+        assertEquals(5, controller.minimumIdleFor(10, window(6, 5, 0)));
+    }
+}
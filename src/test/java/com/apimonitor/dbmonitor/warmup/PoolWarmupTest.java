@@ -0,0 +1,90 @@
+package com.apimonitor.dbmonitor.warmup;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the startup warm-up against an in-memory H2 pool.
+ */
+class PoolWarmupTest {
+
+    private HikariDataSource pool;
+    private MonitoredPoolRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:warmuptest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMinimumIdle(4);
+        pool.setMaximumPoolSize(6);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS warmup_sessions (session_id INT)");
+            statement.execute("DELETE FROM warmup_sessions");
+        }
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Map.of("db.monitor.warmup.queries", "INSERT INTO warmup_sessions VALUES (SESSION_ID())")));
+        registry = new MonitoredPoolRegistry(Map.of("dataSource", new MonitoredDataSource(pool)),
+                environment, null, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.destroy();
+        pool.close();
+    }
+
+    @Test
+    void testWarmupRunsQueriesOnEveryIdleConnection() throws Exception {
+        AtomicBoolean taskRan = new AtomicBoolean();
+        PoolWarmup warmup = new PoolWarmup(registry, List.of(() -> taskRan.set(true)), 10_000);
+
+        assertTrue(warmup.warmUp());
+        assertTrue(taskRan.get());
+        assertTrue(pool.getHikariPoolMXBean().getTotalConnections() >= 4);
+        assertEquals(0, pool.getHikariPoolMXBean().getActiveConnections(), "Warm-up returns every connection");
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(DISTINCT session_id) FROM warmup_sessions")) {
+            result.next();
+            assertEquals(4, result.getInt(1), "Each of the minimumIdle connections is a different one");
+        }
+    }
+
+    @Test
+    void testFailingTaskDoesNotFailWarmup() {
+        PoolWarmup warmup = new PoolWarmup(registry, List.of(() -> {
+            throw new IllegalStateException("broken");
+        }), 10_000);
+
+        assertTrue(warmup.warmUp());
+    }
+
+    @Test
+    void testWarmupIsBoundedByTimeout() {
+        PoolWarmup warmup = new PoolWarmup(registry, List.of(() -> Thread.sleep(30_000)), 300);
+
+        long start = System.nanoTime();
+        assertFalse(warmup.warmUp());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Startup continues at the deadline");
+    }
+}
@@ -0,0 +1,131 @@
+package com.apimonitor.dbmonitor.web;
+
+import com.apimonitor.dbmonitor.datasource.MonitoredDataSource;
+import com.apimonitor.dbmonitor.pool.MonitoredPoolRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests load shedding against a single-connection H2 pool.
+ */
+class AdmissionControlFilterTest {
+
+    private HikariDataSource pool;
+    private MonitoredPoolRegistry registry;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:admissiontest;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setPassword("");
+        pool.setMaximumPoolSize(1);
+        pool.setConnectionTimeout(5000);
+
+        registry = new MonitoredPoolRegistry(Map.of("dataSource", new MonitoredDataSource(pool)),
+                new MockEnvironment(), null, null);
+        filter = new AdmissionControlFilter(registry, 1, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        registry.destroy();
+        pool.close();
+    }
+
+    @Test
+    void testRequestsPassWhilePoolHasCapacity() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/hello/messages"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0, filter.getRejectedRequestCount());
+    }
+
+    @Test
+    void testRequestsAreRejectedWhileThreadsWaitForConnections() throws Exception {
+        CountDownLatch waiterStarted = new CountDownLatch(1);
+        Thread waiter;
+        try (Connection held = registry.getPool("dataSource").getDataSource().getConnection()) {
+            waiter = new Thread(() -> {
+                waiterStarted.countDown();
+                try (Connection ignored = registry.getPool("dataSource").getDataSource().getConnection()) {
+                    // released right away
+                } catch (Exception ignored) {
+                    // timed out
+                }
+            });
+            waiter.start();
+            waiterStarted.await();
+            while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(5);
+            }
+
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/hello/messages"), response, chain);
+
+            assertEquals(503, response.getStatus());
+            assertEquals("2", response.getHeader("Retry-After"));
+            assertNull(chain.getRequest(), "Rejected request must not reach the application");
+            assertEquals(1, filter.getRejectedRequestCount());
+        }
+        waiter.join();
+
+        assertNull(filter.rejectionReason());
+    }
+
+    @Test
+    void testSlowAcquiresShedUntilTheFirstFastOneAfterThePause() throws Exception {
+        AdmissionControlFilter latencyFilter = new AdmissionControlFilter(registry, 0, 100, 2);
+        DataSource dataSource = registry.getPool("dataSource").getDataSource();
+
+        Thread waiter;
+        try (Connection held = dataSource.getConnection()) {
+            waiter = new Thread(() -> {
+                try (Connection ignored = dataSource.getConnection()) {
+                    // released right away
+                } catch (Exception ignored) {
+                    // timed out
+                }
+            });
+            waiter.start();
+            while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(400);
+        }
+        waiter.join();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        latencyFilter.doFilter(new MockHttpServletRequest("GET", "/api/hello/messages"), response, chain);
+        assertEquals(503, response.getStatus(), "A 400 ms wait is above the 100 ms limit");
+
+        // The average goes stale, one request is admitted and acquires right away
+        Thread.sleep(1100);
+        assertNull(latencyFilter.rejectionReason());
+        try (Connection ignored = dataSource.getConnection()) {
+            // released right away
+        }
+
+        assertNull(latencyFilter.rejectionReason(), "A recovered pool must not keep shedding on the old average");
+    }
+}